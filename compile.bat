@@ -8,10 +8,14 @@ if not exist "out" mkdir out
 
 REM Compiler tous les fichiers Java avec le driver MySQL
 echo Compilation en cours...
-javac -cp "lib\mysql-connector-j-9.4.0.jar" -d out -encoding UTF-8 --enable-preview --release 17 src\main\java\com\solubank\*.java src\main\java\com\solubank\dao\*.java src\main\java\com\solubank\entity\*.java src\main\java\com\solubank\service\*.java src\main\java\com\solubank\ui\*.java src\main\java\com\solubank\util\*.java
+REM Liste de tous les sources: les nouveaux packages sont compiles sans modifier ce script
+dir /s /b src\main\java\*.java > sources.txt
+javac -cp "lib\mysql-connector-j-9.4.0.jar" -d out -encoding UTF-8 --enable-preview --release 17 @sources.txt
+set RESULTAT=%ERRORLEVEL%
+del sources.txt
 
 REM Vérifier si la compilation a réussi
-if %ERRORLEVEL% == 0 (
+if %RESULTAT% == 0 (
     echo.
     echo COMPILATION REUSSIE!
     echo Les fichiers compiles sont dans le dossier 'out'
@@ -1,12 +1,40 @@
 package com.solubank;
 
+import com.solubank.api.HttpApiServer;
+import com.solubank.dao.SchemaManager;
+import com.solubank.service.AsyncService;
+import com.solubank.service.IngestionDispatcher;
+import com.solubank.service.TransactionService;
 import com.solubank.ui.MenuPrincipal;
+import com.solubank.util.AsyncExecutor;
 import com.solubank.util.DatabaseConnection;
 
+import java.sql.Connection;
+import java.sql.SQLException;
+
 public class Main {
     public static void main(String[] args) {
+        HttpApiServer api = null;
         try {
-            DatabaseConnection.getConnection();
+            try (Connection connection = DatabaseConnection.getConnection()) {
+                if (!connection.isValid(2)) {
+                    throw new SQLException("La connexion à la base ne répond pas");
+                }
+            }
+            
+            SchemaManager schemaManager = new SchemaManager(DatabaseConnection.getDataSource());
+            schemaManager.migrate();
+            schemaManager.verifyIndexes(Boolean.getBoolean("solubank.schema.strict"));
+            TransactionService.chargerInstantanes();
+            TransactionService.demarrerJournal();
+            
+            Integer portHttp = Integer.getInteger("solubank.http.port");
+            if (portHttp != null) {
+                api = HttpApiServer.demarrer(HttpApiServer.Config.defaults(portHttp),
+                        new AsyncService(), AsyncExecutor.partage());
+                System.out.println("API HTTP disponible sur http://" + api.getAdresse().getHostString()
+                        + ":" + api.getAdresse().getPort());
+            }
             
             MenuPrincipal menu = new MenuPrincipal();
             menu.demarrer();
@@ -15,6 +43,14 @@ public class Main {
             System.err.println("Erreur lors du demarrage de l'application: " + e.getMessage());
             System.err.println("Verifiez que MySQL est demarre et que la base de donnees 'bank_anomaly_db' existe.");
         } finally {
+            if (api != null) {
+                api.close();
+            }
+            IngestionDispatcher.fermerPartage();
+            AsyncExecutor.fermerPartage();
+            TransactionService.arreterJournal();
+            TransactionService.sauvegarderEtatDetection();
+            TransactionService.sauvegarderInstantanes();
             DatabaseConnection.closeConnection();
         }
     }
@@ -0,0 +1,19 @@
+package com.solubank.analytics;
+
+import com.solubank.entity.Montant;
+
+import java.math.BigDecimal;
+
+
+public record Agregat(long nombre, long centimes) {
+
+    public static final Agregat VIDE = new Agregat(0, 0);
+
+    public BigDecimal volume() {
+        return Montant.enBigDecimal(centimes);
+    }
+
+    public Agregat plus(Agregat autre) {
+        return new Agregat(nombre + autre.nombre, Montant.additionner(centimes, autre.centimes));
+    }
+}
@@ -0,0 +1,505 @@
+package com.solubank.analytics;
+
+import com.solubank.entity.Montant;
+import com.solubank.entity.Transaction;
+import com.solubank.entity.TypeTransaction;
+import com.solubank.util.LocationDictionary;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+
+public class ColumnarTransactionStore {
+
+    @FunctionalInterface
+    public interface Source {
+        // plages: bornes incluses [début, fin, ...] d'identifiants encore attendus sous le filigrane
+        Stream<Transaction> lire(long apresId, long[] plages);
+    }
+
+    private static final int BITS_SEGMENT = 18;
+    private static final int TAILLE_SEGMENT = 1 << BITS_SEGMENT;
+    private static final int TAILLE_PUBLICATION = 8192;
+    private static final int NOMBRE_TYPES = TypeTransaction.values().length;
+    // Un identifiant AUTO_INCREMENT réservé mais pas encore validé (import, voie d'ingestion, journal) laisse
+    // un trou sous le filigrane; au-delà de ce délai, le trou est tenu pour une insertion annulée
+    private static final long DELAI_TROU_MS = 5 * 60_000;
+    private static final int MAX_TROUS = 256;
+
+    private final LocationDictionary dictionnaire;
+    private final ZoneId zone;
+
+    private Segment[] segments = new Segment[0];
+    private int taille;
+    private long dernierIdCharge;
+    private int lignesPersistees;
+    private long minEpoch = Long.MAX_VALUE;
+    private long maxEpoch = Long.MIN_VALUE;
+    private final BitSet presents = new BitSet();
+    private List<Trou> trous = new ArrayList<>();
+    private final ReentrantLock verrouSynchronisation = new ReentrantLock();
+    private final Preparation preparation = new Preparation();
+
+    private record Trou(long debut, long fin, long detecteMs) {}
+
+    public ColumnarTransactionStore(LocationDictionary dictionnaire) {
+        this(dictionnaire, ZoneId.systemDefault());
+    }
+
+    public ColumnarTransactionStore(LocationDictionary dictionnaire, ZoneId zone) {
+        this.dictionnaire = dictionnaire;
+        this.zone = zone;
+    }
+
+    public int synchroniser(Source source) {
+        // Une seule synchronisation à la fois; la lecture de la base se fait hors du moniteur pour ne pas
+        // bloquer ajouter() pendant le parcours, seules les publications par lots le prennent.
+        // L'attente reste interruptible: un appelant dont le délai expire ne reste pas bloqué derrière une autre lecture
+        try {
+            verrouSynchronisation.lockInterruptibly();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Synchronisation du magasin interrompue");
+        }
+        try {
+            long depuis;
+            long[] plages;
+            synchronized (this) {
+                depuis = dernierIdCharge;
+                plages = new long[trous.size() * 2];
+                for (int i = 0; i < trous.size(); i++) {
+                    plages[2 * i] = trous.get(i).debut();
+                    plages[2 * i + 1] = trous.get(i).fin();
+                }
+            }
+            preparation.taille = 0;
+            int ajoutees = 0;
+            long dernierId = depuis;
+            try (Stream<Transaction> transactions = source.lire(depuis, plages)) {
+                var iterateur = transactions.iterator();
+                while (iterateur.hasNext()) {
+                    Transaction transaction = iterateur.next();
+                    preparation.ajouter(transaction);
+                    dernierId = Math.max(dernierId, transaction.id());
+                    if (preparation.taille == TAILLE_PUBLICATION) {
+                        ajoutees += publier();
+                    }
+                }
+            }
+            ajoutees += publier();
+            synchronized (this) {
+                recenserTrous(depuis, dernierId);
+                dernierIdCharge = Math.max(dernierIdCharge, dernierId);
+            }
+            return ajoutees;
+        } finally {
+            verrouSynchronisation.unlock();
+        }
+    }
+
+    public synchronized void ajouter(Transaction transaction) {
+        ajouterLigne(transaction);
+    }
+
+    public synchronized int taille() {
+        return taille;
+    }
+
+    public long compter(Filtre filtre) {
+        Vue vue = vue();
+        return IntStream.range(0, vue.nombreSegments()).parallel()
+                .mapToLong(s -> {
+                    Segment segment = vue.segments()[s];
+                    int fin = vue.finSegment(s);
+                    long nombre = 0;
+                    for (int i = 0; i < fin; i++) {
+                        if (segment.accepte(i, filtre)) {
+                            nombre++;
+                        }
+                    }
+                    return nombre;
+                })
+                .sum();
+    }
+
+    public long sommeCentimes(Filtre filtre) {
+        Vue vue = vue();
+        return IntStream.range(0, vue.nombreSegments()).parallel()
+                .mapToLong(s -> {
+                    Segment segment = vue.segments()[s];
+                    int fin = vue.finSegment(s);
+                    long somme = 0;
+                    for (int i = 0; i < fin; i++) {
+                        if (segment.accepte(i, filtre)) {
+                            somme = Montant.additionner(somme, segment.centimes[i]);
+                        }
+                    }
+                    return somme;
+                })
+                .reduce(0, Montant::additionner);
+    }
+
+    public Map<TypeTransaction, Agregat> agregerParType(Filtre filtre) {
+        Vue vue = vue();
+        long[] totaux = IntStream.range(0, vue.nombreSegments()).parallel()
+                .mapToObj(s -> {
+                    Segment segment = vue.segments()[s];
+                    int fin = vue.finSegment(s);
+                    long[] partiel = new long[NOMBRE_TYPES * 2];
+                    for (int i = 0; i < fin; i++) {
+                        if (segment.accepte(i, filtre)) {
+                            int type = segment.types[i];
+                            partiel[type]++;
+                            partiel[NOMBRE_TYPES + type] = Montant.additionner(partiel[NOMBRE_TYPES + type], segment.centimes[i]);
+                        }
+                    }
+                    return partiel;
+                })
+                .reduce(new long[NOMBRE_TYPES * 2], ColumnarTransactionStore::additionner);
+
+        Map<TypeTransaction, Agregat> resultat = new EnumMap<>(TypeTransaction.class);
+        for (TypeTransaction type : TypeTransaction.values()) {
+            resultat.put(type, new Agregat(totaux[type.ordinal()], totaux[NOMBRE_TYPES + type.ordinal()]));
+        }
+        return resultat;
+    }
+
+    public SortedMap<YearMonth, Agregat> agregerParMois(Filtre filtre) {
+        Vue vue = vue();
+        if (vue.taille() == 0) {
+            return Collections.emptySortedMap();
+        }
+        YearMonth premier = YearMonth.from(Instant.ofEpochSecond(vue.minEpoch()).atZone(zone));
+        YearMonth dernier = YearMonth.from(Instant.ofEpochSecond(vue.maxEpoch()).atZone(zone));
+        List<YearMonth> mois = new ArrayList<>();
+        for (YearMonth m = premier; !m.isAfter(dernier); m = m.plusMonths(1)) {
+            mois.add(m);
+        }
+        long[] debuts = new long[mois.size()];
+        for (int m = 0; m < debuts.length; m++) {
+            debuts[m] = mois.get(m).atDay(1).atStartOfDay(zone).toEpochSecond();
+        }
+
+        int nombreMois = debuts.length;
+        long[] totaux = IntStream.range(0, vue.nombreSegments()).parallel()
+                .mapToObj(s -> {
+                    Segment segment = vue.segments()[s];
+                    int fin = vue.finSegment(s);
+                    long[] partiel = new long[nombreMois * 2];
+                    int m = 0;
+                    for (int i = 0; i < fin; i++) {
+                        if (segment.accepte(i, filtre)) {
+                            long epoch = segment.epochs[i];
+                            // Les lignes arrivent presque triées par date: on réutilise le dernier mois trouvé
+                            if (epoch < debuts[m] || (m + 1 < nombreMois && epoch >= debuts[m + 1])) {
+                                m = Arrays.binarySearch(debuts, epoch);
+                                m = m >= 0 ? m : -m - 2;
+                            }
+                            partiel[m]++;
+                            partiel[nombreMois + m] = Montant.additionner(partiel[nombreMois + m], segment.centimes[i]);
+                        }
+                    }
+                    return partiel;
+                })
+                .reduce(new long[nombreMois * 2], ColumnarTransactionStore::additionner);
+
+        SortedMap<YearMonth, Agregat> resultat = new TreeMap<>();
+        for (int m = 0; m < nombreMois; m++) {
+            if (totaux[m] > 0) {
+                resultat.put(mois.get(m), new Agregat(totaux[m], totaux[nombreMois + m]));
+            }
+        }
+        return resultat;
+    }
+
+    public long[] filtrerIds(Filtre filtre) {
+        Vue vue = vue();
+        return IntStream.range(0, vue.nombreSegments()).parallel()
+                .mapToObj(s -> {
+                    Segment segment = vue.segments()[s];
+                    int fin = vue.finSegment(s);
+                    long[] ids = new long[Math.min(fin, 1024)];
+                    int nombre = 0;
+                    for (int i = 0; i < fin; i++) {
+                        if (segment.accepte(i, filtre)) {
+                            if (nombre == ids.length) {
+                                ids = Arrays.copyOf(ids, nombre * 2);
+                            }
+                            ids[nombre++] = segment.ids[i];
+                        }
+                    }
+                    return Arrays.copyOf(ids, nombre);
+                })
+                .reduce(new long[0], (a, b) -> {
+                    long[] fusion = Arrays.copyOf(a, a.length + b.length);
+                    System.arraycopy(b, 0, fusion, a.length, b.length);
+                    return fusion;
+                });
+    }
+
+    public List<LigneTransaction> topMontants(int k, Filtre filtre) {
+        if (k <= 0) {
+            return List.of();
+        }
+        Vue vue = vue();
+        List<LigneTransaction> candidats = IntStream.range(0, vue.nombreSegments()).parallel()
+                .mapToObj(s -> vue.segments()[s].topMontants(vue.finSegment(s), k, filtre))
+                .flatMap(List::stream)
+                .toList();
+        List<LigneTransaction> tries = new ArrayList<>(candidats);
+        tries.sort((a, b) -> Long.compare(b.centimes(), a.centimes()));
+        return List.copyOf(tries.subList(0, Math.min(k, tries.size())));
+    }
+
+    public long epochSeconde(LocalDateTime date) {
+        return date.atZone(zone).toEpochSecond();
+    }
+
+    private void ajouterLigne(Transaction transaction) {
+        ajouterColonnes(
+            transaction.id(),
+            epochSeconde(transaction.date()),
+            Montant.centimes(transaction.montant()),
+            transaction.type().ordinal(),
+            dictionnaire.encoder(transaction.lieu()),
+            transaction.idCompte()
+        );
+    }
+
+    private synchronized int publier() {
+        int avant = taille;
+        for (int i = 0; i < preparation.taille; i++) {
+            ajouterColonnes(preparation.ids[i], preparation.epochs[i], preparation.centimes[i],
+                    preparation.types[i], preparation.lieux[i], preparation.comptes[i]);
+        }
+        preparation.taille = 0;
+        return taille - avant;
+    }
+
+    private void recenserTrous(long ancienFiligrane, long nouveauFiligrane) {
+        long maintenant = System.currentTimeMillis();
+        List<Trou> restants = new ArrayList<>();
+        for (Trou trou : trous) {
+            if (maintenant - trou.detecteMs() < DELAI_TROU_MS) {
+                ajouterTrous(restants, trou.debut(), trou.fin(), trou.detecteMs());
+            }
+        }
+        ajouterTrous(restants, ancienFiligrane + 1, nouveauFiligrane, maintenant);
+        // Trop de trous: les plus anciens (les plus bas) sont abandonnés en premier
+        trous = restants.size() > MAX_TROUS
+                ? new ArrayList<>(restants.subList(restants.size() - MAX_TROUS, restants.size()))
+                : restants;
+    }
+
+    private void ajouterTrous(List<Trou> destination, long debut, long fin, long detecteMs) {
+        // Seuls les identifiants suivis par presents peuvent être recensés
+        long borne = Math.min(fin, Integer.MAX_VALUE - 1L);
+        int id = (int) Math.max(debut, 0);
+        while (id <= borne) {
+            id = presents.nextClearBit(id);
+            if (id > borne) {
+                return;
+            }
+            int suivant = presents.nextSetBit(id);
+            long finTrou = suivant < 0 || suivant > borne ? borne : suivant - 1L;
+            destination.add(new Trou(id, finTrou, detecteMs));
+            id = (int) finTrou + 1;
+        }
+    }
+
+    synchronized void chargerLigne(long id, long epoch, long centimes, int type, int lieuId, long compteId) {
+        ajouterColonnes(id, epoch, centimes, type, lieuId, compteId);
+    }
+
+    synchronized long dernierIdCharge() {
+        return dernierIdCharge;
+    }
+
+    synchronized long filigranePersistable() {
+        // Sous le premier trou, tout est chargé: l'instantané repartira de là pour retrouver les validations tardives
+        return trous.isEmpty() ? dernierIdCharge : Math.min(dernierIdCharge, trous.get(0).debut() - 1);
+    }
+
+    synchronized void avancerDernierIdCharge(long id) {
+        dernierIdCharge = Math.max(dernierIdCharge, id);
+    }
+
+    synchronized int lignesPersistees() {
+        return lignesPersistees;
+    }
+
+    synchronized void marquerPersiste(int lignes) {
+        lignesPersistees = lignes;
+    }
+
+    void parcourir(int debut, LecteurLigne lecteur) throws IOException {
+        Vue vue = vue();
+        for (int ligne = debut; ligne < vue.taille(); ligne++) {
+            Segment segment = vue.segments()[ligne >>> BITS_SEGMENT];
+            int i = ligne & (TAILLE_SEGMENT - 1);
+            lecteur.lire(segment.ids[i], segment.epochs[i], segment.centimes[i], segment.types[i],
+                    segment.lieux[i], segment.comptes[i]);
+        }
+    }
+
+    @FunctionalInterface
+    interface LecteurLigne {
+        void lire(long id, long epoch, long centimes, int type, int lieuId, long compteId) throws IOException;
+    }
+
+    private void ajouterColonnes(long id, long epoch, long centimes, int type, int lieuId, long compteId) {
+        if (id <= Integer.MAX_VALUE && presents.get((int) id)) {
+            return;
+        }
+        int segmentIndex = taille >>> BITS_SEGMENT;
+        if (segmentIndex == segments.length) {
+            segments = Arrays.copyOf(segments, segments.length + 1);
+            segments[segmentIndex] = new Segment();
+        }
+        Segment segment = segments[segmentIndex];
+        int i = taille & (TAILLE_SEGMENT - 1);
+        segment.ids[i] = id;
+        segment.epochs[i] = epoch;
+        segment.centimes[i] = centimes;
+        segment.types[i] = (byte) type;
+        segment.lieux[i] = lieuId;
+        segment.comptes[i] = compteId;
+        taille++;
+        minEpoch = Math.min(minEpoch, epoch);
+        maxEpoch = Math.max(maxEpoch, epoch);
+        if (id <= Integer.MAX_VALUE) {
+            presents.set((int) id);
+        }
+    }
+
+    private synchronized Vue vue() {
+        return new Vue(segments, taille, minEpoch, maxEpoch);
+    }
+
+    private static long[] additionner(long[] a, long[] b) {
+        long[] somme = new long[a.length];
+        for (int i = 0; i < a.length; i++) {
+            somme[i] = Montant.additionner(a[i], b[i]);
+        }
+        return somme;
+    }
+
+    private record Vue(Segment[] segments, int taille, long minEpoch, long maxEpoch) {
+        int nombreSegments() {
+            return (taille + TAILLE_SEGMENT - 1) >>> BITS_SEGMENT;
+        }
+
+        int finSegment(int s) {
+            return Math.min(TAILLE_SEGMENT, taille - (s << BITS_SEGMENT));
+        }
+    }
+
+    private final class Preparation {
+        private final long[] ids = new long[TAILLE_PUBLICATION];
+        private final long[] epochs = new long[TAILLE_PUBLICATION];
+        private final long[] centimes = new long[TAILLE_PUBLICATION];
+        private final int[] types = new int[TAILLE_PUBLICATION];
+        private final int[] lieux = new int[TAILLE_PUBLICATION];
+        private final long[] comptes = new long[TAILLE_PUBLICATION];
+        private int taille;
+
+        void ajouter(Transaction transaction) {
+            ids[taille] = transaction.id();
+            epochs[taille] = epochSeconde(transaction.date());
+            centimes[taille] = Montant.centimes(transaction.montant());
+            types[taille] = transaction.type().ordinal();
+            lieux[taille] = dictionnaire.encoder(transaction.lieu());
+            comptes[taille] = transaction.idCompte();
+            taille++;
+        }
+    }
+
+    private static final class Segment {
+        private final long[] ids = new long[TAILLE_SEGMENT];
+        private final long[] epochs = new long[TAILLE_SEGMENT];
+        private final long[] centimes = new long[TAILLE_SEGMENT];
+        private final byte[] types = new byte[TAILLE_SEGMENT];
+        private final int[] lieux = new int[TAILLE_SEGMENT];
+        private final long[] comptes = new long[TAILLE_SEGMENT];
+
+        boolean accepte(int i, Filtre filtre) {
+            return filtre.accepte(epochs[i], centimes[i], types[i], lieux[i], comptes[i]);
+        }
+
+        List<LigneTransaction> topMontants(int fin, int k, Filtre filtre) {
+            int[] tas = new int[k];
+            int nombre = 0;
+            for (int i = 0; i < fin; i++) {
+                if (!accepte(i, filtre)) {
+                    continue;
+                }
+                if (nombre < k) {
+                    tas[nombre] = i;
+                    monter(tas, nombre++);
+                } else if (centimes[i] > centimes[tas[0]]) {
+                    tas[0] = i;
+                    descendre(tas, nombre);
+                }
+            }
+            List<LigneTransaction> lignes = new ArrayList<>(nombre);
+            TypeTransaction[] typesTransaction = TypeTransaction.values();
+            for (int n = 0; n < nombre; n++) {
+                int i = tas[n];
+                lignes.add(new LigneTransaction(ids[i], epochs[i], centimes[i], typesTransaction[types[i]], comptes[i]));
+            }
+            return lignes;
+        }
+
+        private void monter(int[] tas, int position) {
+            while (position > 0) {
+                int parent = (position - 1) / 2;
+                if (centimes[tas[parent]] <= centimes[tas[position]]) {
+                    return;
+                }
+                echanger(tas, parent, position);
+                position = parent;
+            }
+        }
+
+        private void descendre(int[] tas, int nombre) {
+            int position = 0;
+            while (true) {
+                int gauche = 2 * position + 1;
+                int plusPetit = position;
+                if (gauche < nombre && centimes[tas[gauche]] < centimes[tas[plusPetit]]) {
+                    plusPetit = gauche;
+                }
+                if (gauche + 1 < nombre && centimes[tas[gauche + 1]] < centimes[tas[plusPetit]]) {
+                    plusPetit = gauche + 1;
+                }
+                if (plusPetit == position) {
+                    return;
+                }
+                echanger(tas, position, plusPetit);
+                position = plusPetit;
+            }
+        }
+
+        private static void echanger(int[] tas, int a, int b) {
+            int temporaire = tas[a];
+            tas[a] = tas[b];
+            tas[b] = temporaire;
+        }
+    }
+}
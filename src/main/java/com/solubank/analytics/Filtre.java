@@ -0,0 +1,34 @@
+package com.solubank.analytics;
+
+import com.solubank.entity.TypeTransaction;
+
+
+@FunctionalInterface
+public interface Filtre {
+
+    boolean accepte(long epochSeconde, long centimes, int type, int lieuId, long compteId);
+
+    static Filtre tout() {
+        return (epochSeconde, centimes, type, lieuId, compteId) -> true;
+    }
+
+    static Filtre periode(long debutSeconde, long finSeconde) {
+        return (epochSeconde, centimes, type, lieuId, compteId) ->
+                epochSeconde >= debutSeconde && epochSeconde <= finSeconde;
+    }
+
+    static Filtre type(TypeTransaction typeTransaction) {
+        int ordinal = typeTransaction.ordinal();
+        return (epochSeconde, centimes, type, lieuId, compteId) -> type == ordinal;
+    }
+
+    static Filtre compte(long idCompte) {
+        return (epochSeconde, centimes, type, lieuId, compteId) -> compteId == idCompte;
+    }
+
+    default Filtre et(Filtre autre) {
+        return (epochSeconde, centimes, type, lieuId, compteId) ->
+                accepte(epochSeconde, centimes, type, lieuId, compteId)
+                        && autre.accepte(epochSeconde, centimes, type, lieuId, compteId);
+    }
+}
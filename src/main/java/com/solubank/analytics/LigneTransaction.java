@@ -0,0 +1,21 @@
+package com.solubank.analytics;
+
+import com.solubank.entity.Montant;
+import com.solubank.entity.TypeTransaction;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+
+public record LigneTransaction(long id, long epochSeconde, long centimes, TypeTransaction type, long compteId) {
+
+    public BigDecimal montant() {
+        return Montant.enBigDecimal(centimes);
+    }
+
+    public LocalDateTime date() {
+        return LocalDateTime.ofInstant(Instant.ofEpochSecond(epochSeconde), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,167 @@
+package com.solubank.analytics;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+
+final class SnapshotFile {
+
+    static final int TAILLE_ENTETE = 32;
+    static final long NOMBRE_QUELCONQUE = -1;
+
+    private static final int VERSION = 1;
+    private static final long FENETRE_MAX = 1L << 30;
+    private static final int TAILLE_TAMPON = 1 << 16;
+
+    record Entete(long nombre, long filigrane) {
+        static final Entete VIDE = new Entete(0, 0);
+    }
+
+    @FunctionalInterface
+    interface Lecteur {
+        void lire(ByteBuffer tampon, int position);
+    }
+
+    private SnapshotFile() {}
+
+    static Entete lire(Path fichier, int magic, int tailleEnregistrement, Lecteur lecteur) throws IOException {
+        if (!Files.exists(fichier)) {
+            return Entete.VIDE;
+        }
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ)) {
+            Entete entete = lireEntete(canal, magic, tailleEnregistrement);
+            long parFenetre = FENETRE_MAX / tailleEnregistrement;
+            for (long debut = 0; debut < entete.nombre(); debut += parFenetre) {
+                int nombre = (int) Math.min(parFenetre, entete.nombre() - debut);
+                MappedByteBuffer tampon = canal.map(FileChannel.MapMode.READ_ONLY,
+                        TAILLE_ENTETE + debut * tailleEnregistrement, (long) nombre * tailleEnregistrement);
+                for (int i = 0; i < nombre; i++) {
+                    lecteur.lire(tampon, i * tailleEnregistrement);
+                }
+            }
+            return entete;
+        }
+    }
+
+    static Ajout ajouter(Path fichier, int magic, int tailleEnregistrement, long nombreAttendu) throws IOException {
+        Path dossier = fichier.toAbsolutePath().getParent();
+        Files.createDirectories(dossier);
+        FileChannel canal = FileChannel.open(fichier,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            Entete existant = canal.size() >= TAILLE_ENTETE
+                ? lireEntete(canal, magic, tailleEnregistrement)
+                : Entete.VIDE;
+            long nombre = existant.nombre();
+            long filigrane = existant.filigrane();
+            if (nombreAttendu != NOMBRE_QUELCONQUE && nombre != nombreAttendu) {
+                // Instantané sans rapport avec les données en mémoire: on le réécrit entièrement
+                nombre = 0;
+                filigrane = 0;
+            }
+            if (nombre == 0) {
+                ecrireEntete(canal, magic, tailleEnregistrement, 0, 0);
+            }
+            canal.truncate(TAILLE_ENTETE + nombre * tailleEnregistrement);
+            return new Ajout(canal, magic, tailleEnregistrement, nombre, filigrane);
+        } catch (IOException | RuntimeException e) {
+            canal.close();
+            throw e;
+        }
+    }
+
+    private static Entete lireEntete(FileChannel canal, int magic, int tailleEnregistrement) throws IOException {
+        ByteBuffer entete = ByteBuffer.allocate(TAILLE_ENTETE);
+        while (entete.hasRemaining()) {
+            if (canal.read(entete, entete.position()) < 0) {
+                throw new IOException("Entête d'instantané tronquée");
+            }
+        }
+        entete.flip();
+        if (entete.getInt() != magic || entete.getInt() != VERSION || entete.getInt() != tailleEnregistrement) {
+            throw new IOException("Format d'instantané inconnu");
+        }
+        entete.getInt();
+        long nombre = entete.getLong();
+        long filigrane = entete.getLong();
+        if (canal.size() < TAILLE_ENTETE + nombre * tailleEnregistrement) {
+            throw new IOException("Instantané tronqué: " + nombre + " enregistrements annoncés");
+        }
+        return new Entete(nombre, filigrane);
+    }
+
+    private static void ecrireEntete(FileChannel canal, int magic, int tailleEnregistrement,
+                                     long nombre, long filigrane) throws IOException {
+        ByteBuffer entete = ByteBuffer.allocate(TAILLE_ENTETE);
+        entete.putInt(magic).putInt(VERSION).putInt(tailleEnregistrement).putInt(0)
+              .putLong(nombre).putLong(filigrane).flip();
+        while (entete.hasRemaining()) {
+            canal.write(entete, entete.position());
+        }
+    }
+
+    static final class Ajout implements AutoCloseable {
+        private final FileChannel canal;
+        private final int magic;
+        private final int tailleEnregistrement;
+        private final ByteBuffer tampon;
+        private final long nombreInitial;
+        private final long filigraneInitial;
+        private long nombre;
+
+        private Ajout(FileChannel canal, int magic, int tailleEnregistrement, long nombre, long filigrane) {
+            this.canal = canal;
+            this.magic = magic;
+            this.tailleEnregistrement = tailleEnregistrement;
+            this.tampon = ByteBuffer.allocateDirect(TAILLE_TAMPON - TAILLE_TAMPON % tailleEnregistrement);
+            this.nombreInitial = nombre;
+            this.nombre = nombre;
+            this.filigraneInitial = filigrane;
+        }
+
+        long filigrane() {
+            return filigraneInitial;
+        }
+
+        long nombre() {
+            return nombre;
+        }
+
+        long ajoutes() {
+            return nombre - nombreInitial;
+        }
+
+        ByteBuffer enregistrement() throws IOException {
+            if (tampon.remaining() < tailleEnregistrement) {
+                vider();
+            }
+            nombre++;
+            return tampon;
+        }
+
+        void terminer(long filigrane) throws IOException {
+            vider();
+            canal.force(false);
+            ecrireEntete(canal, magic, tailleEnregistrement, nombre, filigrane);
+            canal.force(true);
+        }
+
+        private void vider() throws IOException {
+            tampon.flip();
+            while (tampon.hasRemaining()) {
+                canal.write(tampon, canal.size());
+            }
+            tampon.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            canal.close();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.solubank.analytics;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+
+public final class TransactionSnapshot {
+
+    private static final int MAGIC_TRANSACTIONS = 0x534F5458;
+    private static final int MAGIC_COMPTES = 0x534F4350;
+    private static final int TAILLE_TRANSACTION = 8 + 8 + 8 + 8 + 4 + 1;
+    private static final int TAILLE_COMPTE = 8 + 8;
+
+    private TransactionSnapshot() {}
+
+    public static int chargerTransactions(Path fichier, ColumnarTransactionStore magasin) throws IOException {
+        if (magasin.taille() > 0) {
+            throw new IllegalStateException("L'instantané doit être chargé dans un magasin vide");
+        }
+        SnapshotFile.Entete entete = SnapshotFile.lire(fichier, MAGIC_TRANSACTIONS, TAILLE_TRANSACTION,
+            (tampon, position) -> magasin.chargerLigne(
+                tampon.getLong(position),
+                tampon.getLong(position + 8),
+                tampon.getLong(position + 16),
+                tampon.get(position + 36),
+                tampon.getInt(position + 32),
+                tampon.getLong(position + 24)
+            ));
+        magasin.avancerDernierIdCharge(entete.filigrane());
+        magasin.marquerPersiste(magasin.taille());
+        return (int) entete.nombre();
+    }
+
+    public static long ecrireTransactions(Path fichier, ColumnarTransactionStore magasin) throws IOException {
+        int dejaPersistees = magasin.lignesPersistees();
+        try (SnapshotFile.Ajout ajout = SnapshotFile.ajouter(fichier, MAGIC_TRANSACTIONS, TAILLE_TRANSACTION, dejaPersistees)) {
+            magasin.parcourir((int) ajout.nombre(), (id, epoch, centimes, type, lieuId, compteId) -> {
+                ByteBuffer tampon = ajout.enregistrement();
+                tampon.putLong(id).putLong(epoch).putLong(centimes).putLong(compteId).putInt(lieuId).put((byte) type);
+            });
+            ajout.terminer(magasin.filigranePersistable());
+            magasin.marquerPersiste((int) ajout.nombre());
+            return ajout.ajoutes();
+        }
+    }
+
+    public static long chargerComptes(Path fichier, BiConsumer<Long, Long> clientParCompte) throws IOException {
+        return SnapshotFile.lire(fichier, MAGIC_COMPTES, TAILLE_COMPTE,
+            (tampon, position) -> clientParCompte.accept(tampon.getLong(position), tampon.getLong(position + 8)))
+            .filigrane();
+    }
+
+    public static long ajouterComptes(Path fichier, Map<Long, Long> clientParCompte) throws IOException {
+        try (SnapshotFile.Ajout ajout = SnapshotFile.ajouter(fichier, MAGIC_COMPTES, TAILLE_COMPTE,
+                SnapshotFile.NOMBRE_QUELCONQUE)) {
+            long filigrane = ajout.filigrane();
+            for (Map.Entry<Long, Long> entry : clientParCompte.entrySet()) {
+                ajout.enregistrement().putLong(entry.getKey()).putLong(entry.getValue());
+                filigrane = Math.max(filigrane, entry.getKey());
+            }
+            ajout.terminer(filigrane);
+            return ajout.ajoutes();
+        }
+    }
+}
@@ -0,0 +1,684 @@
+package com.solubank.api;
+
+import com.solubank.dao.ClientDAO;
+import com.solubank.dao.CompteDAO;
+import com.solubank.dao.DataAccessException;
+import com.solubank.detection.AnomalyHit;
+import com.solubank.detection.AnomalyReport;
+import com.solubank.detection.RuleStatistics;
+import com.solubank.entity.Compte;
+import com.solubank.entity.Transaction;
+import com.solubank.entity.TransactionEvaluee;
+import com.solubank.entity.TransactionPage;
+import com.solubank.entity.TypeTransaction;
+import com.solubank.journal.TransactionJournal;
+import com.solubank.service.AsyncService;
+import com.solubank.service.IngestionDispatcher;
+import com.solubank.service.TransactionRefuseeException;
+import com.solubank.service.TransactionService;
+import com.solubank.util.AsyncExecutor;
+import com.solubank.util.ConnectionPool;
+import com.solubank.util.DatabaseConnection;
+import com.solubank.util.EntityCache;
+import com.solubank.util.ValidationUtil;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.UnsupportedEncodingException;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+
+public class HttpApiServer implements AutoCloseable {
+
+    public record Config(String hote, int port, int tailleCorpsMax, int taillePageMax, int tailleLotMax) {
+        public Config {
+            if (port < 0 || port > 65535) {
+                throw new IllegalArgumentException("Port invalide: " + port);
+            }
+            if (tailleCorpsMax <= 0 || taillePageMax <= 0 || tailleLotMax <= 0) {
+                throw new IllegalArgumentException("Les limites de l'API doivent être positives");
+            }
+        }
+
+        public static Config defaults(int port) {
+            return new Config("127.0.0.1", port, 1 << 20, 500, 1000);
+        }
+    }
+
+    public record MetriqueRoute(long requetes, long erreursClient, long erreursServeur,
+                                double latenceMoyenneMs, double latenceMaxMs, long[] histogramme) {}
+
+    // Bornes supérieures (ms) des classes de l'histogramme de latence; la dernière classe est ouverte
+    public static final long[] CLASSES_LATENCE_MS = {1, 2, 5, 10, 25, 50, 100, 250, 500, 1000, 5000};
+
+    private static final int TAILLE_PAGE_PAR_DEFAUT = 20;
+    private static final String ROUTE_INCONNUE = "autre";
+
+    @FunctionalInterface
+    private interface Traitement {
+        Reponse traiter(HttpExchange echange) throws Exception;
+    }
+
+    @FunctionalInterface
+    private interface Corps {
+        void ecrire(JsonWriter json) throws IOException;
+    }
+
+    private record Reponse(int statut, Corps corps) {}
+
+    private record Echec(int statut, String message) {}
+
+    private static final class ErreurHttp extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final int statut;
+
+        private ErreurHttp(int statut, String message) {
+            super(message);
+            this.statut = statut;
+        }
+    }
+
+    private static final class Metrique {
+        private final LongAdder requetes = new LongAdder();
+        private final LongAdder erreursClient = new LongAdder();
+        private final LongAdder erreursServeur = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final AtomicLongArray classes = new AtomicLongArray(CLASSES_LATENCE_MS.length + 1);
+
+        private void enregistrer(int statut, long nanos) {
+            requetes.increment();
+            if (statut >= 500) {
+                erreursServeur.increment();
+            } else if (statut >= 400) {
+                erreursClient.increment();
+            }
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+            long millis = nanos / 1_000_000;
+            int classe = 0;
+            while (classe < CLASSES_LATENCE_MS.length && millis >= CLASSES_LATENCE_MS[classe]) {
+                classe++;
+            }
+            classes.incrementAndGet(classe);
+        }
+
+        private MetriqueRoute instantane() {
+            long nombre = requetes.sum();
+            long[] histogramme = new long[classes.length()];
+            for (int i = 0; i < histogramme.length; i++) {
+                histogramme[i] = classes.get(i);
+            }
+            return new MetriqueRoute(
+                nombre,
+                erreursClient.sum(),
+                erreursServeur.sum(),
+                nombre == 0 ? 0 : totalNanos.sum() / 1_000_000.0 / nombre,
+                maxNanos.get() / 1_000_000.0,
+                histogramme
+            );
+        }
+    }
+
+    private final HttpServer serveur;
+    private final AsyncService asyncService;
+    private final Config config;
+    private final Map<String, Metrique> metriques = new ConcurrentHashMap<>();
+
+    private HttpApiServer(HttpServer serveur, AsyncService asyncService, Config config) {
+        this.serveur = serveur;
+        this.asyncService = asyncService;
+        this.config = config;
+    }
+
+    public static HttpApiServer demarrer(Config config, AsyncService asyncService, AsyncExecutor executeur) throws IOException {
+        HttpServer serveur = HttpServer.create(new InetSocketAddress(config.hote(), config.port()), 0);
+        HttpApiServer api = new HttpApiServer(serveur, asyncService, config);
+        serveur.createContext("/transactions", echange -> api.executer(echange, api::routerTransactions));
+        serveur.createContext("/comptes/", echange -> api.executer(echange, api::routerComptes));
+        serveur.createContext("/rapports/", echange -> api.executer(echange, api::routerRapports));
+        serveur.createContext("/metrics", echange -> api.executer(echange, api::routerMetriques));
+        serveur.createContext("/", echange -> api.executer(echange, e -> {
+            throw new ErreurHttp(404, "Ressource inconnue: " + e.getRequestURI().getPath());
+        }));
+        // Un thread (virtuel si disponible) par requête; l'accès à la base reste borné par l'exécuteur
+        serveur.setExecutor(executeur.executeurCoordination());
+        serveur.start();
+        return api;
+    }
+
+    public InetSocketAddress getAdresse() {
+        return serveur.getAddress();
+    }
+
+    public Map<String, MetriqueRoute> getMetriques() {
+        Map<String, MetriqueRoute> instantanes = new HashMap<>();
+        metriques.forEach((route, metrique) -> instantanes.put(route, metrique.instantane()));
+        return instantanes;
+    }
+
+    @Override
+    public void close() {
+        serveur.stop(1);
+    }
+
+    private void executer(HttpExchange echange, Traitement traitement) throws IOException {
+        long debut = System.nanoTime();
+        String route = ROUTE_INCONNUE;
+        int statut = 500;
+        try {
+            echange.setAttribute("route", ROUTE_INCONNUE);
+            Reponse reponse;
+            try {
+                reponse = traitement.traiter(echange);
+            } catch (Exception e) {
+                reponse = erreur(e);
+            }
+            route = (String) echange.getAttribute("route");
+            statut = reponse.statut();
+            repondre(echange, reponse);
+        } catch (IOException e) {
+            System.err.println("Erreur lors de l'envoi de la réponse HTTP: " + e.getMessage());
+        } finally {
+            echange.close();
+            metriques.computeIfAbsent(route, r -> new Metrique()).enregistrer(statut, System.nanoTime() - debut);
+        }
+    }
+
+    private Reponse routerTransactions(HttpExchange echange) throws Exception {
+        String chemin = echange.getRequestURI().getPath();
+        if (!chemin.equals("/transactions") && !chemin.equals("/transactions/")) {
+            throw new ErreurHttp(404, "Ressource inconnue: " + chemin);
+        }
+        echange.setAttribute("route", "POST /transactions");
+        exigerMethode(echange, "POST");
+
+        Object document = JsonReader.lire(lireCorps(echange));
+        if (document instanceof List<?> lot) {
+            return enregistrerLot(lot);
+        }
+        Map<String, Object> demande = objet(document, "La transaction doit être un objet JSON");
+        TransactionEvaluee evaluee = attendre(asyncService.enregistrerTransaction(
+            montant(demande), type(demande), lieu(demande), entier(demande, "compteId")));
+        return new Reponse(statutCreation(evaluee), json -> ecrireTransactionEvaluee(json, evaluee));
+    }
+
+    private Reponse enregistrerLot(List<?> lot) {
+        if (lot.isEmpty()) {
+            throw new ErreurHttp(400, "Le lot de transactions est vide");
+        }
+        if (lot.size() > config.tailleLotMax()) {
+            throw new ErreurHttp(413, "Lot trop volumineux (maximum " + config.tailleLotMax() + " transactions)");
+        }
+        List<Map<String, Object>> demandes = new ArrayList<>(lot.size());
+        for (Object element : lot) {
+            demandes.add(objet(element, "Chaque transaction du lot doit être un objet JSON"));
+        }
+        // Soumises dans l'ordre reçu: la voie de chaque compte les applique dans ce même ordre
+        List<CompletableFuture<Object>> envois = new ArrayList<>(demandes.size());
+        for (Map<String, Object> demande : demandes) {
+            CompletableFuture<TransactionEvaluee> envoi;
+            try {
+                envoi = asyncService.enregistrerTransaction(
+                    montant(demande), type(demande), lieu(demande), entier(demande, "compteId"));
+            } catch (ErreurHttp e) {
+                envoi = CompletableFuture.failedFuture(e);
+            }
+            envois.add(envoi.handle((evaluee, erreur) -> erreur != null ? echec(erreur) : evaluee));
+        }
+        List<Object> resultats = new ArrayList<>(envois.size());
+        for (CompletableFuture<Object> envoi : envois) {
+            resultats.add(envoi.join());
+        }
+        long acceptees = resultats.stream().filter(TransactionEvaluee.class::isInstance).count();
+        // Sans aucune acceptée, le statut le plus grave l'emporte: une panne de base reste un 5xx
+        int statut = acceptees > 0 ? 200 : resultats.stream().mapToInt(resultat -> ((Echec) resultat).statut()).max().orElse(422);
+        return new Reponse(statut, json -> {
+            json.debutObjet()
+                .propriete("recues", resultats.size())
+                .propriete("acceptees", acceptees)
+                .propriete("refusees", resultats.size() - acceptees)
+                .nom("resultats").debutTableau();
+            for (Object resultat : resultats) {
+                if (resultat instanceof TransactionEvaluee evaluee) {
+                    ecrireTransactionEvaluee(json, evaluee);
+                } else {
+                    Echec echec = (Echec) resultat;
+                    json.debutObjet().propriete("statut", echec.statut()).propriete("erreur", echec.message()).finObjet();
+                }
+            }
+            json.finTableau().finObjet();
+        });
+    }
+
+    private Reponse routerComptes(HttpExchange echange) throws Exception {
+        exigerMethode(echange, "GET");
+        String[] segments = echange.getRequestURI().getPath().split("/");
+        // "", "comptes", "{id}", "solde" | "transactions"
+        if (segments.length != 4) {
+            throw new ErreurHttp(404, "Ressource inconnue: " + echange.getRequestURI().getPath());
+        }
+        long compteId = identifiant(segments[2]);
+        switch (segments[3]) {
+            case "solde" -> {
+                echange.setAttribute("route", "GET /comptes/{id}/solde");
+                Compte compte = attendre(asyncService.rechercherCompte(compteId))
+                    .orElseThrow(() -> new ErreurHttp(404, "Compte inexistant: " + compteId));
+                return new Reponse(200, json -> json.debutObjet()
+                    .propriete("compteId", compte.getId())
+                    .propriete("numero", compte.getNumero())
+                    .propriete("typeCompte", compte.getTypeCompte())
+                    .propriete("clientId", compte.getIdClient())
+                    .propriete("solde", compte.getSolde())
+                    .finObjet());
+            }
+            case "transactions" -> {
+                echange.setAttribute("route", "GET /comptes/{id}/transactions");
+                Map<String, String> parametres = parametres(echange);
+                int taille = taillePage(parametres.get("taille"));
+                TransactionPage page = attendre(
+                    asyncService.consulterPageCompte(compteId, parametres.get("curseur"), taille));
+                return new Reponse(200, json -> {
+                    json.debutObjet().propriete("compteId", compteId).nom("transactions").debutTableau();
+                    for (Transaction transaction : page.transactions()) {
+                        ecrireTransaction(json, transaction);
+                    }
+                    json.finTableau().propriete("curseurSuivant", page.nextToken()).finObjet();
+                });
+            }
+            default -> throw new ErreurHttp(404, "Ressource inconnue: " + echange.getRequestURI().getPath());
+        }
+    }
+
+    private Reponse routerRapports(HttpExchange echange) throws Exception {
+        exigerMethode(echange, "GET");
+        String chemin = echange.getRequestURI().getPath();
+        switch (chemin) {
+            case "/rapports/anomalies" -> {
+                echange.setAttribute("route", "GET /rapports/anomalies");
+                AnomalyReport rapport = attendre(asyncService.transactions(TransactionService::analyserTransactions));
+                return new Reponse(200, json -> ecrireRapportAnomalies(json, rapport));
+            }
+            case "/rapports/statistique" -> {
+                echange.setAttribute("route", "GET /rapports/statistique");
+                String rapport = attendre(asyncService.genererRapportStatistique());
+                return new Reponse(200, json -> json.debutObjet().propriete("rapport", rapport).finObjet());
+            }
+            default -> throw new ErreurHttp(404, "Rapport inconnu: " + chemin);
+        }
+    }
+
+    private Reponse routerMetriques(HttpExchange echange) {
+        echange.setAttribute("route", "GET /metrics");
+        exigerMethode(echange, "GET");
+        Map<String, MetriqueRoute> routes = getMetriques();
+        ConnectionPool.Statistics pool = DatabaseConnection.getStatistics();
+        EntityCache.Statistics cacheClients = ClientDAO.getCacheStatistics();
+        EntityCache.Statistics cacheComptes = CompteDAO.getCacheStatistics();
+        AsyncExecutor.Statistics async = asyncService.getStatistics();
+        List<IngestionDispatcher.StatistiquesVoie> voies = asyncService.getStatistiquesIngestion();
+        Optional<TransactionJournal.Statistics> journal = TransactionService.getJournalStatistics();
+        return new Reponse(200, json -> {
+            json.debutObjet().nom("http").debutObjet();
+            for (Map.Entry<String, MetriqueRoute> entree : routes.entrySet()) {
+                MetriqueRoute metrique = entree.getValue();
+                json.nom(entree.getKey()).debutObjet()
+                    .propriete("requetes", metrique.requetes())
+                    .propriete("erreursClient", metrique.erreursClient())
+                    .propriete("erreursServeur", metrique.erreursServeur())
+                    .propriete("latenceMoyenneMs", metrique.latenceMoyenneMs())
+                    .propriete("latenceMaxMs", metrique.latenceMaxMs())
+                    .nom("histogramme").debutObjet();
+                for (int i = 0; i < metrique.histogramme().length; i++) {
+                    String classe = i < CLASSES_LATENCE_MS.length ? "<" + CLASSES_LATENCE_MS[i] + "ms" : "+inf";
+                    json.propriete(classe, metrique.histogramme()[i]);
+                }
+                json.finObjet().finObjet();
+            }
+            json.finObjet();
+
+            json.nom("pool");
+            if (pool == null) {
+                json.nul();
+            } else {
+                json.debutObjet()
+                    .propriete("emprunts", pool.leases())
+                    .propriete("attentes", pool.waits())
+                    .propriete("expirations", pool.timeouts())
+                    .propriete("creees", pool.created())
+                    .propriete("rejetees", pool.discarded())
+                    .propriete("actives", pool.active())
+                    .propriete("inactives", pool.idle())
+                    .propriete("cacheRequetesHits", pool.statementCacheHits())
+                    .propriete("cacheRequetesMisses", pool.statementCacheMisses())
+                    .finObjet();
+            }
+            json.nom("cache").debutObjet();
+            ecrireCache(json, "clients", cacheClients);
+            ecrireCache(json, "comptes", cacheComptes);
+            json.finObjet();
+
+            json.nom("async").debutObjet()
+                .propriete("virtuel", async.virtuel())
+                .propriete("concurrenceMax", async.concurrenceMax())
+                .propriete("soumises", async.soumises())
+                .propriete("terminees", async.terminees())
+                .propriete("echouees", async.echouees())
+                .propriete("annulees", async.annulees())
+                .propriete("expirees", async.expirees())
+                .propriete("enCours", async.enCours())
+                .propriete("enAttente", async.enAttente())
+                .finObjet();
+
+            json.nom("ingestion").debutTableau();
+            for (IngestionDispatcher.StatistiquesVoie voie : voies) {
+                json.debutObjet()
+                    .propriete("voie", voie.voie())
+                    .propriete("profondeur", voie.profondeur())
+                    .propriete("capacite", voie.capacite())
+                    .propriete("traitees", voie.traitees())
+                    .propriete("refusees", voie.refusees())
+                    .propriete("expirees", voie.expirees())
+                    .propriete("echecs", voie.echecs())
+                    .propriete("attenteMoyenneMs", voie.attenteMoyenneMs())
+                    .propriete("traitementMoyenMs", voie.traitementMoyenMs())
+                    .propriete("latenceMaxMs", voie.latenceMaxMs())
+                    .finObjet();
+            }
+            json.finTableau();
+
+            json.nom("journal");
+            if (journal.isEmpty()) {
+                json.nul();
+            } else {
+                TransactionJournal.Statistics stats = journal.get();
+                json.debutObjet()
+                    .propriete("ecrites", stats.ecrites())
+                    .propriete("synchronisations", stats.synchronisations())
+                    .propriete("appliquees", stats.appliquees())
+                    .propriete("rejetees", stats.rejetees())
+                    .propriete("enAttenteEcriture", stats.enAttenteEcriture())
+                    .propriete("enAttenteApplication", stats.enAttenteApplication())
+                    .finObjet();
+            }
+            json.finObjet();
+        });
+    }
+
+    private void repondre(HttpExchange echange, Reponse reponse) throws IOException {
+        echange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        echange.sendResponseHeaders(reponse.statut(), 0);
+        try (JsonWriter json = new JsonWriter(new BufferedWriter(
+                new OutputStreamWriter(echange.getResponseBody(), StandardCharsets.UTF_8), 8192))) {
+            reponse.corps().ecrire(json);
+        }
+    }
+
+    private static Reponse erreur(Throwable e) {
+        Echec echec = echec(e);
+        return new Reponse(echec.statut(), json -> json.debutObjet().propriete("erreur", echec.message()).finObjet());
+    }
+
+    private static Echec echec(Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof ErreurHttp http) {
+            return new Echec(http.statut, http.getMessage());
+        }
+        if (cause instanceof TransactionRefuseeException refus) {
+            return new Echec(switch (refus.getMotif()) {
+                case DONNEES_INVALIDES -> 400;
+                case COMPTE_INEXISTANT -> 404;
+                case FONDS_INSUFFISANTS -> 422;
+                case INDISPONIBLE -> 503;
+            }, refus.getMessage());
+        }
+        if (cause instanceof IllegalArgumentException) {
+            return new Echec(400, cause.getMessage());
+        }
+        if (cause instanceof TimeoutException) {
+            return new Echec(504, cause.getMessage() == null ? "Délai de traitement dépassé" : cause.getMessage());
+        }
+        if (cause instanceof RejectedExecutionException) {
+            return new Echec(503, cause.getMessage());
+        }
+        if (cause instanceof CancellationException) {
+            return new Echec(503, "Requête annulée");
+        }
+        if (cause instanceof DataAccessException) {
+            System.err.println("Erreur d'accès aux données pendant une requête HTTP: " + cause.getMessage());
+            return new Echec(503, cause.getMessage());
+        }
+        System.err.println("Erreur lors du traitement de la requête HTTP: " + cause.getMessage());
+        return new Echec(500, cause.getMessage() == null ? cause.getClass().getSimpleName() : cause.getMessage());
+    }
+
+    private static <T> T attendre(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw e;
+        }
+    }
+
+    private static void exigerMethode(HttpExchange echange, String methode) {
+        if (!echange.getRequestMethod().equalsIgnoreCase(methode)) {
+            echange.getResponseHeaders().set("Allow", methode);
+            throw new ErreurHttp(405, "Méthode non autorisée: " + echange.getRequestMethod());
+        }
+    }
+
+    private String lireCorps(HttpExchange echange) throws IOException {
+        ByteArrayOutputStream corps = new ByteArrayOutputStream();
+        byte[] tampon = new byte[8192];
+        try (InputStream entree = echange.getRequestBody()) {
+            int lus;
+            while ((lus = entree.read(tampon)) > 0) {
+                if (corps.size() + lus > config.tailleCorpsMax()) {
+                    throw new ErreurHttp(413, "Corps de requête trop volumineux");
+                }
+                corps.write(tampon, 0, lus);
+            }
+        }
+        return corps.toString(StandardCharsets.UTF_8);
+    }
+
+    private static Map<String, String> parametres(HttpExchange echange) {
+        Map<String, String> parametres = new HashMap<>();
+        String requete = echange.getRequestURI().getRawQuery();
+        if (requete == null || requete.isEmpty()) {
+            return parametres;
+        }
+        for (String paire : requete.split("&")) {
+            int egal = paire.indexOf('=');
+            String nom = egal < 0 ? paire : paire.substring(0, egal);
+            String valeur = egal < 0 ? "" : paire.substring(egal + 1);
+            parametres.put(decoder(nom), decoder(valeur));
+        }
+        return parametres;
+    }
+
+    private static String decoder(String texte) {
+        try {
+            return URLDecoder.decode(texte, StandardCharsets.UTF_8.name());
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private int taillePage(String texte) {
+        if (texte == null || texte.isEmpty()) {
+            return TAILLE_PAGE_PAR_DEFAUT;
+        }
+        long taille = identifiant(texte);
+        if (taille == 0 || taille > config.taillePageMax()) {
+            throw new ErreurHttp(400, "Taille de page invalide (1 à " + config.taillePageMax() + ")");
+        }
+        return (int) taille;
+    }
+
+    private static long identifiant(String texte) {
+        try {
+            long valeur = Long.parseLong(texte);
+            if (valeur < 0) {
+                throw new NumberFormatException();
+            }
+            return valeur;
+        } catch (NumberFormatException e) {
+            throw new ErreurHttp(400, "Identifiant invalide: " + texte);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> objet(Object valeur, String message) {
+        if (valeur instanceof Map<?, ?> map) {
+            return (Map<String, Object>) map;
+        }
+        throw new ErreurHttp(400, message);
+    }
+
+    private static BigDecimal montant(Map<String, Object> demande) {
+        Object valeur = demande.get("montant");
+        if (valeur instanceof String texte) {
+            try {
+                valeur = new BigDecimal(texte);
+            } catch (NumberFormatException e) {
+                throw new ErreurHttp(400, "Montant invalide: " + texte);
+            }
+        }
+        if (!(valeur instanceof BigDecimal montant) || montant.signum() <= 0
+                || montant.scale() > 2 || montant.precision() - montant.scale() > 13) {
+            throw new ErreurHttp(400, "Montant invalide: doit être positif avec au plus deux décimales");
+        }
+        return montant;
+    }
+
+    private static TypeTransaction type(Map<String, Object> demande) {
+        String type = texte(demande, "type");
+        if (type == null) {
+            throw new ErreurHttp(400, "Le type de transaction est obligatoire");
+        }
+        try {
+            return TypeTransaction.valueOf(type.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new ErreurHttp(400, "Type de transaction inconnu: " + type);
+        }
+    }
+
+    private static String texte(Map<String, Object> demande, String nom) {
+        Object valeur = demande.get(nom);
+        if (valeur == null || valeur instanceof String) {
+            return (String) valeur;
+        }
+        throw new ErreurHttp(400, "Le champ '" + nom + "' doit être une chaîne");
+    }
+
+    private static String lieu(Map<String, Object> demande) {
+        String lieu = texte(demande, "lieu");
+        if (lieu != null && lieu.length() > ValidationUtil.LONGUEUR_LIEU_MAX) {
+            throw new ErreurHttp(400, "Lieu trop long (maximum " + ValidationUtil.LONGUEUR_LIEU_MAX + " caractères)");
+        }
+        return lieu;
+    }
+
+    private static Long entier(Map<String, Object> demande, String nom) {
+        Object valeur = demande.get(nom);
+        if (valeur instanceof BigDecimal nombre) {
+            try {
+                long entier = nombre.longValueExact();
+                if (entier > 0) {
+                    return entier;
+                }
+            } catch (ArithmeticException e) {
+                // traité ci-dessous
+            }
+        }
+        throw new ErreurHttp(400, "Le champ '" + nom + "' doit être un identifiant entier positif");
+    }
+
+    private static int statutCreation(TransactionEvaluee evaluee) {
+        // Un versement journalisé n'a pas encore d'identifiant: il est accepté mais pas encore appliqué
+        return evaluee.transaction().id() == null ? 202 : 201;
+    }
+
+    private static void ecrireTransactionEvaluee(JsonWriter json, TransactionEvaluee evaluee) throws IOException {
+        json.debutObjet().nom("transaction");
+        ecrireTransaction(json, evaluee.transaction());
+        json.propriete("suspecte", evaluee.estSuspecte()).nom("alertes").debutTableau();
+        for (String alerte : evaluee.alertes()) {
+            json.valeur(alerte);
+        }
+        json.finTableau().finObjet();
+    }
+
+    private static void ecrireTransaction(JsonWriter json, Transaction transaction) throws IOException {
+        json.debutObjet()
+            .propriete("id", transaction.id())
+            .propriete("date", transaction.date() == null ? null : transaction.date().toString())
+            .propriete("montant", transaction.montant())
+            .propriete("type", transaction.type().name())
+            .propriete("lieu", transaction.lieu())
+            .propriete("compteId", transaction.idCompte())
+            .finObjet();
+    }
+
+    private static void ecrireRapportAnomalies(JsonWriter json, AnomalyReport rapport) throws IOException {
+        json.debutObjet()
+            .propriete("transactionsAnalysees", rapport.transactionsAnalysees())
+            .nom("regles").debutTableau();
+        for (RuleStatistics statistique : rapport.statistiques()) {
+            json.debutObjet()
+                .propriete("regle", statistique.regle())
+                .propriete("libelle", statistique.libelle())
+                .propriete("alertes", statistique.alertes())
+                .propriete("dureeMs", statistique.dureeMillis())
+                .finObjet();
+        }
+        json.finTableau().nom("alertes").debutTableau();
+        for (AnomalyHit alerte : rapport.alertes()) {
+            json.debutObjet().nom("transaction");
+            ecrireTransaction(json, alerte.transaction());
+            json.nom("regles").debutTableau();
+            for (String regle : alerte.regles()) {
+                json.valeur(regle);
+            }
+            json.finTableau().finObjet();
+        }
+        json.finTableau().finObjet();
+    }
+
+    private static void ecrireCache(JsonWriter json, String nom, EntityCache.Statistics statistiques) throws IOException {
+        json.nom(nom).debutObjet()
+            .propriete("hits", statistiques.hits())
+            .propriete("misses", statistiques.misses())
+            .propriete("evictions", statistiques.evictions())
+            .propriete("expirations", statistiques.expirations())
+            .propriete("taille", statistiques.size())
+            .finObjet();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,225 @@
+package com.solubank.api;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+public class JsonReader {
+    private static final int PROFONDEUR_MAX = 32;
+
+    private final CharSequence texte;
+    private int position;
+
+    private JsonReader(CharSequence texte) {
+        this.texte = texte;
+    }
+
+    // Objets -> LinkedHashMap, tableaux -> ArrayList, nombres -> BigDecimal
+    public static Object lire(CharSequence texte) {
+        JsonReader lecteur = new JsonReader(texte);
+        lecteur.espaces();
+        Object valeur = lecteur.valeur(0);
+        lecteur.espaces();
+        if (lecteur.position != texte.length()) {
+            throw lecteur.erreur("Contenu inattendu après la valeur JSON");
+        }
+        return valeur;
+    }
+
+    private Object valeur(int profondeur) {
+        if (position >= texte.length()) {
+            throw erreur("Fin de document inattendue");
+        }
+        char c = texte.charAt(position);
+        return switch (c) {
+            case '{' -> objet(profondeur + 1);
+            case '[' -> tableau(profondeur + 1);
+            case '"' -> chaine();
+            case 't' -> motCle("true", Boolean.TRUE);
+            case 'f' -> motCle("false", Boolean.FALSE);
+            case 'n' -> motCle("null", null);
+            default -> {
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    yield nombre();
+                }
+                throw erreur("Caractère inattendu '" + c + "'");
+            }
+        };
+    }
+
+    private Map<String, Object> objet(int profondeur) {
+        verifierProfondeur(profondeur);
+        position++;
+        Map<String, Object> objet = new LinkedHashMap<>();
+        espaces();
+        if (consommer('}')) {
+            return objet;
+        }
+        do {
+            espaces();
+            if (position >= texte.length() || texte.charAt(position) != '"') {
+                throw erreur("Nom de propriété attendu");
+            }
+            String nom = chaine();
+            espaces();
+            attendre(':');
+            espaces();
+            objet.put(nom, valeur(profondeur));
+            espaces();
+        } while (consommer(','));
+        attendre('}');
+        return objet;
+    }
+
+    private List<Object> tableau(int profondeur) {
+        verifierProfondeur(profondeur);
+        position++;
+        List<Object> tableau = new ArrayList<>();
+        espaces();
+        if (consommer(']')) {
+            return tableau;
+        }
+        do {
+            espaces();
+            tableau.add(valeur(profondeur));
+            espaces();
+        } while (consommer(','));
+        attendre(']');
+        return tableau;
+    }
+
+    private String chaine() {
+        position++;
+        StringBuilder resultat = null;
+        int debut = position;
+        while (position < texte.length()) {
+            char c = texte.charAt(position);
+            if (c == '"') {
+                String valeur = resultat == null
+                    ? texte.subSequence(debut, position).toString()
+                    : resultat.append(texte, debut, position).toString();
+                position++;
+                return valeur;
+            }
+            if (c < 0x20) {
+                throw erreur("Caractère de contrôle non échappé");
+            }
+            if (c != '\\') {
+                position++;
+                continue;
+            }
+            if (resultat == null) {
+                resultat = new StringBuilder();
+            }
+            resultat.append(texte, debut, position);
+            if (++position >= texte.length()) {
+                break;
+            }
+            char echappe = texte.charAt(position++);
+            switch (echappe) {
+                case '"', '\\', '/' -> resultat.append(echappe);
+                case 'b' -> resultat.append('\b');
+                case 'f' -> resultat.append('\f');
+                case 'n' -> resultat.append('\n');
+                case 'r' -> resultat.append('\r');
+                case 't' -> resultat.append('\t');
+                case 'u' -> {
+                    if (position + 4 > texte.length()) {
+                        throw erreur("Séquence \\u incomplète");
+                    }
+                    int code = 0;
+                    for (int i = 0; i < 4; i++) {
+                        int chiffre = Character.digit(texte.charAt(position++), 16);
+                        if (chiffre < 0) {
+                            throw erreur("Séquence \\u invalide");
+                        }
+                        code = (code << 4) | chiffre;
+                    }
+                    resultat.append((char) code);
+                }
+                default -> throw erreur("Échappement invalide '\\" + echappe + "'");
+            }
+            debut = position;
+        }
+        throw erreur("Chaîne non terminée");
+    }
+
+    private BigDecimal nombre() {
+        int debut = position;
+        consommer('-');
+        if (!consommer('0')) {
+            chiffres();
+        }
+        if (consommer('.')) {
+            chiffres();
+        }
+        if (position < texte.length() && (texte.charAt(position) == 'e' || texte.charAt(position) == 'E')) {
+            position++;
+            if (!consommer('+')) {
+                consommer('-');
+            }
+            chiffres();
+        }
+        try {
+            return new BigDecimal(texte.subSequence(debut, position).toString());
+        } catch (NumberFormatException e) {
+            throw erreur("Nombre invalide");
+        }
+    }
+
+    private void chiffres() {
+        int debut = position;
+        while (position < texte.length() && texte.charAt(position) >= '0' && texte.charAt(position) <= '9') {
+            position++;
+        }
+        if (position == debut) {
+            throw erreur("Chiffre attendu");
+        }
+    }
+
+    private Object motCle(String motCle, Object valeur) {
+        if (position + motCle.length() > texte.length()
+                || !texte.subSequence(position, position + motCle.length()).toString().equals(motCle)) {
+            throw erreur("Mot-clé invalide");
+        }
+        position += motCle.length();
+        return valeur;
+    }
+
+    private void espaces() {
+        while (position < texte.length()) {
+            char c = texte.charAt(position);
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                return;
+            }
+            position++;
+        }
+    }
+
+    private boolean consommer(char attendu) {
+        if (position < texte.length() && texte.charAt(position) == attendu) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private void attendre(char attendu) {
+        if (!consommer(attendu)) {
+            throw erreur("'" + attendu + "' attendu");
+        }
+    }
+
+    private void verifierProfondeur(int profondeur) {
+        if (profondeur > PROFONDEUR_MAX) {
+            throw erreur("Document JSON trop imbriqué");
+        }
+    }
+
+    private IllegalArgumentException erreur(String message) {
+        return new IllegalArgumentException(message + " (position " + position + ")");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,209 @@
+package com.solubank.api;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+
+
+public class JsonWriter implements Closeable, Flushable {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final int PROFONDEUR_MAX = 64;
+
+    private final Writer sortie;
+    // Pour chaque niveau ouvert: vrai si un élément a déjà été écrit (virgule requise)
+    private final boolean[] elementEcrit = new boolean[PROFONDEUR_MAX];
+    private final boolean[] dansObjet = new boolean[PROFONDEUR_MAX];
+    private int profondeur;
+    private boolean nomEnAttente;
+
+    public JsonWriter(Writer sortie) {
+        this.sortie = sortie;
+    }
+
+    public JsonWriter debutObjet() throws IOException {
+        ouvrir(true);
+        sortie.write('{');
+        return this;
+    }
+
+    public JsonWriter finObjet() throws IOException {
+        fermer(true);
+        sortie.write('}');
+        return this;
+    }
+
+    public JsonWriter debutTableau() throws IOException {
+        ouvrir(false);
+        sortie.write('[');
+        return this;
+    }
+
+    public JsonWriter finTableau() throws IOException {
+        fermer(false);
+        sortie.write(']');
+        return this;
+    }
+
+    public JsonWriter nom(String nom) throws IOException {
+        if (profondeur == 0 || !dansObjet[profondeur - 1] || nomEnAttente) {
+            throw new IllegalStateException("Nom de propriété hors d'un objet: " + nom);
+        }
+        separer();
+        chaine(nom);
+        sortie.write(':');
+        nomEnAttente = true;
+        return this;
+    }
+
+    public JsonWriter valeur(String valeur) throws IOException {
+        if (valeur == null) {
+            return nul();
+        }
+        avantValeur();
+        chaine(valeur);
+        return this;
+    }
+
+    public JsonWriter valeur(long valeur) throws IOException {
+        avantValeur();
+        sortie.write(Long.toString(valeur));
+        return this;
+    }
+
+    public JsonWriter valeur(Long valeur) throws IOException {
+        return valeur == null ? nul() : valeur(valeur.longValue());
+    }
+
+    public JsonWriter valeur(double valeur) throws IOException {
+        if (Double.isNaN(valeur) || Double.isInfinite(valeur)) {
+            return nul();
+        }
+        avantValeur();
+        sortie.write(Double.toString(valeur));
+        return this;
+    }
+
+    public JsonWriter valeur(BigDecimal valeur) throws IOException {
+        if (valeur == null) {
+            return nul();
+        }
+        avantValeur();
+        sortie.write(valeur.toPlainString());
+        return this;
+    }
+
+    public JsonWriter valeur(boolean valeur) throws IOException {
+        avantValeur();
+        sortie.write(valeur ? "true" : "false");
+        return this;
+    }
+
+    public JsonWriter nul() throws IOException {
+        avantValeur();
+        sortie.write("null");
+        return this;
+    }
+
+    public JsonWriter propriete(String nom, String valeur) throws IOException {
+        return nom(nom).valeur(valeur);
+    }
+
+    public JsonWriter propriete(String nom, long valeur) throws IOException {
+        return nom(nom).valeur(valeur);
+    }
+
+    public JsonWriter propriete(String nom, Long valeur) throws IOException {
+        return nom(nom).valeur(valeur);
+    }
+
+    public JsonWriter propriete(String nom, double valeur) throws IOException {
+        return nom(nom).valeur(valeur);
+    }
+
+    public JsonWriter propriete(String nom, BigDecimal valeur) throws IOException {
+        return nom(nom).valeur(valeur);
+    }
+
+    public JsonWriter propriete(String nom, boolean valeur) throws IOException {
+        return nom(nom).valeur(valeur);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        sortie.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        sortie.close();
+    }
+
+    private void ouvrir(boolean objet) throws IOException {
+        avantValeur();
+        if (profondeur == PROFONDEUR_MAX) {
+            throw new IllegalStateException("Profondeur JSON maximale atteinte");
+        }
+        dansObjet[profondeur] = objet;
+        elementEcrit[profondeur] = false;
+        profondeur++;
+    }
+
+    private void fermer(boolean objet) {
+        if (profondeur == 0 || dansObjet[profondeur - 1] != objet || nomEnAttente) {
+            throw new IllegalStateException("Fermeture JSON incohérente");
+        }
+        profondeur--;
+    }
+
+    private void avantValeur() throws IOException {
+        if (profondeur == 0) {
+            return;
+        }
+        if (dansObjet[profondeur - 1]) {
+            if (!nomEnAttente) {
+                throw new IllegalStateException("Valeur sans nom de propriété dans un objet");
+            }
+            nomEnAttente = false;
+        } else {
+            separer();
+        }
+    }
+
+    private void separer() throws IOException {
+        if (elementEcrit[profondeur - 1]) {
+            sortie.write(',');
+        }
+        elementEcrit[profondeur - 1] = true;
+    }
+
+    private void chaine(String texte) throws IOException {
+        sortie.write('"');
+        int debut = 0;
+        for (int i = 0; i < texte.length(); i++) {
+            char c = texte.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\' && c != '\u2028' && c != '\u2029') {
+                continue;
+            }
+            sortie.write(texte, debut, i - debut);
+            switch (c) {
+                case '"' -> sortie.write("\\\"");
+                case '\\' -> sortie.write("\\\\");
+                case '\n' -> sortie.write("\\n");
+                case '\r' -> sortie.write("\\r");
+                case '\t' -> sortie.write("\\t");
+                default -> {
+                    sortie.write("\\u");
+                    sortie.write(HEX[(c >> 12) & 0xF]);
+                    sortie.write(HEX[(c >> 8) & 0xF]);
+                    sortie.write(HEX[(c >> 4) & 0xF]);
+                    sortie.write(HEX[c & 0xF]);
+                }
+            }
+            debut = i + 1;
+        }
+        sortie.write(texte, debut, texte.length() - debut);
+        sortie.write('"');
+    }
+}
\ No newline at end of file
@@ -2,17 +2,35 @@ package com.solubank.dao;
 
 import com.solubank.entity.Client;
 import com.solubank.util.DatabaseConnection;
+import com.solubank.util.Echeance;
+import com.solubank.util.EntityCache;
 
+import javax.sql.DataSource;
 import java.sql.*;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.UnaryOperator;
 
 public class ClientDAO {
 
+    private static final EntityCache<Long, Client> CACHE_PAR_ID =
+        new EntityCache<>(10_000, Duration.ofSeconds(30), UnaryOperator.identity());
+
+    private final DataSource dataSource;
+
+    public ClientDAO() {
+        this(DatabaseConnection.getDataSource());
+    }
+
+    public ClientDAO(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
     public Optional<Client> save(Client client) {
             String sql = "INSERT INTO client (nom, email) VALUES (?, ?)";
-            try (Connection conn = DatabaseConnection.getConnection();
+            try (Connection conn = dataSource.getConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
                 
                 stmt.setString(1, client.nom());
@@ -34,8 +52,12 @@ public class ClientDAO {
     }
 
     public Optional<Client> findById(Long id) {
+        return CACHE_PAR_ID.get(id, this::findByIdUncached);
+    }
+
+    public Optional<Client> findByIdUncached(Long id) {
         String sql = "SELECT * FROM client WHERE id = ?";
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setLong(1, id);
@@ -57,7 +79,7 @@ public class ClientDAO {
     public List<Client> findByNom(String nom) {
         List<Client> clients = new ArrayList<>();
         String sql = "SELECT * FROM client WHERE nom LIKE ?";
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setString(1, "%" + nom + "%");
@@ -79,7 +101,7 @@ public class ClientDAO {
     public List<Client> findAll() {
         List<Client> clients = new ArrayList<>();
         String sql = "SELECT * FROM client ORDER BY nom";
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
             
@@ -96,16 +118,34 @@ public class ClientDAO {
         return clients;
     }
 
+    @SuppressWarnings("try")
+    public long count() {
+        String sql = "SELECT COUNT(*) FROM client";
+        try (Connection conn = dataSource.getConnection();
+             Statement stmt = conn.createStatement();
+             Echeance.Suivi suivi = Echeance.suivre(stmt);
+             ResultSet rs = stmt.executeQuery(sql)) {
+            
+            rs.next();
+            return rs.getLong(1);
+        } catch (SQLException e) {
+            // Zéro client serait indiscernable d'un échec: l'erreur remonte à l'appelant
+            throw new DataAccessException("Erreur lors du comptage des clients", e);
+        }
+    }
+
     public boolean update(Client client) {
         String sql = "UPDATE client SET nom = ?, email = ? WHERE id = ?";
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setString(1, client.nom());
             stmt.setString(2, client.email());
             stmt.setLong(3, client.id());
             
-            return stmt.executeUpdate() > 0;
+            boolean updated = stmt.executeUpdate() > 0;
+            CACHE_PAR_ID.invalidate(client.id());
+            return updated;
         } catch (SQLException e) {
             System.err.println("Erreur lors de la mise à jour du client: " + e.getMessage());
         }
@@ -114,14 +154,20 @@ public class ClientDAO {
 
     public boolean delete(Long id) {
         String sql = "DELETE FROM client WHERE id = ?";
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setLong(1, id);
-            return stmt.executeUpdate() > 0;
+            boolean deleted = stmt.executeUpdate() > 0;
+            CACHE_PAR_ID.invalidate(id);
+            return deleted;
         } catch (SQLException e) {
             System.err.println("Erreur lors de la suppression du client: " + e.getMessage());
         }
         return false;
     }
+
+    public static EntityCache.Statistics getCacheStatistics() {
+        return CACHE_PAR_ID.getStatistics();
+    }
 }
\ No newline at end of file
@@ -1,22 +1,52 @@
 package com.solubank.dao;
 
+import com.solubank.entity.Client;
+import com.solubank.entity.ClientSolde;
 import com.solubank.entity.Compte;
+import com.solubank.entity.CompteInactif;
 import com.solubank.entity.CompteCourant;
 import com.solubank.entity.CompteEpargne;
+import com.solubank.entity.SyntheseSoldes;
 import com.solubank.util.DatabaseConnection;
+import com.solubank.util.Echeance;
+import com.solubank.util.EntityCache;
 
+import javax.sql.DataSource;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.sql.*;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.UnaryOperator;
 
 
 public class CompteDAO {
+
+    private static final int TAILLE_CACHE = 10_000;
+    private static final Duration DUREE_CACHE = Duration.ofSeconds(30);
+    private static final EntityCache<Long, Compte> CACHE_PAR_ID =
+        new EntityCache<>(TAILLE_CACHE, DUREE_CACHE, CompteDAO::copier);
+    private static final EntityCache<String, Long> CACHE_PAR_NUMERO =
+        new EntityCache<>(TAILLE_CACHE, DUREE_CACHE, UnaryOperator.identity());
+
+    private final DataSource dataSource;
+
+    public CompteDAO() {
+        this(DatabaseConnection.getDataSource());
+    }
+
+    public CompteDAO(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
     
     public Optional<Compte> save(Compte compte) {
         String sql = "INSERT INTO compte (numero, solde, id_client, type_compte, decouvert_autorise, taux_interet) VALUES (?, ?, ?, ?, ?, ?)";
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             
             stmt.setString(1, compte.getNumero());
@@ -48,8 +78,12 @@ public class CompteDAO {
     }
     
     public Optional<Compte> findById(Long id) {
+        return CACHE_PAR_ID.get(id, this::findByIdUncached);
+    }
+    
+    public Optional<Compte> findByIdUncached(Long id) {
         String sql = "SELECT * FROM compte WHERE id = ?";
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setLong(1, id);
@@ -64,16 +98,38 @@ public class CompteDAO {
         return Optional.empty();
     }
     
+    public Map<Long, Long> findClientIdsAfterId(long id) {
+        Map<Long, Long> clientParCompte = new LinkedHashMap<>();
+        String sql = "SELECT id, id_client FROM compte WHERE id > ? ORDER BY id";
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setLong(1, id);
+            ResultSet rs = stmt.executeQuery();
+            
+            while (rs.next()) {
+                clientParCompte.put(rs.getLong("id"), rs.getLong("id_client"));
+            }
+        } catch (SQLException e) {
+            System.err.println("Erreur lors de la récupération des titulaires de comptes: " + e.getMessage());
+        }
+        return clientParCompte;
+    }
+    
     public Optional<Compte> findByNumero(String numero) {
-        String sql = "SELECT * FROM compte WHERE numero = ?";
-        try (Connection conn = DatabaseConnection.getConnection();
+        return CACHE_PAR_NUMERO.get(numero, this::findIdByNumero).flatMap(this::findById);
+    }
+    
+    private Optional<Long> findIdByNumero(String numero) {
+        String sql = "SELECT id FROM compte WHERE numero = ?";
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setString(1, numero);
             ResultSet rs = stmt.executeQuery();
             
             if (rs.next()) {
-                return Optional.of(createCompteFromResultSet(rs));
+                return Optional.of(rs.getLong(1));
             }
         } catch (SQLException e) {
             System.err.println("Erreur lors de la recherche du compte: " + e.getMessage());
@@ -84,7 +140,7 @@ public class CompteDAO {
     public List<Compte> findByClientId(Long clientId) {
         List<Compte> comptes = new ArrayList<>();
         String sql = "SELECT * FROM compte WHERE id_client = ?";
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setLong(1, clientId);
@@ -99,31 +155,211 @@ public class CompteDAO {
         return comptes;
     }
     
+    @SuppressWarnings("try")
     public List<Compte> findAll() {
         List<Compte> comptes = new ArrayList<>();
         String sql = "SELECT * FROM compte ORDER BY numero";
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              Statement stmt = conn.createStatement();
+             Echeance.Suivi suivi = Echeance.suivre(stmt);
              ResultSet rs = stmt.executeQuery(sql)) {
             
             while (rs.next()) {
                 comptes.add(createCompteFromResultSet(rs));
             }
         } catch (SQLException e) {
-            System.err.println("Erreur lors de la récupération des comptes: " + e.getMessage());
+            // Une liste vide serait prise pour une table vide
+            throw new DataAccessException("Erreur lors de la récupération des comptes", e);
+        }
+        return comptes;
+    }
+    
+    @SuppressWarnings("try")
+    public SyntheseSoldes summarizeSoldes() {
+        String sql = """
+            SELECT COUNT(*), COALESCE(AVG(solde), 0), MAX(solde), MIN(solde),
+                   (SELECT numero FROM compte ORDER BY solde DESC LIMIT 1),
+                   (SELECT numero FROM compte ORDER BY solde ASC LIMIT 1)
+            FROM compte
+            """;
+        try (Connection conn = dataSource.getConnection();
+             Statement stmt = conn.createStatement();
+             Echeance.Suivi suivi = Echeance.suivre(stmt);
+             ResultSet rs = stmt.executeQuery(sql)) {
+            
+            rs.next();
+            return new SyntheseSoldes(
+                rs.getLong(1),
+                rs.getBigDecimal(2).setScale(2, RoundingMode.HALF_UP),
+                rs.getString(5),
+                rs.getBigDecimal(3),
+                rs.getString(6),
+                rs.getBigDecimal(4)
+            );
+        } catch (SQLException e) {
+            throw new DataAccessException("Erreur lors de la synthèse des soldes", e);
+        }
+    }
+    
+    public BigDecimal sumSoldeByClientId(Long clientId) {
+        String sql = "SELECT COALESCE(SUM(solde), 0) FROM compte WHERE id_client = ?";
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setLong(1, clientId);
+            ResultSet rs = stmt.executeQuery();
+            
+            if (rs.next()) {
+                return rs.getBigDecimal(1);
+            }
+        } catch (SQLException e) {
+            System.err.println("Erreur lors du calcul du solde total du client: " + e.getMessage());
+        }
+        return BigDecimal.ZERO;
+    }
+    
+    public long countByClientId(Long clientId) {
+        String sql = "SELECT COUNT(*) FROM compte WHERE id_client = ?";
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setLong(1, clientId);
+            ResultSet rs = stmt.executeQuery();
+            
+            if (rs.next()) {
+                return rs.getLong(1);
+            }
+        } catch (SQLException e) {
+            System.err.println("Erreur lors du comptage des comptes du client: " + e.getMessage());
+        }
+        return 0;
+    }
+    
+    public boolean existsByClientId(Long clientId) {
+        String sql = "SELECT EXISTS (SELECT 1 FROM compte WHERE id_client = ?)";
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setLong(1, clientId);
+            ResultSet rs = stmt.executeQuery();
+            
+            return rs.next() && rs.getBoolean(1);
+        } catch (SQLException e) {
+            System.err.println("Erreur lors de la vérification des comptes du client: " + e.getMessage());
+        }
+        return false;
+    }
+    
+    public BigDecimal averageSolde() {
+        String sql = "SELECT COALESCE(AVG(solde), 0) FROM compte";
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            ResultSet rs = stmt.executeQuery();
+            
+            if (rs.next()) {
+                return rs.getBigDecimal(1).setScale(2, RoundingMode.HALF_UP);
+            }
+        } catch (SQLException e) {
+            System.err.println("Erreur lors du calcul du solde moyen: " + e.getMessage());
+        }
+        return BigDecimal.ZERO;
+    }
+    
+    public List<ClientSolde> findTopClientsBySolde(int limite) {
+        List<ClientSolde> classement = new ArrayList<>();
+        String sql = """
+            SELECT cl.id, cl.nom, cl.email,
+                   COALESCE(SUM(c.solde), 0) AS solde_total,
+                   COUNT(c.id) AS nombre_comptes
+            FROM client cl
+            LEFT JOIN compte c ON c.id_client = cl.id
+            GROUP BY cl.id, cl.nom, cl.email
+            ORDER BY solde_total DESC
+            LIMIT ?
+            """;
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setInt(1, limite);
+            ResultSet rs = stmt.executeQuery();
+            
+            while (rs.next()) {
+                classement.add(new ClientSolde(
+                    new Client(rs.getLong("id"), rs.getString("nom"), rs.getString("email")),
+                    rs.getBigDecimal("solde_total"),
+                    rs.getLong("nombre_comptes")
+                ));
+            }
+        } catch (SQLException e) {
+            System.err.println("Erreur lors du classement des clients par solde: " + e.getMessage());
+        }
+        return classement;
+    }
+    
+    public List<Compte> findTopBySolde(int limite) {
+        List<Compte> comptes = new ArrayList<>();
+        String sql = "SELECT * FROM compte ORDER BY solde DESC LIMIT ?";
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setInt(1, limite);
+            ResultSet rs = stmt.executeQuery();
+            
+            while (rs.next()) {
+                comptes.add(createCompteFromResultSet(rs));
+            }
+        } catch (SQLException e) {
+            System.err.println("Erreur lors du classement des comptes par solde: " + e.getMessage());
+        }
+        return comptes;
+    }
+    
+    public List<CompteInactif> findInactiveSince(LocalDateTime seuil) {
+        List<CompteInactif> comptes = new ArrayList<>();
+        String sql = """
+            SELECT c.*, cl.nom AS nom_client, activite.derniere_date
+            FROM compte c
+            JOIN client cl ON cl.id = c.id_client
+            LEFT JOIN (
+                SELECT id_compte, MAX(date) AS derniere_date
+                FROM transaction
+                GROUP BY id_compte
+            ) activite ON activite.id_compte = c.id
+            WHERE activite.derniere_date IS NULL OR activite.derniere_date < ?
+            ORDER BY c.numero
+            """;
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setTimestamp(1, Timestamp.valueOf(seuil));
+            ResultSet rs = stmt.executeQuery();
+            
+            while (rs.next()) {
+                Timestamp derniereDate = rs.getTimestamp("derniere_date");
+                comptes.add(new CompteInactif(
+                    createCompteFromResultSet(rs),
+                    rs.getString("nom_client"),
+                    derniereDate == null ? null : derniereDate.toLocalDateTime()
+                ));
+            }
+        } catch (SQLException e) {
+            System.err.println("Erreur lors de la recherche des comptes inactifs: " + e.getMessage());
         }
         return comptes;
     }
     
     public boolean updateSolde(Long compteId, BigDecimal nouveauSolde) {
         String sql = "UPDATE compte SET solde = ? WHERE id = ?";
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setBigDecimal(1, nouveauSolde);
             stmt.setLong(2, compteId);
             
-            return stmt.executeUpdate() > 0;
+            boolean updated = stmt.executeUpdate() > 0;
+            invalidateCache(compteId);
+            return updated;
         } catch (SQLException e) {
             System.err.println("Erreur lors de la mise à jour du solde: " + e.getMessage());
         }
@@ -132,11 +368,14 @@ public class CompteDAO {
     
     public boolean delete(Long id) {
         String sql = "DELETE FROM compte WHERE id = ?";
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setLong(1, id);
-            return stmt.executeUpdate() > 0;
+            boolean deleted = stmt.executeUpdate() > 0;
+            invalidateCache(id);
+            CACHE_PAR_NUMERO.invalidateAll();
+            return deleted;
         } catch (SQLException e) {
             System.err.println("Erreur lors de la suppression du compte: " + e.getMessage());
         }
@@ -145,7 +384,7 @@ public class CompteDAO {
     
     public Optional<Compte> findCompteWithMaxSolde() {
         String sql = "SELECT * FROM compte ORDER BY solde DESC LIMIT 1";
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
             
@@ -160,7 +399,7 @@ public class CompteDAO {
     
     public Optional<Compte> findCompteWithMinSolde() {
         String sql = "SELECT * FROM compte ORDER BY solde ASC LIMIT 1";
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
             
@@ -213,4 +452,25 @@ public class CompteDAO {
             default -> throw new IllegalArgumentException("Type de compte inconnu");
         };
     }
+    
+    public static void invalidateCache(Long compteId) {
+        CACHE_PAR_ID.invalidate(compteId);
+    }
+    
+    public static EntityCache.Statistics getCacheStatistics() {
+        return CACHE_PAR_ID.getStatistics();
+    }
+    
+    public static EntityCache.Statistics getNumeroCacheStatistics() {
+        return CACHE_PAR_NUMERO.getStatistics();
+    }
+    
+    private static Compte copier(Compte compte) {
+        return switch (compte) {
+            case CompteCourant cc -> new CompteCourant(cc.getId(), cc.getNumero(), cc.getSolde(),
+                    cc.getIdClient(), cc.getDecouvertAutorise());
+            case CompteEpargne ce -> new CompteEpargne(ce.getId(), ce.getNumero(), ce.getSolde(),
+                    ce.getIdClient(), ce.getTauxInteret());
+        };
+    }
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.solubank.dao;
+
+import java.sql.SQLException;
+
+
+public class DataAccessException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public DataAccessException(String message, SQLException cause) {
+        super(message + ": " + cause.getMessage(), cause);
+    }
+
+    public String getSQLState() {
+        return ((SQLException) getCause()).getSQLState();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,28 @@
+package com.solubank.dao;
+
+import com.solubank.entity.Transaction;
+
+import java.util.Optional;
+
+
+public record LedgerResult(Status status, Transaction transaction) {
+
+    public enum Status {
+        SUCCESS,
+        INSUFFICIENT_FUNDS,
+        UNKNOWN_ACCOUNT,
+        FAILURE
+    }
+
+    public static LedgerResult success(Transaction transaction) {
+        return new LedgerResult(Status.SUCCESS, transaction);
+    }
+
+    public static LedgerResult rejected(Status status) {
+        return new LedgerResult(status, null);
+    }
+
+    public Optional<Transaction> saved() {
+        return Optional.ofNullable(transaction);
+    }
+}
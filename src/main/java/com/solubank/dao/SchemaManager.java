@@ -0,0 +1,262 @@
+package com.solubank.dao;
+
+import com.solubank.util.DatabaseConnection;
+
+import javax.sql.DataSource;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+public class SchemaManager {
+
+    public record IndexRequirement(String table, List<String> columns) {
+        @Override
+        public String toString() {
+            return table + "(" + String.join(", ", columns) + ")";
+        }
+    }
+
+    @FunctionalInterface
+    private interface MigrationStep {
+        void apply(Connection conn) throws SQLException;
+    }
+
+    private record Migration(int version, String description, MigrationStep step) {}
+
+    public static final Map<String, IndexRequirement> INDEX_PAR_REQUETE = buildIndexParRequete();
+
+    private final DataSource dataSource;
+    private final List<Migration> migrations = List.of(
+        new Migration(1, "Création des tables client, compte et transaction", this::createTables),
+        new Migration(2, "Index des requêtes par compte, date, montant et client", this::createHotPathIndexes),
+        new Migration(3, "Numéro de séquence du journal des transactions", this::addJournalSequence)
+    );
+
+    public SchemaManager() {
+        this(DatabaseConnection.getDataSource());
+    }
+
+    public SchemaManager(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    public int migrate() throws SQLException {
+        try (Connection conn = dataSource.getConnection()) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("""
+                    CREATE TABLE IF NOT EXISTS schema_version (
+                        version INT PRIMARY KEY,
+                        description VARCHAR(200) NOT NULL,
+                        applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+                    )
+                    """);
+            }
+
+            int current = currentVersion(conn);
+            for (Migration migration : migrations) {
+                if (migration.version() <= current) {
+                    continue;
+                }
+                migration.step().apply(conn);
+                try (PreparedStatement stmt = conn.prepareStatement(
+                        "INSERT INTO schema_version (version, description) VALUES (?, ?)")) {
+                    stmt.setInt(1, migration.version());
+                    stmt.setString(2, migration.description());
+                    stmt.executeUpdate();
+                }
+                System.out.printf("Migration %d appliquée: %s%n", migration.version(), migration.description());
+                current = migration.version();
+            }
+            return current;
+        }
+    }
+
+    public Map<IndexRequirement, List<String>> findMissingIndexes() throws SQLException {
+        Map<String, List<List<String>>> indexesParTable;
+        try (Connection conn = dataSource.getConnection()) {
+            indexesParTable = loadIndexes(conn);
+        }
+
+        Map<IndexRequirement, List<String>> manquants = new LinkedHashMap<>();
+        for (Map.Entry<String, IndexRequirement> entry : INDEX_PAR_REQUETE.entrySet()) {
+            IndexRequirement requirement = entry.getValue();
+            if (!isCovered(indexesParTable.getOrDefault(requirement.table(), List.of()), requirement.columns())) {
+                manquants.computeIfAbsent(requirement, r -> new ArrayList<>()).add(entry.getKey());
+            }
+        }
+        return manquants;
+    }
+
+    public void verifyIndexes(boolean strict) throws SQLException {
+        Map<IndexRequirement, List<String>> manquants = findMissingIndexes();
+        if (manquants.isEmpty()) {
+            return;
+        }
+        StringBuilder message = new StringBuilder("Index manquants:");
+        manquants.forEach((requirement, requetes) ->
+                message.append("\n - ").append(requirement).append(" requis par ").append(String.join(", ", requetes)));
+        if (strict) {
+            throw new IllegalStateException(message.toString());
+        }
+        System.err.println("Attention - " + message);
+    }
+
+    private int currentVersion(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(version), 0) FROM schema_version")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    private Map<String, List<List<String>>> loadIndexes(Connection conn) throws SQLException {
+        String sql = """
+            SELECT TABLE_NAME, INDEX_NAME, COLUMN_NAME
+            FROM information_schema.STATISTICS
+            WHERE TABLE_SCHEMA = DATABASE()
+            ORDER BY TABLE_NAME, INDEX_NAME, SEQ_IN_INDEX
+            """;
+        Map<String, Map<String, List<String>>> colonnesParIndex = new HashMap<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                colonnesParIndex
+                    .computeIfAbsent(rs.getString("TABLE_NAME").toLowerCase(), t -> new LinkedHashMap<>())
+                    .computeIfAbsent(rs.getString("INDEX_NAME"), i -> new ArrayList<>())
+                    .add(rs.getString("COLUMN_NAME").toLowerCase());
+            }
+        }
+        Map<String, List<List<String>>> indexesParTable = new HashMap<>();
+        colonnesParIndex.forEach((table, indexes) -> indexesParTable.put(table, new ArrayList<>(indexes.values())));
+        return indexesParTable;
+    }
+
+    private void createTables(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("""
+                CREATE TABLE IF NOT EXISTS client (
+                    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                    nom VARCHAR(100) NOT NULL,
+                    email VARCHAR(150) NOT NULL UNIQUE,
+                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+                )
+                """);
+            stmt.executeUpdate("""
+                CREATE TABLE IF NOT EXISTS compte (
+                    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                    numero VARCHAR(20) NOT NULL UNIQUE,
+                    solde DECIMAL(15,2) NOT NULL DEFAULT 0.00,
+                    id_client BIGINT NOT NULL,
+                    type_compte ENUM('COURANT', 'EPARGNE') NOT NULL,
+                    decouvert_autorise DECIMAL(15,2) NULL,
+                    taux_interet DECIMAL(5,2) NULL,
+                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+                    FOREIGN KEY (id_client) REFERENCES client(id) ON DELETE RESTRICT
+                )
+                """);
+            stmt.executeUpdate("""
+                CREATE TABLE IF NOT EXISTS transaction (
+                    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                    date TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                    montant DECIMAL(15,2) NOT NULL,
+                    type ENUM('VERSEMENT', 'RETRAIT', 'VIREMENT') NOT NULL,
+                    lieu VARCHAR(200),
+                    id_compte BIGINT NOT NULL,
+                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                    FOREIGN KEY (id_compte) REFERENCES compte(id) ON DELETE RESTRICT
+                )
+                """);
+        }
+    }
+
+    private void createHotPathIndexes(Connection conn) throws SQLException {
+        Map<String, List<List<String>>> existants = loadIndexes(conn);
+        createIndexIfMissing(conn, existants, "compte", "idx_client", "id_client");
+        createIndexIfMissing(conn, existants, "compte", "idx_type", "type_compte");
+        createIndexIfMissing(conn, existants, "transaction", "idx_compte_date", "id_compte", "date", "id");
+        createIndexIfMissing(conn, existants, "transaction", "idx_date", "date");
+        createIndexIfMissing(conn, existants, "transaction", "idx_type", "type");
+        createIndexIfMissing(conn, existants, "transaction", "idx_montant", "montant");
+        createIndexIfMissing(conn, existants, "transaction", "idx_lieu", "lieu");
+    }
+
+    private void addJournalSequence(Connection conn) throws SQLException {
+        String sql = """
+            SELECT COUNT(*) FROM information_schema.COLUMNS
+            WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'transaction' AND COLUMN_NAME = 'journal_seq'
+            """;
+        boolean present;
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            present = rs.next() && rs.getInt(1) > 0;
+        }
+        if (!present) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("ALTER TABLE transaction ADD COLUMN journal_seq BIGINT NULL AFTER id_compte");
+            }
+        }
+        Map<String, List<List<String>>> existants = loadIndexes(conn);
+        if (!isCovered(existants.getOrDefault("transaction", List.of()), List.of("journal_seq"))) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("ALTER TABLE transaction ADD UNIQUE INDEX uk_journal_seq (journal_seq)");
+            }
+        }
+    }
+
+    private void createIndexIfMissing(Connection conn, Map<String, List<List<String>>> existants,
+                                      String table, String nom, String... colonnes) throws SQLException {
+        List<String> requises = List.of(colonnes);
+        if (isCovered(existants.getOrDefault(table, List.of()), requises)) {
+            return;
+        }
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("ALTER TABLE " + table + " ADD INDEX " + nom + " (" + String.join(", ", requises) + ")");
+        }
+    }
+
+    private static boolean isCovered(List<List<String>> indexes, List<String> colonnes) {
+        return indexes.stream().anyMatch(index -> index.size() >= colonnes.size()
+                && index.subList(0, colonnes.size()).equals(colonnes));
+    }
+
+    private static Map<String, IndexRequirement> buildIndexParRequete() {
+        IndexRequirement compteDate = new IndexRequirement("transaction", List.of("id_compte", "date"));
+        IndexRequirement compteDateId = new IndexRequirement("transaction", List.of("id_compte", "date", "id"));
+        IndexRequirement date = new IndexRequirement("transaction", List.of("date"));
+        IndexRequirement type = new IndexRequirement("transaction", List.of("type"));
+        IndexRequirement montant = new IndexRequirement("transaction", List.of("montant"));
+        IndexRequirement client = new IndexRequirement("compte", List.of("id_client"));
+        IndexRequirement numero = new IndexRequirement("compte", List.of("numero"));
+        IndexRequirement journal = new IndexRequirement("transaction", List.of("journal_seq"));
+
+        Map<String, IndexRequirement> mapping = new LinkedHashMap<>();
+        mapping.put("TransactionDAO.findByCompteId", compteDate);
+        mapping.put("TransactionDAO.findPageByCompteId", compteDateId);
+        mapping.put("TransactionDAO.findTransactionsInShortTime", compteDate);
+        mapping.put("TransactionDAO.existsByCompteId", compteDate);
+        mapping.put("CompteDAO.findInactiveSince", compteDate);
+        mapping.put("TransactionDAO.findByDateRange", date);
+        mapping.put("TransactionDAO.streamByDateRange", date);
+        mapping.put("TransactionDAO.streamByCriteria", date);
+        mapping.put("TransactionDAO.findByType", type);
+        mapping.put("TransactionDAO.streamByType", type);
+        mapping.put("TransactionDAO.findSuspiciousTransactions", montant);
+        mapping.put("TransactionDAO.findByMontantRange", montant);
+        mapping.put("TransactionDAO.findByClientId", client);
+        mapping.put("TransactionDAO.findPageByClientId", client);
+        mapping.put("CompteDAO.findByClientId", client);
+        mapping.put("CompteDAO.sumSoldeByClientId", client);
+        mapping.put("CompteDAO.countByClientId", client);
+        mapping.put("CompteDAO.existsByClientId", client);
+        mapping.put("CompteDAO.findByNumero", numero);
+        mapping.put("TransactionDAO.findMaxJournalSequence", journal);
+        return Collections.unmodifiableMap(mapping);
+    }
+}
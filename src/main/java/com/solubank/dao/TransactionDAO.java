@@ -1,22 +1,60 @@
 package com.solubank.dao;
 
+import com.solubank.entity.Montant;
 import com.solubank.entity.Transaction;
+import com.solubank.entity.TransactionPage;
 import com.solubank.entity.TypeTransaction;
 import com.solubank.util.DatabaseConnection;
+import com.solubank.util.Echeance;
+import com.solubank.util.LocationDictionary;
 
+import javax.sql.DataSource;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.sql.*;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 
 public class TransactionDAO {
+
+    private static final int DEFAULT_BATCH_SIZE = 1000;
+    private static final int STREAM_FETCH_SIZE = 1000;
+
+    private final DataSource dataSource;
+    private final int batchSize;
+
+    public TransactionDAO() {
+        this(DatabaseConnection.getDataSource());
+    }
+
+    public TransactionDAO(DataSource dataSource) {
+        this(dataSource, DEFAULT_BATCH_SIZE);
+    }
+
+    public TransactionDAO(DataSource dataSource, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Taille de lot invalide: " + batchSize);
+        }
+        this.dataSource = dataSource;
+        this.batchSize = batchSize;
+    }
     
     public Optional<Transaction> save(Transaction transaction) {
         String sql = "INSERT INTO transaction (date, montant, type, lieu, id_compte) VALUES (?, ?, ?, ?, ?)";
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             
             stmt.setTimestamp(1, Timestamp.valueOf(transaction.date()));
@@ -47,9 +85,233 @@ public class TransactionDAO {
         return Optional.empty();
     }
     
+    public LedgerResult saveWithBalanceUpdate(Transaction transaction) {
+        // Retrait et virement débitent le compte: le plancher de découvert s'applique à tout débit
+        boolean debit = transaction.type() != TypeTransaction.VERSEMENT;
+        String soldeSql = debit
+            ? """
+                UPDATE compte SET solde = solde + ?
+                WHERE id = ?
+                AND solde + ? >= CASE type_compte
+                    WHEN 'COURANT' THEN -COALESCE(decouvert_autorise, 0)
+                    ELSE 0
+                END
+                """
+            : "UPDATE compte SET solde = solde + ? WHERE id = ?";
+        String insertSql = "INSERT INTO transaction (date, montant, type, lieu, id_compte) VALUES (?, ?, ?, ?, ?)";
+        BigDecimal mouvement = Montant.enBigDecimal(mouvement(transaction));
+        
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement soldeStmt = conn.prepareStatement(soldeSql);
+                 PreparedStatement insertStmt = conn.prepareStatement(insertSql, Statement.RETURN_GENERATED_KEYS)) {
+                
+                soldeStmt.setBigDecimal(1, mouvement);
+                soldeStmt.setLong(2, transaction.idCompte());
+                if (debit) {
+                    soldeStmt.setBigDecimal(3, mouvement);
+                }
+                if (soldeStmt.executeUpdate() == 0) {
+                    LedgerResult.Status status = compteExiste(conn, transaction.idCompte())
+                        ? LedgerResult.Status.INSUFFICIENT_FUNDS
+                        : LedgerResult.Status.UNKNOWN_ACCOUNT;
+                    conn.rollback();
+                    return LedgerResult.rejected(status);
+                }
+                
+                insertStmt.setTimestamp(1, Timestamp.valueOf(transaction.date()));
+                insertStmt.setBigDecimal(2, transaction.montant());
+                insertStmt.setString(3, transaction.type().name());
+                insertStmt.setString(4, transaction.lieu());
+                insertStmt.setLong(5, transaction.idCompte());
+                insertStmt.executeUpdate();
+                
+                try (ResultSet generatedKeys = insertStmt.getGeneratedKeys()) {
+                    if (!generatedKeys.next()) {
+                        conn.rollback();
+                        return LedgerResult.rejected(LedgerResult.Status.FAILURE);
+                    }
+                    Transaction saved = new Transaction(
+                        generatedKeys.getLong(1),
+                        transaction.date(),
+                        transaction.montant(),
+                        transaction.type(),
+                        transaction.lieu(),
+                        transaction.idCompte()
+                    );
+                    conn.commit();
+                    CompteDAO.invalidateCache(transaction.idCompte());
+                    return LedgerResult.success(saved);
+                }
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            System.err.println("Erreur lors de l'enregistrement de la transaction: " + e.getMessage());
+        }
+        return LedgerResult.rejected(LedgerResult.Status.FAILURE);
+    }
+    
+    private boolean compteExiste(Connection conn, Long compteId) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT 1 FROM compte WHERE id = ?")) {
+            stmt.setLong(1, compteId);
+            ResultSet rs = stmt.executeQuery();
+            return rs.next();
+        }
+    }
+    
+    public List<Transaction> saveAll(List<Transaction> transactions) {
+        List<Transaction> saved = new ArrayList<>(transactions.size());
+        saveAll(transactions.iterator(), saved::add);
+        return saved;
+    }
+    
+    public long saveAll(Iterator<Transaction> transactions) {
+        return saveAll(transactions, transaction -> {});
+    }
+    
+    public long saveAll(Iterator<Transaction> transactions, Consumer<Transaction> onSaved) {
+        String insertSql = "INSERT INTO transaction (date, montant, type, lieu, id_compte) VALUES (?, ?, ?, ?, ?)";
+        String soldeSql = "UPDATE compte SET solde = solde + ? WHERE id = ?";
+        long total = 0;
+        List<Transaction> lot = new ArrayList<>(batchSize);
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement insertStmt = conn.prepareStatement(insertSql, Statement.RETURN_GENERATED_KEYS);
+                 PreparedStatement soldeStmt = conn.prepareStatement(soldeSql)) {
+                
+                while (transactions.hasNext()) {
+                    lot.add(transactions.next());
+                    if (lot.size() == batchSize || !transactions.hasNext()) {
+                        List<Transaction> savedLot = saveLot(conn, insertStmt, soldeStmt, lot, null);
+                        savedLot.forEach(onSaved);
+                        total += savedLot.size();
+                        lot.clear();
+                    }
+                }
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            System.err.println("Erreur lors de l'ajout groupé des transactions (" + total + " enregistrées): " + e.getMessage());
+        }
+        return total;
+    }
+    
+    // Historique déjà reflété dans les soldes (reprise de données): lot inséré d'un bloc, sans mouvement de compte
+    public List<Transaction> saveHistorical(List<Transaction> lot) throws SQLException {
+        String insertSql = "INSERT INTO transaction (date, montant, type, lieu, id_compte) VALUES (?, ?, ?, ?, ?)";
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement insertStmt = conn.prepareStatement(insertSql, Statement.RETURN_GENERATED_KEYS)) {
+                return saveLot(conn, insertStmt, null, lot, null);
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+    
+    public List<Transaction> saveJournalises(List<Transaction> lot, long[] sequences) throws SQLException {
+        if (lot.size() != sequences.length) {
+            throw new IllegalArgumentException("Une séquence de journal est requise par transaction");
+        }
+        String insertSql = "INSERT INTO transaction (date, montant, type, lieu, id_compte, journal_seq) VALUES (?, ?, ?, ?, ?, ?)";
+        String soldeSql = "UPDATE compte SET solde = solde + ? WHERE id = ?";
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement insertStmt = conn.prepareStatement(insertSql, Statement.RETURN_GENERATED_KEYS);
+                 PreparedStatement soldeStmt = conn.prepareStatement(soldeSql)) {
+                return saveLot(conn, insertStmt, soldeStmt, lot, sequences);
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+    
+    public long findMaxJournalSequence() throws SQLException {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT COALESCE(MAX(journal_seq), 0) FROM transaction");
+             ResultSet rs = stmt.executeQuery()) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+    
+    private List<Transaction> saveLot(Connection conn, PreparedStatement insertStmt, PreparedStatement soldeStmt,
+                                      List<Transaction> lot, long[] sequences) throws SQLException {
+        Map<Long, long[]> mouvementsParCompte = new TreeMap<>();
+        try {
+            for (int i = 0; i < lot.size(); i++) {
+                Transaction transaction = lot.get(i);
+                insertStmt.setTimestamp(1, Timestamp.valueOf(transaction.date()));
+                insertStmt.setBigDecimal(2, transaction.montant());
+                insertStmt.setString(3, transaction.type().name());
+                insertStmt.setString(4, transaction.lieu());
+                insertStmt.setLong(5, transaction.idCompte());
+                if (sequences != null) {
+                    insertStmt.setLong(6, sequences[i]);
+                }
+                insertStmt.addBatch();
+                long[] mouvement = mouvementsParCompte.computeIfAbsent(transaction.idCompte(), id -> new long[1]);
+                mouvement[0] = Montant.additionner(mouvement[0], mouvement(transaction));
+            }
+            insertStmt.executeBatch();
+            
+            List<Transaction> saved = new ArrayList<>(lot.size());
+            try (ResultSet generatedKeys = insertStmt.getGeneratedKeys()) {
+                for (Transaction transaction : lot) {
+                    if (!generatedKeys.next()) {
+                        throw new SQLException("Clés générées manquantes pour le lot");
+                    }
+                    saved.add(new Transaction(
+                        generatedKeys.getLong(1),
+                        transaction.date(),
+                        transaction.montant(),
+                        transaction.type(),
+                        transaction.lieu(),
+                        transaction.idCompte()
+                    ));
+                }
+            }
+            
+            if (soldeStmt == null) {
+                conn.commit();
+                return saved;
+            }
+            for (Map.Entry<Long, long[]> entry : mouvementsParCompte.entrySet()) {
+                soldeStmt.setBigDecimal(1, Montant.enBigDecimal(entry.getValue()[0]));
+                soldeStmt.setLong(2, entry.getKey());
+                soldeStmt.addBatch();
+            }
+            soldeStmt.executeBatch();
+            
+            conn.commit();
+            mouvementsParCompte.keySet().forEach(CompteDAO::invalidateCache);
+            return saved;
+        } catch (SQLException e) {
+            conn.rollback();
+            insertStmt.clearBatch();
+            if (soldeStmt != null) {
+                soldeStmt.clearBatch();
+            }
+            throw e;
+        }
+    }
+    
+    private static long mouvement(Transaction transaction) {
+        long centimes = Montant.centimes(transaction.montant());
+        return switch (transaction.type()) {
+            case VERSEMENT -> centimes;
+            case RETRAIT, VIREMENT -> -centimes;
+        };
+    }
+    
     public Optional<Transaction> findById(Long id) {
         String sql = "SELECT * FROM transaction WHERE id = ?";
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setLong(1, id);
@@ -67,7 +329,7 @@ public class TransactionDAO {
     public List<Transaction> findByCompteId(Long compteId) {
         List<Transaction> transactions = new ArrayList<>();
         String sql = "SELECT * FROM transaction WHERE id_compte = ? ORDER BY date DESC";
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setLong(1, compteId);
@@ -82,6 +344,38 @@ public class TransactionDAO {
         return transactions;
     }
     
+    public boolean existsByCompteId(Long compteId) {
+        String sql = "SELECT EXISTS (SELECT 1 FROM transaction WHERE id_compte = ?)";
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setLong(1, compteId);
+            ResultSet rs = stmt.executeQuery();
+            
+            return rs.next() && rs.getBoolean(1);
+        } catch (SQLException e) {
+            System.err.println("Erreur lors de la vérification des transactions du compte: " + e.getMessage());
+        }
+        return false;
+    }
+    
+    public BigDecimal sumMontantByCompteId(Long compteId) {
+        String sql = "SELECT COALESCE(SUM(montant), 0) FROM transaction WHERE id_compte = ?";
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setLong(1, compteId);
+            ResultSet rs = stmt.executeQuery();
+            
+            if (rs.next()) {
+                return rs.getBigDecimal(1);
+            }
+        } catch (SQLException e) {
+            System.err.println("Erreur lors du calcul du total des transactions: " + e.getMessage());
+        }
+        return BigDecimal.ZERO;
+    }
+    
     public List<Transaction> findByClientId(Long clientId) {
         List<Transaction> transactions = new ArrayList<>();
         String sql = """
@@ -90,7 +384,7 @@ public class TransactionDAO {
             WHERE c.id_client = ?
             ORDER BY t.date DESC
             """;
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setLong(1, clientId);
@@ -105,10 +399,55 @@ public class TransactionDAO {
         return transactions;
     }
     
+    public TransactionPage findPageByCompteId(Long compteId, String token, int pageSize) {
+        String premierePage = """
+            SELECT * FROM transaction
+            WHERE id_compte = ?
+            ORDER BY date DESC, id DESC
+            LIMIT ?
+            """;
+        String pageSuivante = """
+            SELECT * FROM transaction
+            WHERE id_compte = ?
+            AND (date < ? OR (date = ? AND id < ?))
+            ORDER BY date DESC, id DESC
+            LIMIT ?
+            """;
+        return findPage(premierePage, pageSuivante, compteId, token, pageSize);
+    }
+    
+    // Une page par compte sur l'index (id_compte, date, id), puis fusion: coût en comptes x page, pas en historique du client
+    public TransactionPage findPageByClientId(Long clientId, String token, int pageSize) {
+        String premierePage = """
+            SELECT t.* FROM (SELECT id FROM compte WHERE id_client = ?) c,
+            LATERAL (
+                SELECT * FROM transaction
+                WHERE id_compte = c.id
+                ORDER BY date DESC, id DESC
+                LIMIT ?
+            ) t
+            ORDER BY t.date DESC, t.id DESC
+            LIMIT ?
+            """;
+        String pageSuivante = """
+            SELECT t.* FROM (SELECT id FROM compte WHERE id_client = ?) c,
+            LATERAL (
+                SELECT * FROM transaction
+                WHERE id_compte = c.id
+                AND (date < ? OR (date = ? AND id < ?))
+                ORDER BY date DESC, id DESC
+                LIMIT ?
+            ) t
+            ORDER BY t.date DESC, t.id DESC
+            LIMIT ?
+            """;
+        return findPage(premierePage, pageSuivante, clientId, token, pageSize);
+    }
+    
     public List<Transaction> findByType(TypeTransaction type) {
         List<Transaction> transactions = new ArrayList<>();
         String sql = "SELECT * FROM transaction WHERE type = ? ORDER BY date DESC";
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setString(1, type.name());
@@ -126,7 +465,7 @@ public class TransactionDAO {
     public List<Transaction> findByMontantRange(BigDecimal montantMin, BigDecimal montantMax) {
         List<Transaction> transactions = new ArrayList<>();
         String sql = "SELECT * FROM transaction WHERE montant BETWEEN ? AND ? ORDER BY date DESC";
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setBigDecimal(1, montantMin);
@@ -145,7 +484,7 @@ public class TransactionDAO {
     public List<Transaction> findByDateRange(LocalDateTime dateDebut, LocalDateTime dateFin) {
         List<Transaction> transactions = new ArrayList<>();
         String sql = "SELECT * FROM transaction WHERE date BETWEEN ? AND ? ORDER BY date DESC";
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setTimestamp(1, Timestamp.valueOf(dateDebut));
@@ -164,7 +503,7 @@ public class TransactionDAO {
     public List<Transaction> findByLieu(String lieu) {
         List<Transaction> transactions = new ArrayList<>();
         String sql = "SELECT * FROM transaction WHERE lieu LIKE ? ORDER BY date DESC";
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setString(1, "%" + lieu + "%");
@@ -182,7 +521,7 @@ public class TransactionDAO {
     public List<Transaction> findSuspiciousTransactions(BigDecimal seuil) {
         List<Transaction> transactions = new ArrayList<>();
         String sql = "SELECT * FROM transaction WHERE montant > ? ORDER BY montant DESC";
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setBigDecimal(1, seuil);
@@ -197,19 +536,19 @@ public class TransactionDAO {
         return transactions;
     }
     
-    public List<Transaction> findTransactionsInShortTime(Long compteId, int minutes) {
+    public List<Transaction> findTransactionsInShortTime(Long compteId, LocalDateTime depuis) {
         List<Transaction> transactions = new ArrayList<>();
         String sql = """
             SELECT * FROM transaction 
             WHERE id_compte = ? 
-            AND date >= DATE_SUB(NOW(), INTERVAL ? MINUTE)
+            AND date >= ?
             ORDER BY date DESC
             """;
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setLong(1, compteId);
-            stmt.setInt(2, minutes);
+            stmt.setTimestamp(2, Timestamp.valueOf(depuis));
             ResultSet rs = stmt.executeQuery();
             
             while (rs.next()) {
@@ -224,7 +563,7 @@ public class TransactionDAO {
     public List<Transaction> findAll() {
         List<Transaction> transactions = new ArrayList<>();
         String sql = "SELECT * FROM transaction ORDER BY date DESC";
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
             
@@ -237,9 +576,91 @@ public class TransactionDAO {
         return transactions;
     }
     
+    public Stream<Transaction> streamAll() {
+        return stream("SELECT * FROM transaction ORDER BY date DESC", stmt -> {});
+    }
+    
+    public Stream<Transaction> streamByDateRange(LocalDateTime dateDebut, LocalDateTime dateFin) {
+        return stream("SELECT * FROM transaction WHERE date BETWEEN ? AND ? ORDER BY date DESC", stmt -> {
+            stmt.setTimestamp(1, Timestamp.valueOf(dateDebut));
+            stmt.setTimestamp(2, Timestamp.valueOf(dateFin));
+        });
+    }
+    
+    public Stream<Transaction> streamAfterId(long id) {
+        return stream("SELECT * FROM transaction WHERE id > ? ORDER BY id",
+            stmt -> stmt.setLong(1, id));
+    }
+    
+    public Stream<Transaction> streamAfterId(long id, long[] plages) {
+        StringBuilder sql = new StringBuilder("SELECT * FROM transaction WHERE id > ?");
+        for (int i = 0; i < plages.length; i += 2) {
+            sql.append(" OR id BETWEEN ? AND ?");
+        }
+        sql.append(" ORDER BY id");
+        return stream(sql.toString(), stmt -> {
+            stmt.setLong(1, id);
+            for (int i = 0; i < plages.length; i++) {
+                stmt.setLong(i + 2, plages[i]);
+            }
+        });
+    }
+    
+    public Stream<Transaction> streamByType(TypeTransaction type) {
+        return stream("SELECT * FROM transaction WHERE type = ? ORDER BY date DESC",
+            stmt -> stmt.setString(1, type.name()));
+    }
+    
+    public Stream<Transaction> streamByClientId(Long clientId) {
+        String sql = """
+            SELECT t.* FROM transaction t
+            JOIN compte c ON t.id_compte = c.id
+            WHERE c.id_client = ?
+            ORDER BY t.date DESC
+            """;
+        return stream(sql, stmt -> stmt.setLong(1, clientId));
+    }
+    
+    public Stream<Transaction> streamByCriteria(LocalDateTime dateDebut, LocalDateTime dateFin, Long compteId, Long clientId) {
+        StringBuilder sql = new StringBuilder("SELECT t.* FROM transaction t");
+        List<String> conditions = new ArrayList<>();
+        if (clientId != null) {
+            sql.append(" JOIN compte c ON t.id_compte = c.id");
+            conditions.add("c.id_client = ?");
+        }
+        if (compteId != null) {
+            conditions.add("t.id_compte = ?");
+        }
+        if (dateDebut != null) {
+            conditions.add("t.date >= ?");
+        }
+        if (dateFin != null) {
+            conditions.add("t.date <= ?");
+        }
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        sql.append(" ORDER BY t.date, t.id");
+        return stream(sql.toString(), stmt -> {
+            int index = 1;
+            if (clientId != null) {
+                stmt.setLong(index++, clientId);
+            }
+            if (compteId != null) {
+                stmt.setLong(index++, compteId);
+            }
+            if (dateDebut != null) {
+                stmt.setTimestamp(index++, Timestamp.valueOf(dateDebut));
+            }
+            if (dateFin != null) {
+                stmt.setTimestamp(index, Timestamp.valueOf(dateFin));
+            }
+        });
+    }
+    
     public boolean delete(Long id) {
         String sql = "DELETE FROM transaction WHERE id = ?";
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setLong(1, id);
@@ -250,13 +671,134 @@ public class TransactionDAO {
         return false;
     }
     
+    private TransactionPage findPage(String premierePage, String pageSuivante, Long ownerId,
+                                     String token, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Taille de page invalide: " + pageSize);
+        }
+        PageCursor cursor = token == null ? null : PageCursor.decode(token);
+        String sql = cursor == null ? premierePage : pageSuivante;
+        List<Transaction> transactions = new ArrayList<>(pageSize + 1);
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            int index = 1;
+            stmt.setLong(index++, ownerId);
+            if (cursor != null) {
+                Timestamp date = Timestamp.valueOf(cursor.date());
+                stmt.setTimestamp(index++, date);
+                stmt.setTimestamp(index++, date);
+                stmt.setLong(index++, cursor.id());
+            }
+            // Les paramètres restants sont tous des LIMIT: un par sous-requête par compte, plus celui de la fusion
+            long parametres = sql.chars().filter(c -> c == '?').count();
+            for (; index <= parametres; index++) {
+                stmt.setInt(index, pageSize + 1);
+            }
+            ResultSet rs = stmt.executeQuery();
+            
+            while (rs.next()) {
+                transactions.add(createTransactionFromResultSet(rs));
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Erreur lors de la lecture de la page de transactions", e);
+        }
+        
+        if (transactions.size() <= pageSize) {
+            return new TransactionPage(transactions, null);
+        }
+        List<Transaction> page = transactions.subList(0, pageSize);
+        Transaction last = page.get(pageSize - 1);
+        return new TransactionPage(page, new PageCursor(last.date(), last.id()).encode());
+    }
+    
+    private record PageCursor(LocalDateTime date, long id) {
+        String encode() {
+            String raw = date + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+        
+        static PageCursor decode(String token) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+                int separator = raw.indexOf('|');
+                return new PageCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1))
+                );
+            } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+                throw new IllegalArgumentException("Curseur de pagination invalide: " + token);
+            }
+        }
+    }
+    
+    private Stream<Transaction> stream(String sql, ParameterBinder binder) {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        Echeance.Suivi suivi = null;
+        ResultSet rs = null;
+        try {
+            conn = dataSource.getConnection();
+            stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            stmt.setFetchSize(STREAM_FETCH_SIZE);
+            binder.bind(stmt);
+            // Suivi jusqu'à la fermeture du flux: une échéance dépassée en cours de lecture annule la requête
+            suivi = Echeance.suivre(stmt);
+            rs = stmt.executeQuery();
+        } catch (SQLException e) {
+            closeQuietly(rs, suivi, stmt, conn);
+            // Un flux vide serait indiscernable d'une table vide: l'échec remonte à l'appelant
+            throw new DataAccessException("Erreur lors de l'ouverture du curseur de transactions", e);
+        }
+        
+        ResultSet cursor = rs;
+        Echeance.Suivi cursorSuivi = suivi;
+        PreparedStatement cursorStmt = stmt;
+        Connection cursorConn = conn;
+        Spliterator<Transaction> spliterator = new Spliterators.AbstractSpliterator<>(
+                Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super Transaction> action) {
+                try {
+                    if (!cursor.next()) {
+                        return false;
+                    }
+                    action.accept(createTransactionFromResultSet(cursor));
+                    return true;
+                } catch (SQLException e) {
+                    throw new DataAccessException("Erreur lors de la lecture du curseur de transactions", e);
+                }
+            }
+        };
+        return StreamSupport.stream(spliterator, false)
+                .onClose(() -> closeQuietly(cursor, cursorSuivi, cursorStmt, cursorConn));
+    }
+    
+    private static void closeQuietly(AutoCloseable... resources) {
+        for (AutoCloseable resource : resources) {
+            if (resource == null) {
+                continue;
+            }
+            try {
+                resource.close();
+            } catch (Exception e) {
+                System.err.println("Erreur lors de la fermeture du curseur: " + e.getMessage());
+            }
+        }
+    }
+    
+    @FunctionalInterface
+    private interface ParameterBinder {
+        void bind(PreparedStatement stmt) throws SQLException;
+    }
+    
     private Transaction createTransactionFromResultSet(ResultSet rs) throws SQLException {
         return new Transaction(
             rs.getLong("id"),
             rs.getTimestamp("date").toLocalDateTime(),
             rs.getBigDecimal("montant"),
             TypeTransaction.valueOf(rs.getString("type")),
-            rs.getString("lieu"),
+            LocationDictionary.partage().canonique(rs.getString("lieu")),
             rs.getLong("id_compte")
         );
     }
@@ -0,0 +1,183 @@
+package com.solubank.detection;
+
+import com.solubank.entity.TypeTransaction;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+
+public class AmountStatistics {
+
+    private static final int MAGIC = 0x534F5354;
+    private static final int VERSION = 1;
+    private static final long CLE_VIDE = -1L;
+    private static final int CAPACITE_INITIALE = 1024;
+
+    private long[] cles;
+    private long[] effectifs;
+    private double[] moyennes;
+    private double[] m2;
+    private int taille;
+
+    public AmountStatistics() {
+        this(CAPACITE_INITIALE);
+    }
+
+    private AmountStatistics(int capacite) {
+        allouer(capacite);
+    }
+
+    public synchronized void ajouter(long compteId, TypeTransaction type, double montant) {
+        int index = indexPour(cle(compteId, type));
+        long n = ++effectifs[index];
+        double delta = montant - moyennes[index];
+        moyennes[index] += delta / n;
+        m2[index] += delta * (montant - moyennes[index]);
+    }
+
+    public synchronized double scoreZ(long compteId, TypeTransaction type, double montant, long effectifMin) {
+        int index = rechercher(cle(compteId, type));
+        if (index < 0 || effectifs[index] < effectifMin || effectifs[index] < 2) {
+            return Double.NaN;
+        }
+        double ecartType = Math.sqrt(m2[index] / (effectifs[index] - 1));
+        if (ecartType == 0) {
+            return montant == moyennes[index] ? 0 : Double.POSITIVE_INFINITY;
+        }
+        return Math.abs(montant - moyennes[index]) / ecartType;
+    }
+
+    public synchronized long effectif(long compteId, TypeTransaction type) {
+        int index = rechercher(cle(compteId, type));
+        return index < 0 ? 0 : effectifs[index];
+    }
+
+    public synchronized int nombreSeries() {
+        return taille;
+    }
+
+    public void sauvegarder(Path fichier) throws IOException {
+        Path dossier = fichier.toAbsolutePath().getParent();
+        Files.createDirectories(dossier);
+        Path temporaire = Files.createTempFile(dossier, "stats", ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temporaire)))) {
+                synchronized (this) {
+                    out.writeInt(MAGIC);
+                    out.writeInt(VERSION);
+                    out.writeInt(taille);
+                    for (int i = 0; i < cles.length; i++) {
+                        if (cles[i] != CLE_VIDE) {
+                            out.writeLong(cles[i]);
+                            out.writeLong(effectifs[i]);
+                            out.writeDouble(moyennes[i]);
+                            out.writeDouble(m2[i]);
+                        }
+                    }
+                }
+            }
+            Files.move(temporaire, fichier, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporaire);
+        }
+    }
+
+    public static AmountStatistics charger(Path fichier) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(fichier)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Format de fichier de statistiques inconnu: " + fichier);
+            }
+            int nombre = in.readInt();
+            AmountStatistics statistiques = new AmountStatistics(Math.max(CAPACITE_INITIALE, Integer.highestOneBit(nombre) * 4));
+            for (int i = 0; i < nombre; i++) {
+                int index = statistiques.indexPour(in.readLong());
+                statistiques.effectifs[index] = in.readLong();
+                statistiques.moyennes[index] = in.readDouble();
+                statistiques.m2[index] = in.readDouble();
+            }
+            return statistiques;
+        } catch (NoSuchFileException e) {
+            return new AmountStatistics();
+        }
+    }
+
+    private static long cle(long compteId, TypeTransaction type) {
+        return (compteId << 2) | type.ordinal();
+    }
+
+    private int rechercher(long cle) {
+        int masque = cles.length - 1;
+        for (int i = hachage(cle) & masque; ; i = (i + 1) & masque) {
+            if (cles[i] == cle) {
+                return i;
+            }
+            if (cles[i] == CLE_VIDE) {
+                return -1;
+            }
+        }
+    }
+
+    private int indexPour(long cle) {
+        int masque = cles.length - 1;
+        int i = hachage(cle) & masque;
+        while (cles[i] != CLE_VIDE) {
+            if (cles[i] == cle) {
+                return i;
+            }
+            i = (i + 1) & masque;
+        }
+        if ((taille + 1) * 4 > cles.length * 3) {
+            agrandir();
+            return indexPour(cle);
+        }
+        cles[i] = cle;
+        taille++;
+        return i;
+    }
+
+    private void agrandir() {
+        long[] anciennesCles = cles;
+        long[] anciensEffectifs = effectifs;
+        double[] anciennesMoyennes = moyennes;
+        double[] anciensM2 = m2;
+        allouer(anciennesCles.length * 2);
+        int masque = cles.length - 1;
+        for (int j = 0; j < anciennesCles.length; j++) {
+            if (anciennesCles[j] == CLE_VIDE) {
+                continue;
+            }
+            int i = hachage(anciennesCles[j]) & masque;
+            while (cles[i] != CLE_VIDE) {
+                i = (i + 1) & masque;
+            }
+            cles[i] = anciennesCles[j];
+            effectifs[i] = anciensEffectifs[j];
+            moyennes[i] = anciennesMoyennes[j];
+            m2[i] = anciensM2[j];
+            taille++;
+        }
+    }
+
+    private void allouer(int capacite) {
+        cles = new long[capacite];
+        Arrays.fill(cles, CLE_VIDE);
+        effectifs = new long[capacite];
+        moyennes = new double[capacite];
+        m2 = new double[capacite];
+        taille = 0;
+    }
+
+    private static int hachage(long cle) {
+        long h = cle * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
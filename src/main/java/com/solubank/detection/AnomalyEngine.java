@@ -0,0 +1,59 @@
+package com.solubank.detection;
+
+import com.solubank.entity.Transaction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+
+public class AnomalyEngine {
+    private final List<AnomalyRule> regles;
+
+    public AnomalyEngine(List<AnomalyRule> regles) {
+        if (regles.isEmpty()) {
+            throw new IllegalArgumentException("Au moins une règle de détection est requise");
+        }
+        this.regles = List.copyOf(regles);
+    }
+
+    public List<AnomalyRule> getRegles() {
+        return regles;
+    }
+
+    public AnomalyReport analyser(Stream<Transaction> transactions) {
+        int nombreRegles = regles.size();
+        long[] alertesParRegle = new long[nombreRegles];
+        long[] nanosParRegle = new long[nombreRegles];
+        long[] analysees = { 0 };
+        List<AnomalyHit> alertes = new ArrayList<>();
+
+        transactions.forEachOrdered(transaction -> {
+            analysees[0]++;
+            List<String> declenchees = null;
+            for (int i = 0; i < nombreRegles; i++) {
+                AnomalyRule regle = regles.get(i);
+                long debut = System.nanoTime();
+                boolean anomalie = regle.estAnomalie(transaction);
+                nanosParRegle[i] += System.nanoTime() - debut;
+                if (anomalie) {
+                    alertesParRegle[i]++;
+                    if (declenchees == null) {
+                        declenchees = new ArrayList<>(nombreRegles);
+                    }
+                    declenchees.add(regle.nom());
+                }
+            }
+            if (declenchees != null) {
+                alertes.add(new AnomalyHit(transaction, declenchees));
+            }
+        });
+
+        List<RuleStatistics> statistiques = new ArrayList<>(nombreRegles);
+        for (int i = 0; i < nombreRegles; i++) {
+            AnomalyRule regle = regles.get(i);
+            statistiques.add(new RuleStatistics(regle.nom(), regle.libelle(), alertesParRegle[i], nanosParRegle[i]));
+        }
+        return new AnomalyReport(analysees[0], alertes, statistiques);
+    }
+}
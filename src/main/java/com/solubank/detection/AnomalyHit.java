@@ -0,0 +1,12 @@
+package com.solubank.detection;
+
+import com.solubank.entity.Transaction;
+
+import java.util.List;
+
+
+public record AnomalyHit(Transaction transaction, List<String> regles) {
+    public AnomalyHit {
+        regles = List.copyOf(regles);
+    }
+}
@@ -0,0 +1,26 @@
+package com.solubank.detection;
+
+import com.solubank.entity.Transaction;
+
+import java.util.List;
+
+
+public record AnomalyReport(long transactionsAnalysees, List<AnomalyHit> alertes, List<RuleStatistics> statistiques) {
+    public AnomalyReport {
+        alertes = List.copyOf(alertes);
+        statistiques = List.copyOf(statistiques);
+    }
+
+    public List<Transaction> transactions() {
+        return alertes.stream()
+                .map(AnomalyHit::transaction)
+                .toList();
+    }
+
+    public List<Transaction> transactionsPourRegle(String regle) {
+        return alertes.stream()
+                .filter(alerte -> alerte.regles().contains(regle))
+                .map(AnomalyHit::transaction)
+                .toList();
+    }
+}
@@ -0,0 +1,13 @@
+package com.solubank.detection;
+
+import com.solubank.entity.Transaction;
+
+
+public interface AnomalyRule {
+
+    String nom();
+
+    String libelle();
+
+    boolean estAnomalie(Transaction transaction);
+}
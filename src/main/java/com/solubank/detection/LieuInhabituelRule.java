@@ -0,0 +1,73 @@
+package com.solubank.detection;
+
+import com.solubank.entity.Transaction;
+import com.solubank.util.LocationDictionary;
+
+import java.util.BitSet;
+import java.util.Locale;
+import java.util.function.LongUnaryOperator;
+
+
+public class LieuInhabituelRule implements AnomalyRule {
+    private final LocationDictionary dictionnaire;
+    private final LocationProfiles profils;
+    private final LongUnaryOperator clientDuCompte;
+    private final String paysHabituel;
+    private final long historiqueMin;
+    private final double frequenceMin;
+
+    private final BitSet lieuxEvalues = new BitSet();
+    private final BitSet lieuxDomestiques = new BitSet();
+
+    public LieuInhabituelRule(LocationDictionary dictionnaire, LocationProfiles profils,
+                              LongUnaryOperator clientDuCompte, String paysHabituel,
+                              long historiqueMin, double frequenceMin) {
+        this.dictionnaire = dictionnaire;
+        this.profils = profils;
+        this.clientDuCompte = clientDuCompte;
+        this.paysHabituel = paysHabituel.toLowerCase(Locale.ROOT);
+        this.historiqueMin = historiqueMin;
+        this.frequenceMin = frequenceMin;
+    }
+
+    @Override
+    public String nom() {
+        return "LIEU_INHABITUEL";
+    }
+
+    @Override
+    public String libelle() {
+        return "TRANSACTIONS DANS DES LIEUX INHABITUELS";
+    }
+
+    @Override
+    public boolean estAnomalie(Transaction transaction) {
+        String lieu = transaction.lieu();
+        if (lieu == null) {
+            return false;
+        }
+        int lieuId = dictionnaire.rechercher(lieu);
+        long clientId = clientDuCompte.applyAsLong(transaction.idCompte());
+        if (clientId >= 0) {
+            long total = profils.total(clientId);
+            if (total >= historiqueMin) {
+                long frequence = profils.frequence(clientId, lieuId);
+                return frequence == 0 || frequence < frequenceMin * total;
+            }
+        }
+        return !estDomestique(lieuId, lieu);
+    }
+
+    private boolean estDomestique(int lieuId, String lieu) {
+        if (lieuId == LocationDictionary.INCONNU) {
+            return lieu.toLowerCase(Locale.ROOT).contains(paysHabituel);
+        }
+        synchronized (lieuxEvalues) {
+            if (!lieuxEvalues.get(lieuId)) {
+                lieuxDomestiques.set(lieuId, dictionnaire.lieu(lieuId).contains(paysHabituel));
+                lieuxEvalues.set(lieuId);
+            }
+            return lieuxDomestiques.get(lieuId);
+        }
+    }
+}
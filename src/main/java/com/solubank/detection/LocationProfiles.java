@@ -0,0 +1,82 @@
+package com.solubank.detection;
+
+import com.solubank.util.LocationDictionary;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+
+public class LocationProfiles {
+
+    private static final int MAGIC = 0x534F5052;
+    private static final int VERSION = 1;
+    private static final int BITS_LIEU = Integer.numberOfTrailingZeros(LocationDictionary.MAX_LIEUX);
+
+    private LongCounter frequences = new LongCounter();
+    private LongCounter totaux = new LongCounter();
+
+    public synchronized void enregistrer(long clientId, int lieuId) {
+        if (lieuId == LocationDictionary.INCONNU) {
+            return;
+        }
+        frequences.incrementer(cle(clientId, lieuId));
+        totaux.incrementer(clientId);
+    }
+
+    public synchronized long frequence(long clientId, int lieuId) {
+        return lieuId == LocationDictionary.INCONNU ? 0 : frequences.valeur(cle(clientId, lieuId));
+    }
+
+    public synchronized long total(long clientId) {
+        return totaux.valeur(clientId);
+    }
+
+    public synchronized int nombreClients() {
+        return totaux.taille();
+    }
+
+    public void sauvegarder(Path fichier) throws IOException {
+        Path dossier = fichier.toAbsolutePath().getParent();
+        Files.createDirectories(dossier);
+        Path temporaire = Files.createTempFile(dossier, "profils", ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temporaire)))) {
+                synchronized (this) {
+                    out.writeInt(MAGIC);
+                    out.writeInt(VERSION);
+                    totaux.ecrire(out);
+                    frequences.ecrire(out);
+                }
+            }
+            Files.move(temporaire, fichier, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporaire);
+        }
+    }
+
+    public static LocationProfiles charger(Path fichier) throws IOException {
+        LocationProfiles profils = new LocationProfiles();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(fichier)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Format de profils de lieux inconnu: " + fichier);
+            }
+            profils.totaux = LongCounter.lire(in);
+            profils.frequences = LongCounter.lire(in);
+        } catch (NoSuchFileException e) {
+            // Premier démarrage: aucun profil
+        }
+        return profils;
+    }
+
+    private static long cle(long clientId, int lieuId) {
+        return (clientId << BITS_LIEU) | lieuId;
+    }
+}
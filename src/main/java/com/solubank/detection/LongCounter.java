@@ -0,0 +1,112 @@
+package com.solubank.detection;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+
+class LongCounter {
+
+    private static final long CLE_VIDE = Long.MIN_VALUE;
+    private static final int CAPACITE_INITIALE = 1024;
+
+    private long[] cles;
+    private long[] valeurs;
+    private int taille;
+
+    LongCounter() {
+        allouer(CAPACITE_INITIALE);
+    }
+
+    long incrementer(long cle) {
+        int masque = cles.length - 1;
+        int i = hachage(cle) & masque;
+        while (cles[i] != CLE_VIDE) {
+            if (cles[i] == cle) {
+                return ++valeurs[i];
+            }
+            i = (i + 1) & masque;
+        }
+        if ((taille + 1) * 4 > cles.length * 3) {
+            agrandir();
+            return incrementer(cle);
+        }
+        cles[i] = cle;
+        valeurs[i] = 1;
+        taille++;
+        return 1;
+    }
+
+    long valeur(long cle) {
+        int masque = cles.length - 1;
+        for (int i = hachage(cle) & masque; cles[i] != CLE_VIDE; i = (i + 1) & masque) {
+            if (cles[i] == cle) {
+                return valeurs[i];
+            }
+        }
+        return 0;
+    }
+
+    int taille() {
+        return taille;
+    }
+
+    void ecrire(DataOutputStream out) throws IOException {
+        out.writeInt(taille);
+        for (int i = 0; i < cles.length; i++) {
+            if (cles[i] != CLE_VIDE) {
+                out.writeLong(cles[i]);
+                out.writeLong(valeurs[i]);
+            }
+        }
+    }
+
+    static LongCounter lire(DataInputStream in) throws IOException {
+        LongCounter compteur = new LongCounter();
+        int nombre = in.readInt();
+        for (int n = 0; n < nombre; n++) {
+            compteur.placer(in.readLong(), in.readLong());
+        }
+        return compteur;
+    }
+
+    private void placer(long cle, long valeur) {
+        if ((taille + 1) * 4 > cles.length * 3) {
+            agrandir();
+        }
+        int masque = cles.length - 1;
+        int i = hachage(cle) & masque;
+        while (cles[i] != CLE_VIDE && cles[i] != cle) {
+            i = (i + 1) & masque;
+        }
+        if (cles[i] == CLE_VIDE) {
+            cles[i] = cle;
+            taille++;
+        }
+        valeurs[i] = valeur;
+    }
+
+    private void agrandir() {
+        long[] anciennesCles = cles;
+        long[] anciennesValeurs = valeurs;
+        allouer(anciennesCles.length * 2);
+        for (int j = 0; j < anciennesCles.length; j++) {
+            if (anciennesCles[j] != CLE_VIDE) {
+                placer(anciennesCles[j], anciennesValeurs[j]);
+            }
+        }
+    }
+
+    private void allouer(int capacite) {
+        cles = new long[capacite];
+        Arrays.fill(cles, CLE_VIDE);
+        valeurs = new long[capacite];
+        taille = 0;
+    }
+
+    private static int hachage(long cle) {
+        long h = cle * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,33 @@
+package com.solubank.detection;
+
+import com.solubank.entity.Montant;
+import com.solubank.entity.Transaction;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+
+
+public class MontantEleveRule implements AnomalyRule {
+    public static final String NOM = "MONTANT_ELEVE";
+
+    private final Montant seuil;
+
+    public MontantEleveRule(BigDecimal seuil) {
+        this.seuil = Montant.of(seuil);
+    }
+
+    @Override
+    public String nom() {
+        return NOM;
+    }
+
+    @Override
+    public String libelle() {
+        return String.format(Locale.ROOT, "TRANSACTIONS AVEC MONTANT ÉLEVÉ (> %,d DH)", seuil.centimes() / 100).replace(',', ' ');
+    }
+
+    @Override
+    public boolean estAnomalie(Transaction transaction) {
+        return Montant.centimes(transaction.montant()) > seuil.centimes();
+    }
+}
@@ -0,0 +1,9 @@
+package com.solubank.detection;
+
+
+public record RuleStatistics(String regle, String libelle, long alertes, long dureeNanos) {
+
+    public double dureeMillis() {
+        return dureeNanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,256 @@
+package com.solubank.detection;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+public class SlidingWindowDetector {
+
+    public static final String FREQUENCE_EXCESSIVE = "FREQUENCE_EXCESSIVE";
+    public static final String CUMUL_ELEVE = "CUMUL_ELEVE";
+
+    private static final long INTERVALLE_NETTOYAGE_MS = 60_000;
+    private static final int POURCENTAGE_SEUIL_BAS = 90;
+
+    private final int capacite;
+    private final long dureeFenetreMs;
+    private final int maxTransactions;
+    private final long seuilCumulCentimes;
+    private final long inactiviteMaxMs;
+    private final int maxComptes;
+    private final int seuilBas;
+
+    private final ConcurrentHashMap<Long, Fenetre> fenetres = new ConcurrentHashMap<>();
+    private final AtomicLong prochainNettoyage = new AtomicLong();
+    private final AtomicBoolean nettoyageEnCours = new AtomicBoolean();
+    private final Executor nettoyage;
+
+    public SlidingWindowDetector(int capacite, long dureeFenetreMs, int maxTransactions,
+                                 long seuilCumulCentimes, long inactiviteMaxMs, int maxComptes) {
+        this(capacite, dureeFenetreMs, maxTransactions, seuilCumulCentimes, inactiviteMaxMs, maxComptes,
+            Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "solubank-fenetres-nettoyage");
+                thread.setDaemon(true);
+                return thread;
+            }));
+    }
+
+    SlidingWindowDetector(int capacite, long dureeFenetreMs, int maxTransactions,
+                          long seuilCumulCentimes, long inactiviteMaxMs, int maxComptes, Executor nettoyage) {
+        if (capacite <= maxTransactions) {
+            throw new IllegalArgumentException("La capacité de la fenêtre doit dépasser le nombre maximal de transactions");
+        }
+        this.capacite = capacite;
+        this.dureeFenetreMs = dureeFenetreMs;
+        this.maxTransactions = maxTransactions;
+        this.seuilCumulCentimes = seuilCumulCentimes;
+        this.inactiviteMaxMs = inactiviteMaxMs;
+        this.maxComptes = maxComptes;
+        this.seuilBas = (int) ((long) maxComptes * POURCENTAGE_SEUIL_BAS / 100);
+        this.nettoyage = nettoyage;
+    }
+
+    // Évalue la transaction et la compte aussitôt comme en attente, sous le verrou du compte:
+    // deux écritures concurrentes sur un même compte se voient l'une l'autre
+    public Reservation reserver(long compteId, long horodatageMs, long montantCentimes) {
+        while (true) {
+            Fenetre fenetre = fenetres.computeIfAbsent(compteId, id -> new Fenetre(capacite));
+            synchronized (fenetre) {
+                if (fenetre.retiree) {
+                    continue;
+                }
+                List<String> alertes = evaluer(fenetre, horodatageMs, montantCentimes);
+                fenetre.enAttente++;
+                fenetre.cumulEnAttente += montantCentimes;
+                return new Reservation(compteId, fenetre, horodatageMs, montantCentimes, alertes);
+            }
+        }
+    }
+
+    public int nombreComptesSuivis() {
+        return fenetres.size();
+    }
+
+    private List<String> evaluer(Fenetre fenetre, long horodatageMs, long montantCentimes) {
+        long debut = horodatageMs - dureeFenetreMs;
+        int nombre = 1 + fenetre.enAttente;
+        long cumul = montantCentimes + fenetre.cumulEnAttente;
+        for (int i = 0; i < fenetre.taille; i++) {
+            int index = Math.floorMod(fenetre.tete - 1 - i, capacite);
+            if (fenetre.horodatages[index] < debut) {
+                break;
+            }
+            nombre++;
+            cumul += fenetre.montants[index];
+        }
+
+        boolean frequence = nombre > maxTransactions;
+        boolean cumulEleve = nombre > 1 && cumul > seuilCumulCentimes;
+        if (!frequence && !cumulEleve) {
+            return List.of();
+        }
+        if (frequence && cumulEleve) {
+            return List.of(FREQUENCE_EXCESSIVE, CUMUL_ELEVE);
+        }
+        return List.of(frequence ? FREQUENCE_EXCESSIVE : CUMUL_ELEVE);
+    }
+
+    private void planifierNettoyage(long maintenantMs) {
+        boolean echeance = maintenantMs >= prochainNettoyage.get();
+        if ((!echeance && fenetres.size() <= maxComptes) || !nettoyageEnCours.compareAndSet(false, true)) {
+            return;
+        }
+        prochainNettoyage.set(maintenantMs + INTERVALLE_NETTOYAGE_MS);
+        try {
+            nettoyage.execute(() -> {
+                try {
+                    nettoyer(maintenantMs);
+                } finally {
+                    nettoyageEnCours.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            nettoyageEnCours.set(false);
+        }
+    }
+
+    void nettoyer(long maintenantMs) {
+        long limite = maintenantMs - inactiviteMaxMs;
+        for (Map.Entry<Long, Fenetre> entry : fenetres.entrySet()) {
+            retirerSiInactive(entry.getKey(), entry.getValue(), limite);
+        }
+        if (fenetres.size() <= maxComptes) {
+            return;
+        }
+
+        // Activités copiées une fois: le tri ne relit jamais une valeur modifiée entre-temps
+        int nombre = 0;
+        long[] comptes = new long[fenetres.size()];
+        long[] activites = new long[comptes.length];
+        for (Map.Entry<Long, Fenetre> entry : fenetres.entrySet()) {
+            if (nombre == comptes.length) {
+                break;
+            }
+            comptes[nombre] = entry.getKey();
+            activites[nombre] = entry.getValue().derniereActivite;
+            nombre++;
+        }
+        int aRetirer = nombre - seuilBas;
+        if (aRetirer <= 0) {
+            return;
+        }
+        long[] triees = Arrays.copyOf(activites, nombre);
+        Arrays.sort(triees);
+        boolean[] examines = new boolean[nombre];
+        int rang = 0;
+        // Un compte réservé entre-temps est épargné: le seuil avance alors sur les suivants
+        while (aRetirer > 0 && rang < nombre) {
+            rang = Math.min(nombre, rang + aRetirer);
+            long seuil = triees[rang - 1];
+            for (int i = 0; i < nombre && aRetirer > 0; i++) {
+                if (examines[i] || activites[i] > seuil) {
+                    continue;
+                }
+                examines[i] = true;
+                Fenetre fenetre = fenetres.get(comptes[i]);
+                if (fenetre == null || retirerSiInactive(comptes[i], fenetre, activites[i] + 1)) {
+                    aRetirer--;
+                }
+            }
+        }
+    }
+
+    private boolean retirerSiInactive(long compteId, Fenetre fenetre, long limite) {
+        synchronized (fenetre) {
+            if (fenetre.enAttente > 0 || fenetre.derniereActivite >= limite) {
+                return false;
+            }
+            fenetre.retiree = true;
+            return fenetres.remove(compteId, fenetre);
+        }
+    }
+
+    public final class Reservation {
+        private final long compteId;
+        private final Fenetre fenetre;
+        private final long horodatageMs;
+        private final long montantCentimes;
+        private final List<String> alertes;
+        private boolean terminee;
+
+        private Reservation(long compteId, Fenetre fenetre, long horodatageMs, long montantCentimes, List<String> alertes) {
+            this.compteId = compteId;
+            this.fenetre = fenetre;
+            this.horodatageMs = horodatageMs;
+            this.montantCentimes = montantCentimes;
+            this.alertes = alertes;
+        }
+
+        public List<String> alertes() {
+            return alertes;
+        }
+
+        public void confirmer() {
+            synchronized (fenetre) {
+                if (!liberer()) {
+                    return;
+                }
+                fenetre.ajouter(horodatageMs, montantCentimes);
+            }
+            planifierNettoyage(horodatageMs);
+        }
+
+        // Sans effet une fois la réservation confirmée
+        public void annuler() {
+            synchronized (fenetre) {
+                if (liberer() && fenetre.taille == 0 && fenetre.enAttente == 0) {
+                    fenetre.retiree = true;
+                    fenetres.remove(compteId, fenetre);
+                }
+            }
+        }
+
+        private boolean liberer() {
+            if (terminee) {
+                return false;
+            }
+            terminee = true;
+            fenetre.enAttente--;
+            fenetre.cumulEnAttente -= montantCentimes;
+            return true;
+        }
+    }
+
+    private static final class Fenetre {
+        private final long[] horodatages;
+        private final long[] montants;
+        private int tete;
+        private int taille;
+        private int enAttente;
+        private long cumulEnAttente;
+        private boolean retiree;
+        private volatile long derniereActivite;
+
+        Fenetre(int capacite) {
+            this.horodatages = new long[capacite];
+            this.montants = new long[capacite];
+        }
+
+        void ajouter(long horodatageMs, long montantCentimes) {
+            horodatages[tete] = horodatageMs;
+            montants[tete] = montantCentimes;
+            tete = (tete + 1) % horodatages.length;
+            if (taille < horodatages.length) {
+                taille++;
+            }
+            derniereActivite = Math.max(derniereActivite, horodatageMs);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,36 @@
+package com.solubank.detection;
+
+import com.solubank.entity.Montant;
+import com.solubank.entity.Transaction;
+
+import java.util.Locale;
+
+
+public class ZScoreRule implements AnomalyRule {
+    private final AmountStatistics statistiques;
+    private final double k;
+    private final long effectifMin;
+
+    public ZScoreRule(AmountStatistics statistiques, double k, long effectifMin) {
+        this.statistiques = statistiques;
+        this.k = k;
+        this.effectifMin = effectifMin;
+    }
+
+    @Override
+    public String nom() {
+        return "MONTANT_ATYPIQUE";
+    }
+
+    @Override
+    public String libelle() {
+        return String.format(Locale.ROOT, "TRANSACTIONS AU MONTANT ATYPIQUE POUR LE COMPTE (> %.1f ÉCARTS-TYPES)", k);
+    }
+
+    @Override
+    public boolean estAnomalie(Transaction transaction) {
+        double score = statistiques.scoreZ(transaction.idCompte(), transaction.type(),
+                Montant.centimes(transaction.montant()) / 100.0, effectifMin);
+        return score > k;
+    }
+}
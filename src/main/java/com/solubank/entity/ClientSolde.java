@@ -0,0 +1,7 @@
+package com.solubank.entity;
+
+import java.math.BigDecimal;
+
+
+public record ClientSolde(Client client, BigDecimal soldeTotal, long nombreComptes) {
+}
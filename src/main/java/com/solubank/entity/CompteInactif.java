@@ -0,0 +1,12 @@
+package com.solubank.entity;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+
+public record CompteInactif(Compte compte, String nomClient, LocalDateTime derniereTransaction) {
+
+    public Optional<LocalDateTime> derniereActivite() {
+        return Optional.ofNullable(derniereTransaction);
+    }
+}
@@ -0,0 +1,52 @@
+package com.solubank.entity;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+
+public record Montant(long centimes) {
+
+    public static final int ECHELLE = 2;
+    public static final long MAX_CENTIMES = 999_999_999_999_999L;
+
+    public Montant {
+        verifierPlage(centimes);
+    }
+
+    public static Montant of(BigDecimal montant) {
+        return new Montant(centimes(montant));
+    }
+
+    public static long centimes(BigDecimal montant) {
+        try {
+            BigDecimal ajuste = montant.scale() == ECHELLE ? montant : montant.setScale(ECHELLE, RoundingMode.UNNECESSARY);
+            return verifierPlage(ajuste.movePointRight(ECHELLE).longValueExact());
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Montant non représentable en DECIMAL(15,2): " + montant.toPlainString());
+        }
+    }
+
+    public static long additionner(long a, long b) {
+        long somme = a + b;
+        if (((a ^ somme) & (b ^ somme)) < 0) {
+            throw new ArithmeticException("Dépassement de capacité lors de l'addition de montants");
+        }
+        return somme;
+    }
+
+    public static BigDecimal enBigDecimal(long centimes) {
+        return BigDecimal.valueOf(centimes, ECHELLE);
+    }
+
+    @Override
+    public String toString() {
+        return enBigDecimal(centimes).toPlainString();
+    }
+
+    private static long verifierPlage(long centimes) {
+        if (centimes > MAX_CENTIMES || centimes < -MAX_CENTIMES) {
+            throw new ArithmeticException("Montant hors de la plage DECIMAL(15,2): " + centimes + " centimes");
+        }
+        return centimes;
+    }
+}
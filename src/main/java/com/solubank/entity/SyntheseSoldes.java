@@ -0,0 +1,9 @@
+package com.solubank.entity;
+
+import java.math.BigDecimal;
+
+
+public record SyntheseSoldes(long nombreComptes, BigDecimal soldeMoyen,
+                             String numeroSoldeMaximum, BigDecimal soldeMaximum,
+                             String numeroSoldeMinimum, BigDecimal soldeMinimum) {
+}
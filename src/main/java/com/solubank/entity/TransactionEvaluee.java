@@ -0,0 +1,14 @@
+package com.solubank.entity;
+
+import java.util.List;
+
+
+public record TransactionEvaluee(Transaction transaction, List<String> alertes) {
+    public TransactionEvaluee {
+        alertes = List.copyOf(alertes);
+    }
+
+    public boolean estSuspecte() {
+        return !alertes.isEmpty();
+    }
+}
@@ -0,0 +1,14 @@
+package com.solubank.entity;
+
+import java.util.List;
+
+
+public record TransactionPage(List<Transaction> transactions, String nextToken) {
+    public TransactionPage {
+        transactions = List.copyOf(transactions);
+    }
+
+    public boolean hasNext() {
+        return nextToken != null;
+    }
+}
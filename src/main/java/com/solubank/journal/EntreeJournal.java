@@ -0,0 +1,6 @@
+package com.solubank.journal;
+
+import com.solubank.entity.Transaction;
+
+
+public record EntreeJournal(long sequence, Transaction transaction) {}
\ No newline at end of file
@@ -0,0 +1,613 @@
+package com.solubank.journal;
+
+import com.solubank.entity.Montant;
+import com.solubank.entity.Transaction;
+import com.solubank.entity.TypeTransaction;
+import com.solubank.util.ValidationUtil;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLDataException;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32C;
+
+
+public class TransactionJournal implements AutoCloseable {
+
+    public record Config(
+        int maxLot,
+        long attenteMaxMicros,
+        int lotApplication,
+        int capaciteAttente,
+        long tailleRotation,
+        long reessaiMaxMs
+    ) {
+        public Config {
+            if (maxLot <= 0 || lotApplication <= 0 || capaciteAttente < maxLot) {
+                throw new IllegalArgumentException("Taille de lot du journal invalide: écriture=" + maxLot
+                        + ", application=" + lotApplication + ", attente=" + capaciteAttente);
+            }
+            if (attenteMaxMicros < 0 || tailleRotation < 0 || reessaiMaxMs <= 0) {
+                throw new IllegalArgumentException("Délais du journal invalides");
+            }
+        }
+
+        public static Config defaults() {
+            return new Config(256, 2_000, 500, 65_536, 64L << 20, 5_000);
+        }
+    }
+
+    public record Statistics(
+        long ecrites,
+        long lotsEcrits,
+        long synchronisations,
+        long appliquees,
+        long rejetees,
+        long reessais,
+        int enAttenteEcriture,
+        int enAttenteApplication,
+        long derniereSequence,
+        long derniereAppliquee
+    ) {}
+
+    @FunctionalInterface
+    public interface Applicateur {
+        void appliquer(List<EntreeJournal> lot) throws SQLException;
+
+        default long derniereSequenceAppliquee() throws SQLException {
+            return 0;
+        }
+    }
+
+    private static final int TAILLE_ENTETE = Integer.BYTES + Long.BYTES + Integer.BYTES;
+    private static final int TAILLE_FIXE = Long.BYTES + Integer.BYTES + Long.BYTES + Byte.BYTES + Long.BYTES + Short.BYTES;
+    private static final int MAX_LIEU_OCTETS = Short.MAX_VALUE;
+    private static final long ATTENTE_SONDAGE_MS = 100;
+    private static final long REESSAI_INITIAL_MS = 10;
+    private static final TypeTransaction[] TYPES = TypeTransaction.values();
+
+    private final Path fichierRejets;
+    private final Config config;
+    private final Applicateur applicateur;
+    private final FileChannel canal;
+    private final BlockingQueue<Demande> demandes;
+    private final BlockingQueue<EntreeJournal> aAppliquer;
+    private final ConcurrentHashMap<Long, Long> derniereSequenceParCompte = new ConcurrentHashMap<>();
+    private final Object moniteurApplication = new Object();
+    private final Thread ecrivain;
+    private final Thread applicateurThread;
+    private final List<EntreeJournal> enReprise = new ArrayList<>();
+    private ByteBuffer tampon = ByteBuffer.allocateDirect(1 << 16);
+    private long prochaineSequence;
+    private volatile long derniereEcrite;
+    private volatile long derniereAppliquee;
+    private volatile boolean ouvert = true;
+
+    private final AtomicLong ecrites = new AtomicLong();
+    private final AtomicLong lotsEcrits = new AtomicLong();
+    private final AtomicLong synchronisations = new AtomicLong();
+    private final AtomicLong appliquees = new AtomicLong();
+    private final AtomicLong rejetees = new AtomicLong();
+    private final AtomicLong reessais = new AtomicLong();
+
+    private record Demande(Transaction transaction, CompletableFuture<Long> accuse) {}
+
+    private TransactionJournal(Path fichier, Config config, Applicateur applicateur, FileChannel canal, long derniereSequence) {
+        this.fichierRejets = fichier.resolveSibling(fichier.getFileName() + ".rejets");
+        this.config = config;
+        this.applicateur = applicateur;
+        this.canal = canal;
+        this.demandes = new LinkedBlockingQueue<>(config.capaciteAttente());
+        this.aAppliquer = new LinkedBlockingQueue<>(config.capaciteAttente());
+        this.prochaineSequence = derniereSequence + 1;
+        this.derniereEcrite = derniereSequence;
+        this.derniereAppliquee = derniereSequence;
+        this.ecrivain = new Thread(this::ecrire, "solubank-journal-ecriture");
+        this.applicateurThread = new Thread(this::appliquer, "solubank-journal-application");
+        ecrivain.setDaemon(true);
+        applicateurThread.setDaemon(true);
+    }
+
+    public static TransactionJournal ouvrir(Path fichier, Config config, Applicateur applicateur)
+            throws IOException, SQLException {
+        if (fichier.getParent() != null) {
+            Files.createDirectories(fichier.getParent());
+        }
+        FileChannel canal = FileChannel.open(fichier, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            List<EntreeJournal> entrees = new ArrayList<>();
+            long valide = relire(canal, entrees);
+            if (valide < canal.size()) {
+                System.err.printf("Journal %s tronqué à %d octets: enregistrement incomplet ou corrompu%n", fichier, valide);
+                canal.truncate(valide);
+                canal.force(true);
+            }
+
+            long dejaAppliquee = applicateur.derniereSequenceAppliquee();
+            long derniere = dejaAppliquee;
+            TransactionJournal journal = new TransactionJournal(fichier, config, applicateur, canal, dejaAppliquee);
+            List<EntreeJournal> lot = new ArrayList<>(config.lotApplication());
+            long rejouees = 0;
+            for (EntreeJournal entree : entrees) {
+                derniere = Math.max(derniere, entree.sequence());
+                if (entree.sequence() <= dejaAppliquee) {
+                    continue;
+                }
+                if (!journal.enReprise.isEmpty()) {
+                    journal.enReprise.add(entree);
+                    continue;
+                }
+                lot.add(entree);
+                if (lot.size() == config.lotApplication()) {
+                    rejouees += journal.rejouer(lot);
+                }
+            }
+            rejouees += journal.rejouer(lot);
+            if (rejouees > 0) {
+                System.out.printf("Journal rejoué: %d transactions appliquées%n", rejouees);
+            }
+
+            journal.prochaineSequence = derniere + 1;
+            journal.derniereEcrite = derniere;
+            if (journal.enReprise.isEmpty()) {
+                canal.truncate(0);
+                canal.force(true);
+                canal.position(0);
+                journal.derniereAppliquee = derniere;
+            } else {
+                // Base indisponible pendant la reprise: le reste est appliqué en tâche de fond et reste
+                // sur disque jusque-là; les nouvelles écritures s'ajoutent à la suite
+                System.err.printf("Journal: %d transactions seront rejouées dès que la base répondra%n",
+                        journal.enReprise.size());
+                canal.position(valide);
+                for (EntreeJournal entree : journal.enReprise) {
+                    journal.derniereSequenceParCompte.put(entree.transaction().idCompte(), entree.sequence());
+                }
+            }
+            journal.ecrivain.start();
+            journal.applicateurThread.start();
+            return journal;
+        } catch (IOException | SQLException | RuntimeException e) {
+            canal.close();
+            throw e;
+        }
+    }
+
+    public CompletableFuture<Long> journaliser(Transaction transaction) {
+        CompletableFuture<Long> accuse = new CompletableFuture<>();
+        if (!ouvert) {
+            accuse.completeExceptionally(new IllegalStateException("Le journal des transactions est fermé"));
+            return accuse;
+        }
+        // Vérifié avant l'accusé: une fois journalisée, la base ne doit plus pouvoir refuser la transaction
+        // pour une valeur hors colonne, sans quoi le rejeu bloquerait le journal
+        if (!ValidationUtil.isValidLieu(transaction.lieu())) {
+            accuse.completeExceptionally(new IllegalArgumentException(
+                    "Lieu trop long (maximum " + ValidationUtil.LONGUEUR_LIEU_MAX + " caractères)"));
+            return accuse;
+        }
+        try {
+            Montant.centimes(transaction.montant());
+        } catch (IllegalArgumentException e) {
+            accuse.completeExceptionally(e);
+            return accuse;
+        }
+        try {
+            demandes.put(new Demande(transaction, accuse));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            accuse.completeExceptionally(e);
+        }
+        return accuse;
+    }
+
+    public boolean attendreCompte(long compteId, long delaiMs) throws InterruptedException {
+        Long sequence = derniereSequenceParCompte.get(compteId);
+        return sequence == null || attendreAppliquee(sequence, delaiMs);
+    }
+
+    public boolean attendreAppliquee(long sequence, long delaiMs) throws InterruptedException {
+        long echeance = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delaiMs);
+        synchronized (moniteurApplication) {
+            while (derniereAppliquee < sequence) {
+                long reste = TimeUnit.NANOSECONDS.toMillis(echeance - System.nanoTime());
+                if (reste <= 0) {
+                    return false;
+                }
+                moniteurApplication.wait(reste);
+            }
+        }
+        return true;
+    }
+
+    public Statistics getStatistics() {
+        return new Statistics(
+            ecrites.get(),
+            lotsEcrits.get(),
+            synchronisations.get(),
+            appliquees.get(),
+            rejetees.get(),
+            reessais.get(),
+            demandes.size(),
+            aAppliquer.size(),
+            derniereEcrite,
+            derniereAppliquee
+        );
+    }
+
+    public void fermer(long delaiMs) {
+        ouvert = false;
+        long echeance = System.currentTimeMillis() + delaiMs;
+        try {
+            ecrivain.join(Math.max(1, echeance - System.currentTimeMillis()));
+            applicateurThread.join(Math.max(1, echeance - System.currentTimeMillis()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (applicateurThread.isAlive()) {
+            System.err.printf("Journal fermé avec %d transactions non appliquées: elles seront rejouées au prochain démarrage%n",
+                    derniereEcrite - derniereAppliquee);
+            ecrivain.interrupt();
+            applicateurThread.interrupt();
+        }
+        try {
+            canal.close();
+        } catch (IOException e) {
+            System.err.println("Erreur lors de la fermeture du journal: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        fermer(30_000);
+    }
+
+    private void ecrire() {
+        List<Demande> lot = new ArrayList<>(config.maxLot());
+        try {
+            while (ouvert || !demandes.isEmpty()) {
+                Demande premiere = demandes.poll(ATTENTE_SONDAGE_MS, TimeUnit.MILLISECONDS);
+                if (premiere == null) {
+                    pivoterSiPossible();
+                    continue;
+                }
+                lot.add(premiere);
+                long echeance = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(config.attenteMaxMicros());
+                while (lot.size() < config.maxLot()) {
+                    demandes.drainTo(lot, config.maxLot() - lot.size());
+                    long reste = echeance - System.nanoTime();
+                    if (lot.size() >= config.maxLot() || reste <= 0) {
+                        break;
+                    }
+                    Demande suivante = demandes.poll(reste, TimeUnit.NANOSECONDS);
+                    if (suivante == null) {
+                        break;
+                    }
+                    lot.add(suivante);
+                }
+                ecrireLot(lot);
+                lot.clear();
+            }
+        } catch (InterruptedException e) {
+            demandes.drainTo(lot);
+            lot.forEach(demande -> demande.accuse().completeExceptionally(e));
+        }
+    }
+
+    private void ecrireLot(List<Demande> lot) throws InterruptedException {
+        long debutLot = prochaineSequence;
+        List<EntreeJournal> entrees = new ArrayList<>(lot.size());
+        long position = -1;
+        try {
+            position = canal.position();
+            tampon.clear();
+            for (Demande demande : lot) {
+                EntreeJournal entree = new EntreeJournal(prochaineSequence++, demande.transaction());
+                encoder(entree);
+                entrees.add(entree);
+            }
+            tampon.flip();
+            while (tampon.hasRemaining()) {
+                canal.write(tampon);
+            }
+            canal.force(false);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Erreur lors de l'écriture du journal: " + e.getMessage());
+            prochaineSequence = debutLot;
+            annulerEcriture(position);
+            lot.forEach(demande -> demande.accuse().completeExceptionally(e));
+            return;
+        }
+
+        ecrites.addAndGet(entrees.size());
+        lotsEcrits.incrementAndGet();
+        synchronisations.incrementAndGet();
+        for (EntreeJournal entree : entrees) {
+            derniereSequenceParCompte.put(entree.transaction().idCompte(), entree.sequence());
+        }
+        derniereEcrite = prochaineSequence - 1;
+        for (int i = 0; i < lot.size(); i++) {
+            lot.get(i).accuse().complete(entrees.get(i).sequence());
+        }
+        for (EntreeJournal entree : entrees) {
+            aAppliquer.put(entree);
+        }
+    }
+
+    private void annulerEcriture(long position) {
+        if (position < 0) {
+            return;
+        }
+        try {
+            canal.truncate(position);
+            canal.position(position);
+        } catch (IOException e) {
+            System.err.println("Erreur lors de l'annulation d'une écriture du journal: " + e.getMessage());
+        }
+    }
+
+    private void pivoterSiPossible() {
+        try {
+            if (derniereAppliquee == derniereEcrite && canal.size() > config.tailleRotation()) {
+                canal.truncate(0);
+                canal.force(true);
+                canal.position(0);
+            }
+        } catch (IOException e) {
+            System.err.println("Erreur lors de la rotation du journal: " + e.getMessage());
+        }
+    }
+
+    private void appliquer() {
+        List<EntreeJournal> lot = new ArrayList<>(config.lotApplication());
+        try {
+            if (!enReprise.isEmpty()) {
+                reprendre(lot);
+            }
+            while (ecrivain.isAlive() || !aAppliquer.isEmpty()) {
+                EntreeJournal premiere = aAppliquer.poll(ATTENTE_SONDAGE_MS, TimeUnit.MILLISECONDS);
+                if (premiere == null) {
+                    continue;
+                }
+                lot.add(premiere);
+                aAppliquer.drainTo(lot, config.lotApplication() - 1);
+                appliquerAvecReprise(lot);
+                lot.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void reprendre(List<EntreeJournal> lot) throws InterruptedException {
+        try {
+            // Un rejeu interrompu a pu appliquer une partie du lot: ne pas les rejouer comme des doublons
+            long dejaAppliquee = applicateur.derniereSequenceAppliquee();
+            List<EntreeJournal> faites = new ArrayList<>();
+            enReprise.removeIf(entree -> entree.sequence() <= dejaAppliquee && faites.add(entree));
+            if (!faites.isEmpty()) {
+                marquerAppliquees(faites, dejaAppliquee);
+            }
+        } catch (SQLException e) {
+            // Base toujours indisponible: appliquerAvecReprise réessaiera
+        }
+        for (int debut = 0; debut < enReprise.size(); debut += config.lotApplication()) {
+            lot.addAll(enReprise.subList(debut, Math.min(debut + config.lotApplication(), enReprise.size())));
+            appliquerAvecReprise(lot);
+            lot.clear();
+        }
+        enReprise.clear();
+    }
+
+    private void appliquerAvecReprise(List<EntreeJournal> lot) throws InterruptedException {
+        long derniere = lot.get(lot.size() - 1).sequence();
+        long attente = REESSAI_INITIAL_MS;
+        while (!lot.isEmpty()) {
+            try {
+                appliquerOuRejeter(lot);
+                break;
+            } catch (SQLException e) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedException("Application du journal interrompue");
+                }
+                reessais.incrementAndGet();
+                System.err.println("Erreur lors de l'application du journal, nouvel essai dans " + attente + " ms: " + e.getMessage());
+                Thread.sleep(attente);
+                attente = Math.min(attente * 2, config.reessaiMaxMs());
+                try {
+                    long dejaAppliquee = applicateur.derniereSequenceAppliquee();
+                    lot.removeIf(entree -> entree.sequence() <= dejaAppliquee);
+                } catch (SQLException ignored) {
+                    // La base reste indisponible: le lot entier sera retenté
+                }
+            }
+        }
+        marquerAppliquees(lot, derniere);
+    }
+
+    private long rejouer(List<EntreeJournal> lot) {
+        long appliqueesAvant = appliquees.get();
+        if (!lot.isEmpty()) {
+            try {
+                appliquerOuRejeter(lot);
+                marquerAppliquees(lot, lot.get(lot.size() - 1).sequence());
+            } catch (SQLException e) {
+                System.err.println("Erreur lors du rejeu du journal, reprise en tâche de fond: " + e.getMessage());
+                enReprise.addAll(lot);
+            }
+            lot.clear();
+        }
+        return appliquees.get() - appliqueesAvant;
+    }
+
+    private void appliquerOuRejeter(List<EntreeJournal> lot) throws SQLException {
+        try {
+            applicateur.appliquer(lot);
+            appliquees.addAndGet(lot.size());
+        } catch (SQLException e) {
+            if (!estRefusDefinitif(e)) {
+                throw e;
+            }
+            for (EntreeJournal entree : lot) {
+                try {
+                    applicateur.appliquer(List.of(entree));
+                    appliquees.incrementAndGet();
+                } catch (SQLException refus) {
+                    if (!estRefusDefinitif(refus)) {
+                        throw refus;
+                    }
+                    rejeter(entree, refus);
+                }
+            }
+        }
+    }
+
+    private void marquerAppliquees(List<EntreeJournal> lot, long derniere) {
+        for (EntreeJournal entree : lot) {
+            derniereSequenceParCompte.remove(entree.transaction().idCompte(), entree.sequence());
+        }
+        synchronized (moniteurApplication) {
+            derniereAppliquee = Math.max(derniereAppliquee, derniere);
+            moniteurApplication.notifyAll();
+        }
+    }
+
+    private void rejeter(EntreeJournal entree, SQLException cause) {
+        rejetees.incrementAndGet();
+        Transaction t = entree.transaction();
+        String ligne = entree.sequence() + ";" + t.date() + ";" + t.montant().toPlainString() + ";" + t.type()
+                + ";" + (t.lieu() == null ? "" : t.lieu()) + ";" + t.idCompte() + ";" + cause.getMessage()
+                + System.lineSeparator();
+        System.err.println("Transaction du journal rejetée (séquence " + entree.sequence() + "): " + cause.getMessage());
+        try {
+            Files.writeString(fichierRejets, ligne, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            System.err.println("Erreur lors de l'écriture du fichier de rejets " + fichierRejets + ": " + e.getMessage());
+        }
+    }
+
+    private static boolean estRefusDefinitif(SQLException e) {
+        // Classe 23 (intégrité) ou 22 (donnée hors colonne): réessayer donnerait le même refus
+        String etat = e.getSQLState();
+        return e instanceof SQLIntegrityConstraintViolationException || e instanceof SQLDataException
+                || (etat != null && (etat.startsWith("23") || etat.startsWith("22")));
+    }
+
+    private void encoder(EntreeJournal entree) {
+        Transaction t = entree.transaction();
+        byte[] lieu = t.lieu() == null ? null : t.lieu().getBytes(StandardCharsets.UTF_8);
+        if (lieu != null && lieu.length > MAX_LIEU_OCTETS) {
+            throw new IllegalArgumentException("Lieu trop long pour le journal: " + lieu.length + " octets");
+        }
+        int longueur = TAILLE_FIXE + (lieu == null ? 0 : lieu.length);
+        if (tampon.remaining() < TAILLE_ENTETE + longueur) {
+            ByteBuffer agrandi = ByteBuffer.allocateDirect(Math.max(tampon.capacity() * 2, tampon.position() + TAILLE_ENTETE + longueur));
+            tampon.flip();
+            agrandi.put(tampon);
+            tampon = agrandi;
+        }
+
+        int debut = tampon.position();
+        tampon.putInt(longueur);
+        tampon.putLong(entree.sequence());
+        tampon.putInt(0);
+        int debutContenu = tampon.position();
+        tampon.putLong(t.date().toEpochSecond(ZoneOffset.UTC));
+        tampon.putInt(t.date().getNano());
+        tampon.putLong(Montant.centimes(t.montant()));
+        tampon.put((byte) t.type().ordinal());
+        tampon.putLong(t.idCompte());
+        tampon.putShort((short) (lieu == null ? -1 : lieu.length));
+        if (lieu != null) {
+            tampon.put(lieu);
+        }
+        tampon.putInt(debut + Integer.BYTES + Long.BYTES, crc(tampon, debut + Integer.BYTES, debutContenu, tampon.position()));
+    }
+
+    private static int crc(ByteBuffer source, int debutSequence, int debutContenu, int fin) {
+        CRC32C crc = new CRC32C();
+        crc.update(source.duplicate().position(debutSequence).limit(debutSequence + Long.BYTES));
+        crc.update(source.duplicate().position(debutContenu).limit(fin));
+        return (int) crc.getValue();
+    }
+
+    private static long relire(FileChannel canal, List<EntreeJournal> entrees) throws IOException {
+        long taille = canal.size();
+        ByteBuffer entete = ByteBuffer.allocate(TAILLE_ENTETE);
+        long position = 0;
+        while (position + TAILLE_ENTETE <= taille) {
+            entete.clear();
+            lireComplet(canal, entete, position);
+            int longueur = entete.getInt(0);
+            if (longueur < TAILLE_FIXE || longueur > TAILLE_FIXE + MAX_LIEU_OCTETS
+                    || position + TAILLE_ENTETE + longueur > taille) {
+                break;
+            }
+            ByteBuffer enregistrement = ByteBuffer.allocate(TAILLE_ENTETE + longueur);
+            lireComplet(canal, enregistrement, position);
+            if (crc(enregistrement, Integer.BYTES, TAILLE_ENTETE, enregistrement.capacity()) != enregistrement.getInt(Integer.BYTES + Long.BYTES)) {
+                break;
+            }
+            EntreeJournal entree = decoder(enregistrement);
+            if (entree == null) {
+                break;
+            }
+            entrees.add(entree);
+            position += TAILLE_ENTETE + longueur;
+        }
+        return position;
+    }
+
+    private static void lireComplet(FileChannel canal, ByteBuffer tampon, long position) throws IOException {
+        while (tampon.hasRemaining()) {
+            if (canal.read(tampon, position + tampon.position()) < 0) {
+                throw new IOException("Fin de journal inattendue à la position " + position);
+            }
+        }
+    }
+
+    private static EntreeJournal decoder(ByteBuffer enregistrement) {
+        enregistrement.position(Integer.BYTES);
+        long sequence = enregistrement.getLong();
+        enregistrement.getInt();
+        LocalDateTime date = LocalDateTime.ofEpochSecond(enregistrement.getLong(), enregistrement.getInt(), ZoneOffset.UTC);
+        long centimes = enregistrement.getLong();
+        int type = enregistrement.get();
+        long compteId = enregistrement.getLong();
+        short longueurLieu = enregistrement.getShort();
+        if (type < 0 || type >= TYPES.length || longueurLieu < -1 || Math.max(longueurLieu, 0) != enregistrement.remaining()) {
+            return null;
+        }
+        String lieu = null;
+        if (longueurLieu >= 0) {
+            byte[] octets = new byte[longueurLieu];
+            enregistrement.get(octets);
+            lieu = new String(octets, StandardCharsets.UTF_8);
+        }
+        try {
+            return new EntreeJournal(sequence, new Transaction(null, date, Montant.enBigDecimal(centimes),
+                    TYPES[type], lieu, compteId));
+        } catch (IllegalArgumentException | DateTimeException e) {
+            return null;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,120 @@
+package com.solubank.service;
+
+import com.solubank.entity.Client;
+import com.solubank.entity.Compte;
+import com.solubank.entity.TransactionEvaluee;
+import com.solubank.entity.TransactionPage;
+import com.solubank.entity.TypeTransaction;
+import com.solubank.util.AsyncExecutor;
+import com.solubank.util.DatabaseConnection;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+
+public class AsyncService {
+    public static final long DELAI_PAR_DEFAUT_MS = 30_000;
+
+    private final ClientService clientService;
+    private final CompteService compteService;
+    private final TransactionService transactionService;
+    private final RapportService rapportService;
+    private final AsyncExecutor executeur;
+    private final IngestionDispatcher ingestion;
+    private final long delaiParDefautMs;
+
+    public AsyncService() {
+        this(DatabaseConnection.getDataSource(), AsyncExecutor.partage(), IngestionDispatcher.partage(),
+             DELAI_PAR_DEFAUT_MS);
+    }
+
+    public AsyncService(DataSource dataSource, AsyncExecutor executeur, IngestionDispatcher ingestion,
+                        long delaiParDefautMs) {
+        this(new ClientService(dataSource), new CompteService(dataSource), new TransactionService(dataSource),
+             new RapportService(dataSource, executeur), executeur, ingestion, delaiParDefautMs);
+    }
+
+    public AsyncService(ClientService clientService, CompteService compteService,
+                        TransactionService transactionService, RapportService rapportService,
+                        AsyncExecutor executeur, IngestionDispatcher ingestion, long delaiParDefautMs) {
+        this.clientService = clientService;
+        this.compteService = compteService;
+        this.transactionService = transactionService;
+        this.rapportService = rapportService;
+        this.executeur = executeur;
+        this.ingestion = ingestion;
+        this.delaiParDefautMs = delaiParDefautMs;
+    }
+
+    public <T> CompletableFuture<T> clients(Function<ClientService, T> operation) {
+        return clients(operation, delaiParDefautMs);
+    }
+
+    public <T> CompletableFuture<T> clients(Function<ClientService, T> operation, long delaiMs) {
+        return executeur.soumettre(() -> operation.apply(clientService), delaiMs);
+    }
+
+    public <T> CompletableFuture<T> comptes(Function<CompteService, T> operation) {
+        return comptes(operation, delaiParDefautMs);
+    }
+
+    public <T> CompletableFuture<T> comptes(Function<CompteService, T> operation, long delaiMs) {
+        return executeur.soumettre(() -> operation.apply(compteService), delaiMs);
+    }
+
+    public <T> CompletableFuture<T> transactions(Function<TransactionService, T> operation) {
+        return transactions(operation, delaiParDefautMs);
+    }
+
+    public <T> CompletableFuture<T> transactions(Function<TransactionService, T> operation, long delaiMs) {
+        return executeur.soumettre(() -> operation.apply(transactionService), delaiMs);
+    }
+
+    public <T> CompletableFuture<T> rapports(Function<RapportService, T> operation) {
+        return rapports(operation, delaiParDefautMs);
+    }
+
+    public <T> CompletableFuture<T> rapports(Function<RapportService, T> operation, long delaiMs) {
+        // Un rapport peut lui-même répartir ses requêtes sur l'exécuteur: il ne consomme pas de permis
+        return executeur.coordonner(() -> operation.apply(rapportService), delaiMs);
+    }
+
+    public CompletableFuture<Optional<Client>> rechercherClient(Long id) {
+        return clients(service -> service.rechercherParId(id));
+    }
+
+    public CompletableFuture<Optional<Compte>> rechercherCompte(Long id) {
+        return comptes(service -> service.rechercherParId(id));
+    }
+
+    public CompletableFuture<List<Compte>> listerComptesClient(Long clientId) {
+        return comptes(service -> service.rechercherParClient(clientId));
+    }
+
+    public CompletableFuture<TransactionEvaluee> enregistrerTransaction(
+            BigDecimal montant, TypeTransaction type, String lieu, Long compteId) {
+        // Passe par la voie du compte: ordre FIFO par compte, comptes différents en parallèle.
+        // Pas d'orTimeout: l'écriture continuerait et un client relançant la requête la doublerait
+        return ingestion.soumettre(montant, type, lieu, compteId, delaiParDefautMs);
+    }
+
+    public CompletableFuture<TransactionPage> consulterPageCompte(Long compteId, String curseur, int taillePage) {
+        return transactions(service -> service.consulterPageCompte(compteId, curseur, taillePage));
+    }
+
+    public CompletableFuture<String> genererRapportStatistique() {
+        return rapports(RapportService::genererRapportStatistique);
+    }
+
+    public AsyncExecutor.Statistics getStatistics() {
+        return executeur.getStatistics();
+    }
+
+    public List<IngestionDispatcher.StatistiquesVoie> getStatistiquesIngestion() {
+        return ingestion.getStatistics();
+    }
+}
\ No newline at end of file
@@ -3,8 +3,10 @@ package com.solubank.service;
 import com.solubank.dao.ClientDAO;
 import com.solubank.dao.CompteDAO;
 import com.solubank.entity.Client;
-import com.solubank.entity.Compte;
+import com.solubank.entity.ClientSolde;
+import com.solubank.util.DatabaseConnection;
 
+import javax.sql.DataSource;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
@@ -15,8 +17,12 @@ public class ClientService {
     private final CompteDAO compteDAO;
     
     public ClientService() {
-        this.clientDAO = new ClientDAO();
-        this.compteDAO = new CompteDAO();
+        this(DatabaseConnection.getDataSource());
+    }
+    
+    public ClientService(DataSource dataSource) {
+        this.clientDAO = new ClientDAO(dataSource);
+        this.compteDAO = new CompteDAO(dataSource);
     }
     
     public Optional<Client> ajouterClient(String nom, String email) {
@@ -40,8 +46,7 @@ public class ClientService {
     }
     
     public boolean supprimerClient(Long id) {
-        List<Compte> comptes = compteDAO.findByClientId(id);
-        if (!comptes.isEmpty()) {
+        if (compteDAO.existsByClientId(id)) {
             System.err.println("Impossible de supprimer le client. Il a encore des comptes associés.");
             return false;
         }
@@ -60,17 +65,23 @@ public class ClientService {
         return clientDAO.findAll();
     }
     
+    public long compterClients() {
+        return clientDAO.count();
+    }
+    
     
     public BigDecimal calculerSoldeTotal(Long clientId) {
-        return compteDAO.findByClientId(clientId)
-                .stream()
-                .map(Compte::getSolde)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return compteDAO.sumSoldeByClientId(clientId);
     }
     
     
     public long compterComptes(Long clientId) {
-        return compteDAO.findByClientId(clientId).size();
+        return compteDAO.countByClientId(clientId);
+    }
+    
+    
+    public List<ClientSolde> listerTopClientsParSolde(int limite) {
+        return compteDAO.findTopClientsBySolde(limite);
     }
     
     
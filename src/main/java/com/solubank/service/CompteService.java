@@ -5,9 +5,13 @@ import com.solubank.dao.TransactionDAO;
 import com.solubank.entity.Compte;
 import com.solubank.entity.CompteCourant;
 import com.solubank.entity.CompteEpargne;
+import com.solubank.entity.CompteInactif;
+import com.solubank.entity.SyntheseSoldes;
+import com.solubank.util.DatabaseConnection;
 
+import javax.sql.DataSource;
 import java.math.BigDecimal;
-import java.util.Comparator;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -18,8 +22,12 @@ public class CompteService {
     private final TransactionDAO transactionDAO;
     
     public CompteService() {
-        this.compteDAO = new CompteDAO();
-        this.transactionDAO = new TransactionDAO();
+        this(DatabaseConnection.getDataSource());
+    }
+    
+    public CompteService(DataSource dataSource) {
+        this.compteDAO = new CompteDAO(dataSource);
+        this.transactionDAO = new TransactionDAO(dataSource);
     }
     
     public Optional<Compte> creerCompteCourant(Long clientId, BigDecimal soldeInitial, BigDecimal decouvertAutorise) {
@@ -72,6 +80,10 @@ public class CompteService {
         return compteDAO.findAll();
     }
     
+    public List<CompteInactif> listerComptesInactifs(LocalDateTime seuil) {
+        return compteDAO.findInactiveSince(seuil);
+    }
+    
     public Optional<Compte> trouverCompteAvecSoldeMaximum() {
         return compteDAO.findCompteWithMaxSolde();
     }
@@ -82,30 +94,21 @@ public class CompteService {
     
     
     public List<Compte> trouverTopComptes(int limite) {
-        return compteDAO.findAll()
-                .stream()
-                .sorted(Comparator.comparing(Compte::getSolde).reversed())
-                .limit(limite)
-                .toList();
+        return compteDAO.findTopBySolde(limite);
     }
     
     
     public BigDecimal calculerSoldeMoyen() {
-        List<Compte> comptes = compteDAO.findAll();
-        if (comptes.isEmpty()) {
-            return BigDecimal.ZERO;
-        }
-        
-        BigDecimal somme = comptes.stream()
-                .map(Compte::getSolde)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        return somme.divide(BigDecimal.valueOf(comptes.size()), 2, BigDecimal.ROUND_HALF_UP);
+        return compteDAO.averageSolde();
+    }
+    
+    public SyntheseSoldes syntheseSoldes() {
+        return compteDAO.summarizeSoldes();
     }
     
     
     public boolean peutEffectuerRetrait(Long compteId, BigDecimal montant) {
-        Optional<Compte> compteOpt = compteDAO.findById(compteId);
+        Optional<Compte> compteOpt = compteDAO.findByIdUncached(compteId);
         if (compteOpt.isEmpty()) {
             return false;
         }
@@ -122,8 +125,7 @@ public class CompteService {
     }
     
     public boolean supprimerCompte(Long compteId) {
-        var transactions = transactionDAO.findByCompteId(compteId);
-        if (!transactions.isEmpty()) {
+        if (transactionDAO.existsByCompteId(compteId)) {
             System.err.println("Impossible de supprimer le compte. Il y a encore des transactions associées.");
             return false;
         }
@@ -0,0 +1,423 @@
+package com.solubank.service;
+
+import com.solubank.dao.TransactionDAO;
+import com.solubank.entity.Montant;
+import com.solubank.entity.Transaction;
+import com.solubank.entity.TypeTransaction;
+import com.solubank.util.DatabaseConnection;
+
+import javax.sql.DataSource;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+
+public class ExportService {
+
+    public enum Format { CSV, BINAIRE }
+
+    public record Criteres(LocalDateTime dateDebut, LocalDateTime dateFin, Long compteId, Long clientId) {
+        public static Criteres tout() {
+            return new Criteres(null, null, null, null);
+        }
+    }
+
+    public record Resultat(long lignes, long octets, long dureeMs) {}
+
+    private static final byte[] MAGIE = { 'S', 'B', 'T', 'X' };
+    private static final int VERSION = 1;
+    private static final int MAX_LIEUX = 1 << 20;
+    private static final int TAILLE_TAMPON = 1 << 16;
+    // Colonne id et dates ISO: ce CSV n'est pas relisible par ImportService (date;montant;type;lieu;id_compte en jj/MM/aaaa HH:mm)
+    private static final byte[] ENTETE_CSV = "id;date;montant;type;lieu;id_compte\n".getBytes(StandardCharsets.US_ASCII);
+    private static final TypeTransaction[] TYPES = TypeTransaction.values();
+    private static final byte[][] NOMS_TYPES = new byte[TYPES.length][];
+
+    static {
+        for (TypeTransaction type : TYPES) {
+            NOMS_TYPES[type.ordinal()] = type.name().getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    private final TransactionDAO transactionDAO;
+
+    public ExportService() {
+        this(DatabaseConnection.getDataSource());
+    }
+
+    public ExportService(DataSource dataSource) {
+        this.transactionDAO = new TransactionDAO(dataSource);
+    }
+
+    public Resultat exporter(WritableByteChannel canal, Format format, boolean compresse, Criteres criteres) throws IOException {
+        try (Stream<Transaction> transactions = transactionDAO.streamByCriteria(
+                criteres.dateDebut(), criteres.dateFin(), criteres.compteId(), criteres.clientId())) {
+            return exporter(canal, format, compresse, transactions.iterator(), MAX_LIEUX);
+        }
+    }
+
+    static Resultat exporter(WritableByteChannel canal, Format format, boolean compresse,
+                             Iterator<Transaction> transactions, int maxLieux) throws IOException {
+        long debut = System.nanoTime();
+        Comptage comptage = new Comptage(canal);
+        GZIPOutputStream gzip = compresse ? new GZIPOutputStream(Channels.newOutputStream(comptage), TAILLE_TAMPON) {
+            {
+                def.setLevel(Deflater.BEST_SPEED);
+            }
+        } : null;
+        Sortie sortie = new Sortie(gzip == null ? comptage : Channels.newChannel(gzip));
+        Encodeur encodeur = format == Format.CSV ? new EncodeurCsv(sortie, maxLieux) : new EncodeurBinaire(sortie, maxLieux);
+
+        long lignes = 0;
+        try {
+            encodeur.debuter();
+            while (transactions.hasNext()) {
+                encodeur.ecrire(transactions.next());
+                lignes++;
+            }
+            encodeur.terminer(lignes);
+            sortie.vider();
+        } finally {
+            // Libère le Deflater natif même si l'export échoue; le canal reste à l'appelant
+            if (gzip != null) {
+                gzip.close();
+            }
+        }
+        return new Resultat(lignes, comptage.octets, Math.max(1, (System.nanoTime() - debut) / 1_000_000));
+    }
+
+    public static long lireBinaire(InputStream entree, Consumer<Transaction> consommateur) throws IOException {
+        return lireBinaire(entree, consommateur, MAX_LIEUX);
+    }
+
+    static long lireBinaire(InputStream entree, Consumer<Transaction> consommateur, int maxLieux) throws IOException {
+        InputStream tamponnee = new BufferedInputStream(entree, TAILLE_TAMPON);
+        tamponnee.mark(2);
+        boolean compresse = tamponnee.read() == 0x1f && tamponnee.read() == 0x8b;
+        tamponnee.reset();
+        DataInputStream donnees = new DataInputStream(compresse ? new GZIPInputStream(tamponnee, TAILLE_TAMPON) : tamponnee);
+
+        byte[] magie = new byte[MAGIE.length];
+        donnees.readFully(magie);
+        int version = donnees.readUnsignedByte();
+        if (!Arrays.equals(magie, MAGIE) || version != VERSION) {
+            throw new IOException("Format d'export binaire inconnu");
+        }
+
+        List<String> lieux = new ArrayList<>();
+        long id = 0;
+        long epoch = 0;
+        long lues = 0;
+        while (true) {
+            long deltaId = dezigzag(lireVarint(donnees));
+            if (deltaId == 0) {
+                break;
+            }
+            id += deltaId;
+            epoch += dezigzag(lireVarint(donnees));
+            long centimes = lireVarint(donnees);
+            int type = donnees.readUnsignedByte();
+            long compteId = lireVarint(donnees);
+            int code = (int) lireVarint(donnees);
+            String lieu = null;
+            if (code == lieux.size() + 1) {
+                byte[] octets = new byte[(int) lireVarint(donnees)];
+                donnees.readFully(octets);
+                lieu = new String(octets, StandardCharsets.UTF_8);
+                if (lieux.size() < maxLieux) {
+                    lieux.add(lieu);
+                }
+            } else if (code > 0) {
+                lieu = lieux.get(code - 1);
+            }
+            if (type >= TYPES.length) {
+                throw new IOException("Type de transaction invalide dans l'export: " + type);
+            }
+            consommateur.accept(new Transaction(id, LocalDateTime.ofEpochSecond(epoch, 0, ZoneOffset.UTC),
+                    Montant.enBigDecimal(centimes), TYPES[type], lieu, compteId));
+            lues++;
+        }
+        long attendues = lireVarint(donnees);
+        if (attendues != lues) {
+            throw new IOException("Export binaire incomplet: " + lues + " transactions lues sur " + attendues);
+        }
+        return lues;
+    }
+
+    private static long lireVarint(DataInputStream entree) throws IOException {
+        long valeur = 0;
+        for (int decalage = 0; decalage < 64; decalage += 7) {
+            int octet = entree.read();
+            if (octet < 0) {
+                throw new EOFException("Export binaire tronqué");
+            }
+            valeur |= (long) (octet & 0x7F) << decalage;
+            if ((octet & 0x80) == 0) {
+                return valeur;
+            }
+        }
+        throw new IOException("Entier variable trop long dans l'export binaire");
+    }
+
+    static long zigzag(long valeur) {
+        return (valeur << 1) ^ (valeur >> 63);
+    }
+
+    static long dezigzag(long valeur) {
+        return (valeur >>> 1) ^ -(valeur & 1);
+    }
+
+    private interface Encodeur {
+        void debuter() throws IOException;
+
+        void ecrire(Transaction transaction) throws IOException;
+
+        void terminer(long lignes) throws IOException;
+    }
+
+    private static final class EncodeurCsv implements Encodeur {
+        private final Sortie sortie;
+        private final Map<String, byte[]> lieux = new HashMap<>();
+        private final int maxLieux;
+
+        EncodeurCsv(Sortie sortie, int maxLieux) {
+            this.sortie = sortie;
+            this.maxLieux = maxLieux;
+        }
+
+        @Override
+        public void debuter() throws IOException {
+            sortie.octets(ENTETE_CSV);
+        }
+
+        @Override
+        public void ecrire(Transaction transaction) throws IOException {
+            LocalDateTime date = transaction.date();
+            sortie.entier(transaction.id());
+            sortie.octet(';');
+            sortie.chiffres(date.getYear(), 4);
+            sortie.octet('-');
+            sortie.chiffres(date.getMonthValue(), 2);
+            sortie.octet('-');
+            sortie.chiffres(date.getDayOfMonth(), 2);
+            sortie.octet(' ');
+            sortie.chiffres(date.getHour(), 2);
+            sortie.octet(':');
+            sortie.chiffres(date.getMinute(), 2);
+            sortie.octet(':');
+            sortie.chiffres(date.getSecond(), 2);
+            sortie.octet(';');
+            long centimes = Montant.centimes(transaction.montant());
+            sortie.entier(centimes / 100);
+            sortie.octet('.');
+            sortie.chiffres(centimes % 100, 2);
+            sortie.octet(';');
+            sortie.octets(NOMS_TYPES[transaction.type().ordinal()]);
+            sortie.octet(';');
+            if (transaction.lieu() != null) {
+                sortie.octets(lieu(transaction.lieu()));
+            }
+            sortie.octet(';');
+            sortie.entier(transaction.idCompte());
+            sortie.octet('\n');
+        }
+
+        @Override
+        public void terminer(long lignes) {
+            // Le CSV n'a pas de pied de fichier
+        }
+
+        private byte[] lieu(String lieu) {
+            byte[] octets = lieux.get(lieu);
+            if (octets == null) {
+                boolean echapper = lieu.indexOf(';') >= 0 || lieu.indexOf('"') >= 0
+                        || lieu.indexOf('\n') >= 0 || lieu.indexOf('\r') >= 0;
+                String texte = echapper ? '"' + lieu.replace("\"", "\"\"") + '"' : lieu;
+                octets = texte.getBytes(StandardCharsets.UTF_8);
+                if (lieux.size() < maxLieux) {
+                    lieux.put(lieu, octets);
+                }
+            }
+            return octets;
+        }
+    }
+
+    private static final class EncodeurBinaire implements Encodeur {
+        private final Sortie sortie;
+        private final Map<String, Integer> lieux = new HashMap<>();
+        private final int maxLieux;
+        private long idPrecedent;
+        private long epochPrecedent;
+
+        EncodeurBinaire(Sortie sortie, int maxLieux) {
+            this.sortie = sortie;
+            this.maxLieux = maxLieux;
+        }
+
+        @Override
+        public void debuter() throws IOException {
+            sortie.octets(MAGIE);
+            sortie.octet(VERSION);
+        }
+
+        @Override
+        public void ecrire(Transaction transaction) throws IOException {
+            long epoch = transaction.date().toEpochSecond(ZoneOffset.UTC);
+            sortie.varint(zigzag(transaction.id() - idPrecedent));
+            sortie.varint(zigzag(epoch - epochPrecedent));
+            sortie.varint(Montant.centimes(transaction.montant()));
+            sortie.octet(transaction.type().ordinal());
+            sortie.varint(transaction.idCompte());
+            idPrecedent = transaction.id();
+            epochPrecedent = epoch;
+
+            String lieu = transaction.lieu();
+            if (lieu == null) {
+                sortie.varint(0);
+                return;
+            }
+            Integer code = lieux.get(lieu);
+            if (code != null) {
+                sortie.varint(code);
+                return;
+            }
+            byte[] octets = lieu.getBytes(StandardCharsets.UTF_8);
+            sortie.varint(lieux.size() + 1);
+            sortie.varint(octets.length);
+            sortie.octets(octets);
+            if (lieux.size() < maxLieux) {
+                lieux.put(lieu, lieux.size() + 1);
+            }
+        }
+
+        @Override
+        public void terminer(long lignes) throws IOException {
+            sortie.varint(0);
+            sortie.varint(lignes);
+        }
+    }
+
+    private static final class Sortie {
+        private final WritableByteChannel canal;
+        private final ByteBuffer tampon = ByteBuffer.allocate(TAILLE_TAMPON);
+        private final byte[] chiffres = new byte[20];
+
+        Sortie(WritableByteChannel canal) {
+            this.canal = canal;
+        }
+
+        void octet(int valeur) throws IOException {
+            if (!tampon.hasRemaining()) {
+                vider();
+            }
+            tampon.put((byte) valeur);
+        }
+
+        void octets(byte[] valeurs) throws IOException {
+            if (tampon.remaining() < valeurs.length) {
+                vider();
+                if (valeurs.length > tampon.capacity()) {
+                    ecrireTout(ByteBuffer.wrap(valeurs));
+                    return;
+                }
+            }
+            tampon.put(valeurs);
+        }
+
+        void entier(long valeur) throws IOException {
+            if (valeur < 0) {
+                octet('-');
+                valeur = -valeur;
+            }
+            int position = chiffres.length;
+            do {
+                chiffres[--position] = (byte) ('0' + valeur % 10);
+                valeur /= 10;
+            } while (valeur > 0);
+            if (tampon.remaining() < chiffres.length - position) {
+                vider();
+            }
+            tampon.put(chiffres, position, chiffres.length - position);
+        }
+
+        void chiffres(long valeur, int largeur) throws IOException {
+            if (tampon.remaining() < largeur) {
+                vider();
+            }
+            int fin = tampon.position() + largeur;
+            for (int i = fin - 1; i >= tampon.position(); i--) {
+                tampon.put(i, (byte) ('0' + valeur % 10));
+                valeur /= 10;
+            }
+            tampon.position(fin);
+        }
+
+        void varint(long valeur) throws IOException {
+            if (tampon.remaining() < 10) {
+                vider();
+            }
+            while ((valeur & ~0x7FL) != 0) {
+                tampon.put((byte) ((valeur & 0x7F) | 0x80));
+                valeur >>>= 7;
+            }
+            tampon.put((byte) valeur);
+        }
+
+        void vider() throws IOException {
+            tampon.flip();
+            ecrireTout(tampon);
+            tampon.clear();
+        }
+
+        private void ecrireTout(ByteBuffer source) throws IOException {
+            while (source.hasRemaining()) {
+                canal.write(source);
+            }
+        }
+    }
+
+    private static final class Comptage implements WritableByteChannel {
+        private final WritableByteChannel canal;
+        private long octets;
+
+        Comptage(WritableByteChannel canal) {
+            this.canal = canal;
+        }
+
+        @Override
+        public int write(ByteBuffer source) throws IOException {
+            int ecrits = canal.write(source);
+            octets += ecrits;
+            return ecrits;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return canal.isOpen();
+        }
+
+        @Override
+        public void close() {
+            // Le canal appartient à l'appelant: fermer le flux gzip ne doit pas le fermer
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,447 @@
+package com.solubank.service;
+
+import com.solubank.dao.CompteDAO;
+import com.solubank.dao.TransactionDAO;
+import com.solubank.entity.Montant;
+import com.solubank.entity.Transaction;
+import com.solubank.entity.TypeTransaction;
+import com.solubank.util.ConnectionPool;
+import com.solubank.util.DatabaseConnection;
+import com.solubank.util.DateUtil;
+import com.solubank.util.LocationDictionary;
+import com.solubank.util.ValidationUtil;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+
+public class ImportService {
+
+    public record Config(char separateur, int tailleMorceau, int paralleles, int ecrivains, int tailleLot) {
+        public Config {
+            if (tailleMorceau < MAX_LIGNE || paralleles <= 0 || ecrivains <= 0 || tailleLot <= 0) {
+                throw new IllegalArgumentException("Configuration d'import invalide");
+            }
+        }
+
+        public static Config defaults() {
+            return new Config(';', 8 << 20, Runtime.getRuntime().availableProcessors(), 4, 1000);
+        }
+    }
+
+    public record Progression(long octetsLus, long octetsTotal, long lignesLues, long enregistrees,
+                              long rejetees, double lignesParSeconde) {}
+
+    public record Resultat(long lignes, long enregistrees, long rejetees, long dureeMs,
+                           double lignesParSeconde, Path fichierRejets) {}
+
+    private static final int MAX_LIGNE = 64 * 1024;
+    private static final int NOMBRE_COLONNES = 5;
+    private static final TypeTransaction[] TYPES = TypeTransaction.values();
+    private static final Lot FIN = new Lot(List.of(), new long[0]);
+
+    private final DataSource dataSource;
+    private final CompteDAO compteDAO;
+    private final Consumer<Transaction> apresEnregistrement;
+    private final Config config;
+
+    private record Morceau(int index, long debut, long fin) {}
+
+    private record Lot(List<Transaction> transactions, long[] lignes) {}
+
+    private record Rejet(long ligne, String raison, String contenu) {}
+
+    private record ResultatMorceau(List<Lot> lots, List<Rejet> rejets, long lignes, long octets) {}
+
+    public ImportService() {
+        this(DatabaseConnection.getDataSource(), transaction -> {});
+    }
+
+    public ImportService(DataSource dataSource, Consumer<Transaction> apresEnregistrement) {
+        this(dataSource, apresEnregistrement, Config.defaults());
+    }
+
+    public ImportService(DataSource dataSource, Consumer<Transaction> apresEnregistrement, Config config) {
+        this.dataSource = dataSource;
+        this.compteDAO = new CompteDAO(dataSource);
+        this.apresEnregistrement = apresEnregistrement;
+        this.config = config;
+    }
+
+    public Resultat importer(Path fichier, Consumer<Progression> suivi) throws IOException {
+        long debut = System.nanoTime();
+        Path fichierRejets = fichier.resolveSibling(fichier.getFileName() + ".rejets");
+        Files.deleteIfExists(fichierRejets);
+        Set<Long> comptes = compteDAO.findClientIdsAfterId(0).keySet();
+
+        List<Morceau> morceaux;
+        long taille;
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ)) {
+            taille = canal.size();
+            morceaux = decouper(canal, taille);
+        }
+
+        AtomicLong enregistrees = new AtomicLong();
+        AtomicLong rejetees = new AtomicLong();
+        long lignes = 0;
+        long octets = 0;
+        int ecrivains = nombreEcrivains();
+        BlockingQueue<Lot> aEcrire = new ArrayBlockingQueue<>(ecrivains * 4);
+        AtomicInteger threadsAnalyse = new AtomicInteger();
+        ExecutorService analyse = Executors.newFixedThreadPool(config.paralleles(), r -> {
+            Thread thread = new Thread(r, "solubank-import-analyse-" + threadsAnalyse.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<Thread> threadsEcriture = new ArrayList<>(ecrivains);
+
+        try (FichierRejets rejets = new FichierRejets(fichierRejets)) {
+            for (int i = 0; i < ecrivains; i++) {
+                Thread thread = new Thread(() -> ecrire(aEcrire, rejets, enregistrees, rejetees), "solubank-import-ecriture-" + (i + 1));
+                thread.setDaemon(true);
+                thread.start();
+                threadsEcriture.add(thread);
+            }
+
+            try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ)) {
+                Deque<Future<ResultatMorceau>> enCours = new ArrayDeque<>();
+                int suivant = 0;
+                while (suivant < morceaux.size() || !enCours.isEmpty()) {
+                    while (suivant < morceaux.size() && enCours.size() < config.paralleles() * 2) {
+                        Morceau morceau = morceaux.get(suivant++);
+                        enCours.addLast(analyse.submit(() -> analyser(canal, morceau, comptes)));
+                    }
+                    ResultatMorceau resultat = enCours.removeFirst().get();
+                    for (Rejet rejet : resultat.rejets()) {
+                        rejets.ecrire(lignes + rejet.ligne(), rejet.raison(), rejet.contenu());
+                    }
+                    rejetees.addAndGet(resultat.rejets().size());
+                    for (Lot lot : resultat.lots()) {
+                        decaler(lot.lignes(), lignes);
+                        aEcrire.put(lot);
+                    }
+                    lignes += resultat.lignes();
+                    octets += resultat.octets();
+                    double secondes = (System.nanoTime() - debut) / 1e9;
+                    suivi.accept(new Progression(octets, taille, lignes, enregistrees.get(), rejetees.get(),
+                            enregistrees.get() / Math.max(secondes, 1e-3)));
+                }
+            } catch (ExecutionException e) {
+                throw new IOException("Erreur lors de l'analyse du fichier " + fichier + ": " + e.getCause().getMessage(), e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Import interrompu", e);
+            } finally {
+                analyse.shutdownNow();
+                arreter(threadsEcriture, aEcrire);
+            }
+        }
+
+        long dureeMs = Math.max(1, (System.nanoTime() - debut) / 1_000_000);
+        return new Resultat(lignes, enregistrees.get(), rejetees.get(), dureeMs,
+                enregistrees.get() * 1000.0 / dureeMs, rejetees.get() > 0 ? fichierRejets : null);
+    }
+
+    private static void arreter(List<Thread> threadsEcriture, BlockingQueue<Lot> aEcrire) {
+        try {
+            // Un marqueur par écrivain, quel qu'il soit: n'importe lequel peut prendre le marqueur d'un autre
+            for (int i = 0; i < threadsEcriture.size(); i++) {
+                while (!aEcrire.offer(FIN, 100, TimeUnit.MILLISECONDS)) {
+                    if (threadsEcriture.stream().noneMatch(Thread::isAlive)) {
+                        return;
+                    }
+                }
+            }
+            for (Thread thread : threadsEcriture) {
+                thread.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            threadsEcriture.forEach(Thread::interrupt);
+        }
+    }
+
+    private int nombreEcrivains() {
+        if (dataSource instanceof ConnectionPool pool) {
+            return Math.max(1, Math.min(config.ecrivains(), pool.getMaxSize() - 2));
+        }
+        return config.ecrivains();
+    }
+
+    private List<Morceau> decouper(FileChannel canal, long taille) throws IOException {
+        List<Morceau> morceaux = new ArrayList<>();
+        ByteBuffer recherche = ByteBuffer.allocate(MAX_LIGNE);
+        long debut = 0;
+        while (debut < taille) {
+            long fin = Math.min(taille, debut + config.tailleMorceau());
+            if (fin < taille) {
+                recherche.clear();
+                canal.read(recherche, fin);
+                int saut = indexDe(recherche.array(), 0, recherche.position(), (byte) '\n');
+                if (saut < 0) {
+                    throw new IOException("Ligne de plus de " + MAX_LIGNE + " octets à la position " + fin);
+                }
+                fin += saut + 1;
+            }
+            morceaux.add(new Morceau(morceaux.size(), debut, fin));
+            debut = fin;
+        }
+        return morceaux;
+    }
+
+    private ResultatMorceau analyser(FileChannel canal, Morceau morceau, Set<Long> comptes) throws IOException {
+        int taille = (int) (morceau.fin() - morceau.debut());
+        byte[] octets = new byte[taille];
+        ByteBuffer tampon = ByteBuffer.wrap(octets);
+        while (tampon.hasRemaining()) {
+            if (canal.read(tampon, morceau.debut() + tampon.position()) < 0) {
+                throw new IOException("Fin de fichier inattendue à la position " + (morceau.debut() + tampon.position()));
+            }
+        }
+
+        LocationDictionary dictionnaire = LocationDictionary.partage();
+        Champ champ = new Champ(octets);
+        Ligne lue = new Ligne();
+        int[] bornes = new int[NOMBRE_COLONNES * 2];
+        List<Lot> lots = new ArrayList<>();
+        List<Rejet> rejets = new ArrayList<>();
+        List<Transaction> transactions = new ArrayList<>(config.tailleLot());
+        long[] lignes = new long[config.tailleLot()];
+        long ligne = 0;
+        int position = 0;
+        while (position < taille) {
+            int finLigne = indexDe(octets, position, taille, (byte) '\n');
+            int suivante = finLigne < 0 ? taille : finLigne + 1;
+            int fin = finLigne < 0 ? taille : finLigne;
+            if (fin > position && octets[fin - 1] == '\r') {
+                fin--;
+            }
+            ligne++;
+            if (fin > position) {
+                String raison = lireLigne(octets, position, fin, bornes, champ, comptes, lue);
+                if (raison == null) {
+                    String lieu = lue.lieu == null ? null : dictionnaire.canonique(lue.lieu);
+                    transactions.add(new Transaction(null, lue.date, Montant.enBigDecimal(lue.centimes),
+                            TYPES[lue.type], lieu, lue.compteId));
+                    lignes[transactions.size() - 1] = ligne;
+                    if (transactions.size() == config.tailleLot()) {
+                        lots.add(new Lot(transactions, lignes));
+                        transactions = new ArrayList<>(config.tailleLot());
+                        lignes = new long[config.tailleLot()];
+                    }
+                } else if (!(morceau.index() == 0 && ligne == 1 && estEntete(octets, position, fin))) {
+                    rejets.add(new Rejet(ligne, raison, new String(octets, position, fin - position, StandardCharsets.UTF_8)));
+                }
+            }
+            position = suivante;
+        }
+        if (!transactions.isEmpty()) {
+            lots.add(new Lot(transactions, Arrays.copyOf(lignes, transactions.size())));
+        }
+        return new ResultatMorceau(lots, rejets, ligne, taille);
+    }
+
+    private String lireLigne(byte[] octets, int debut, int fin, int[] bornes, Champ champ, Set<Long> comptes, Ligne lue) {
+        int colonne = 0;
+        int debutChamp = debut;
+        for (int i = debut; i <= fin; i++) {
+            if (i == fin || octets[i] == config.separateur()) {
+                if (colonne == NOMBRE_COLONNES) {
+                    return "nombre de colonnes invalide";
+                }
+                bornes[colonne * 2] = debutChamp;
+                bornes[colonne * 2 + 1] = i;
+                colonne++;
+                debutChamp = i + 1;
+            }
+        }
+        if (colonne != NOMBRE_COLONNES) {
+            return "nombre de colonnes invalide";
+        }
+        lue.date = DateUtil.lireDateTime(champ.sur(bornes[0], bornes[1]));
+        if (lue.date == null) {
+            return "date invalide (attendu jj/MM/aaaa HH:mm)";
+        }
+        lue.centimes = ValidationUtil.lireMontantCentimes(champ.sur(bornes[2], bornes[3]));
+        if (lue.centimes < 0) {
+            return "montant invalide";
+        }
+        lue.type = type(champ.sur(bornes[4], bornes[5]));
+        if (lue.type < 0) {
+            return "type invalide";
+        }
+        // Limite en caractères comme la colonne VARCHAR: un lieu accentué occupe plus d'octets que de caractères
+        lue.lieu = bornes[7] > bornes[6] ? new String(octets, bornes[6], bornes[7] - bornes[6], StandardCharsets.UTF_8) : null;
+        if (!ValidationUtil.isValidLieu(lue.lieu)) {
+            return "lieu trop long";
+        }
+        lue.compteId = ValidationUtil.lireId(champ.sur(bornes[8], bornes[9]));
+        if (lue.compteId < 0) {
+            return "ID compte invalide";
+        }
+        if (!comptes.contains(lue.compteId)) {
+            return "compte inexistant";
+        }
+        return null;
+    }
+
+    private void ecrire(BlockingQueue<Lot> aEcrire, FichierRejets rejets, AtomicLong enregistrees, AtomicLong rejetees) {
+        TransactionDAO transactionDAO = new TransactionDAO(dataSource);
+        try {
+            while (true) {
+                Lot lot = aEcrire.take();
+                if (lot == FIN) {
+                    return;
+                }
+                try {
+                    List<Transaction> sauvees = transactionDAO.saveHistorical(lot.transactions());
+                    sauvees.forEach(apresEnregistrement);
+                    enregistrees.addAndGet(sauvees.size());
+                } catch (SQLException e) {
+                    // Le lot est annulé d'un bloc: chaque ligne porte la cause renvoyée par la base
+                    String raison = "échec de l'insertion en base: "
+                        + String.valueOf(e.getMessage()).replace(';', ',').replaceAll("\\R", " ");
+                    for (int i = 0; i < lot.transactions().size(); i++) {
+                        rejets.ecrire(lot.lignes()[i], raison, lot.transactions().get(i).toString());
+                        rejetees.incrementAndGet();
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static int type(CharSequence texte) {
+        for (int i = 0; i < TYPES.length; i++) {
+            String nom = TYPES[i].name();
+            if (nom.length() == texte.length() && nom.contentEquals(texte)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean estEntete(byte[] octets, int debut, int fin) {
+        return fin - debut >= 4 && new String(octets, debut, 4, StandardCharsets.US_ASCII).equalsIgnoreCase("date");
+    }
+
+    private static void decaler(long[] lignes, long decalage) {
+        for (int i = 0; i < lignes.length; i++) {
+            lignes[i] += decalage;
+        }
+    }
+
+    private static int indexDe(byte[] octets, int debut, int fin, byte cible) {
+        for (int i = debut; i < fin; i++) {
+            if (octets[i] == cible) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static final class Ligne {
+        private LocalDateTime date;
+        private long centimes;
+        private int type;
+        private String lieu;
+        private long compteId;
+    }
+
+    private static final class Champ implements CharSequence {
+        private final byte[] octets;
+        private int debut;
+        private int fin;
+
+        Champ(byte[] octets) {
+            this.octets = octets;
+        }
+
+        Champ sur(int debut, int fin) {
+            this.debut = debut;
+            this.fin = fin;
+            return this;
+        }
+
+        @Override
+        public int length() {
+            return fin - debut;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (octets[debut + index] & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new String(octets, debut + start, end - start, StandardCharsets.ISO_8859_1);
+        }
+
+        @Override
+        public String toString() {
+            return new String(octets, debut, fin - debut, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static final class FichierRejets implements AutoCloseable {
+        private final Path fichier;
+        private BufferedWriter sortie;
+
+        FichierRejets(Path fichier) {
+            this.fichier = fichier;
+        }
+
+        synchronized void ecrire(long ligne, String raison, String contenu) {
+            try {
+                if (sortie == null) {
+                    sortie = Files.newBufferedWriter(fichier, StandardCharsets.UTF_8);
+                    sortie.write("ligne;raison;contenu");
+                    sortie.newLine();
+                }
+                sortie.write(Long.toString(ligne));
+                sortie.write(';');
+                sortie.write(raison);
+                sortie.write(';');
+                sortie.write(contenu);
+                sortie.newLine();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            if (sortie != null) {
+                sortie.close();
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,292 @@
+package com.solubank.service;
+
+import com.solubank.entity.TransactionEvaluee;
+import com.solubank.entity.TypeTransaction;
+import com.solubank.util.AsyncExecutor;
+import com.solubank.util.DatabaseConnection;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+
+public class IngestionDispatcher implements AutoCloseable {
+
+    public record Config(int voies, int capaciteVoie, long delaiSoumissionMs) {
+        public Config {
+            if (voies <= 0 || capaciteVoie <= 0) {
+                throw new IllegalArgumentException("Le nombre de voies et leur capacité doivent être positifs");
+            }
+            if (delaiSoumissionMs < 0) {
+                throw new IllegalArgumentException("Délai de soumission invalide: " + delaiSoumissionMs);
+            }
+        }
+
+        public static Config defaults() {
+            return new Config(Runtime.getRuntime().availableProcessors() * 2, 1024, 5_000);
+        }
+    }
+
+    public record StatistiquesVoie(
+        int voie,
+        int profondeur,
+        int capacite,
+        long traitees,
+        long refusees,
+        long expirees,
+        long echecs,
+        double attenteMoyenneMs,
+        double traitementMoyenMs,
+        double latenceMaxMs
+    ) {}
+
+    private record Demande(
+        BigDecimal montant,
+        TypeTransaction type,
+        String lieu,
+        Long compteId,
+        CompletableFuture<TransactionEvaluee> resultat,
+        long soumiseNanos,
+        long echeanceNanos
+    ) {}
+
+    @FunctionalInterface
+    interface Ecriture {
+        TransactionEvaluee enregistrer(BigDecimal montant, TypeTransaction type, String lieu, Long compteId);
+    }
+
+    private static final long ATTENTE_POLL_MS = 100;
+
+    private static IngestionDispatcher partage;
+
+    private final Ecriture ecriture;
+    private final AsyncExecutor executeur;
+    private final Config config;
+    private final Voie[] voies;
+    private volatile boolean ferme;
+
+    public IngestionDispatcher(TransactionService transactionService, Config config) {
+        this(transactionService, config, null);
+    }
+
+    public IngestionDispatcher(TransactionService transactionService, Config config, AsyncExecutor executeur) {
+        this(transactionService::enregistrerOuRefuser, config, executeur);
+    }
+
+    IngestionDispatcher(Ecriture ecriture, Config config, AsyncExecutor executeur) {
+        this.ecriture = ecriture;
+        this.executeur = executeur;
+        this.config = config;
+        this.voies = new Voie[config.voies()];
+        for (int i = 0; i < voies.length; i++) {
+            voies[i] = new Voie(i, config.capaciteVoie());
+            voies[i].worker.start();
+        }
+    }
+
+    public static synchronized IngestionDispatcher partage() {
+        if (partage == null) {
+            DataSource dataSource = DatabaseConnection.getDataSource();
+            AsyncExecutor executeur = AsyncExecutor.partage();
+            Config defaut = Config.defaults();
+            // Les voies écrivent sous les permis de l'exécuteur partagé: lectures et écritures tiennent dans le même budget
+            int voies = Math.min(defaut.voies(), executeur.getConcurrenceMax());
+            partage = new IngestionDispatcher(new TransactionService(dataSource),
+                new Config(voies, defaut.capaciteVoie(), defaut.delaiSoumissionMs()), executeur);
+        }
+        return partage;
+    }
+
+    public static synchronized void fermerPartage() {
+        if (partage != null) {
+            partage.close();
+            partage = null;
+        }
+    }
+
+    public CompletableFuture<TransactionEvaluee> soumettre(BigDecimal montant, TypeTransaction type,
+                                                                    String lieu, Long compteId) {
+        return soumettre(montant, type, lieu, compteId, 0);
+    }
+
+    public CompletableFuture<TransactionEvaluee> soumettre(BigDecimal montant, TypeTransaction type,
+                                                                    String lieu, Long compteId, long delaiMs) {
+        CompletableFuture<TransactionEvaluee> resultat = new CompletableFuture<>();
+        if (compteId == null) {
+            resultat.completeExceptionally(new IllegalArgumentException("L'ID du compte est obligatoire"));
+            return resultat;
+        }
+        Voie voie = voies[voie(compteId)];
+        if (ferme) {
+            resultat.completeExceptionally(new RejectedExecutionException("Le répartiteur d'ingestion est arrêté"));
+            return resultat;
+        }
+        long soumise = System.nanoTime();
+        // Le délai ne borne que l'attente: une écriture commencée va toujours à son terme
+        Demande demande = new Demande(montant, type, lieu, compteId, resultat, soumise,
+            delaiMs > 0 ? soumise + TimeUnit.MILLISECONDS.toNanos(delaiMs) : 0);
+        try {
+            // Pleine, la voie fait attendre l'appelant: la pression remonte jusqu'aux producteurs
+            if (!voie.file.offer(demande, config.delaiSoumissionMs(), TimeUnit.MILLISECONDS)) {
+                voie.refusees.increment();
+                resultat.completeExceptionally(new RejectedExecutionException(
+                    "Voie d'ingestion " + voie.numero + " saturée (" + config.capaciteVoie() + " en attente)"));
+            } else if (ferme && voie.file.remove(demande)) {
+                resultat.completeExceptionally(new RejectedExecutionException("Le répartiteur d'ingestion est arrêté"));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            resultat.completeExceptionally(new CancellationException("Soumission interrompue"));
+        }
+        return resultat;
+    }
+
+    public int voie(long compteId) {
+        // Mélange de Fibonacci: des identifiants consécutifs se répartissent sur toutes les voies
+        return (int) Math.floorMod((compteId * 0x9E3779B97F4A7C15L) >>> 32, (long) voies.length);
+    }
+
+    public List<StatistiquesVoie> getStatistics() {
+        List<StatistiquesVoie> statistiques = new ArrayList<>(voies.length);
+        for (Voie voie : voies) {
+            statistiques.add(voie.statistiques());
+        }
+        return statistiques;
+    }
+
+    public boolean fermer(long delaiMs) {
+        ferme = true;
+        long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delaiMs);
+        boolean vide = true;
+        for (Voie voie : voies) {
+            try {
+                voie.worker.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(limite - System.nanoTime())));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (voie.worker.isAlive()) {
+                vide = false;
+                voie.worker.interrupt();
+            }
+            Demande restante;
+            while ((restante = voie.file.poll()) != null) {
+                restante.resultat().completeExceptionally(new CancellationException("Répartiteur arrêté"));
+            }
+        }
+        return vide;
+    }
+
+    @Override
+    public void close() {
+        fermer(30_000);
+    }
+
+    private final class Voie {
+        private final int numero;
+        private final BlockingQueue<Demande> file;
+        private final Thread worker;
+        private final LongAdder traitees = new LongAdder();
+        private final LongAdder refusees = new LongAdder();
+        private final LongAdder expirees = new LongAdder();
+        private final LongAdder echecs = new LongAdder();
+        private final LongAdder attenteNanos = new LongAdder();
+        private final LongAdder traitementNanos = new LongAdder();
+        private final AtomicLong latenceMaxNanos = new AtomicLong();
+
+        private Voie(int numero, int capacite) {
+            this.numero = numero;
+            this.file = new ArrayBlockingQueue<>(capacite);
+            this.worker = new Thread(this::executer, "solubank-ingestion-" + numero);
+            this.worker.setDaemon(true);
+        }
+
+        private void executer() {
+            while (!Thread.currentThread().isInterrupted()) {
+                Demande demande;
+                try {
+                    demande = file.poll(ATTENTE_POLL_MS, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (demande == null) {
+                    if (ferme) {
+                        return;
+                    }
+                    continue;
+                }
+                traiter(demande);
+            }
+        }
+
+        private void traiter(Demande demande) {
+            // Annulée pendant l'attente: on ne l'exécute pas
+            if (demande.resultat().isDone()) {
+                return;
+            }
+            long debut = System.nanoTime();
+            TransactionEvaluee resultat = null;
+            Exception erreur = null;
+            try {
+                resultat = executeur == null ? ecrire(demande) : executeur.executerAvecPermis(() -> ecrire(demande));
+            } catch (TimeoutException e) {
+                expirees.increment();
+                demande.resultat().completeExceptionally(e);
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                demande.resultat().completeExceptionally(new CancellationException("Répartiteur arrêté"));
+                return;
+            } catch (Exception e) {
+                erreur = e;
+            }
+            if (erreur != null) {
+                echecs.increment();
+            }
+            attenteNanos.add(debut - demande.soumiseNanos());
+            long fin = System.nanoTime();
+            traitementNanos.add(fin - debut);
+            traitees.increment();
+            latenceMaxNanos.accumulateAndGet(fin - demande.soumiseNanos(), Math::max);
+            if (erreur != null) {
+                demande.resultat().completeExceptionally(erreur);
+            } else {
+                demande.resultat().complete(resultat);
+            }
+        }
+
+        private TransactionEvaluee ecrire(Demande demande) throws TimeoutException {
+            // Contrôlé une fois le permis obtenu: au-delà, la demande n'est plus abandonnée
+            if (demande.echeanceNanos() != 0 && System.nanoTime() - demande.echeanceNanos() > 0) {
+                throw new TimeoutException("Délai dépassé avant l'écriture: transaction non enregistrée");
+            }
+            return ecriture.enregistrer(
+                demande.montant(), demande.type(), demande.lieu(), demande.compteId());
+        }
+
+        private StatistiquesVoie statistiques() {
+            long nombre = traitees.sum();
+            return new StatistiquesVoie(
+                numero,
+                file.size(),
+                config.capaciteVoie(),
+                nombre,
+                refusees.sum(),
+                expirees.sum(),
+                echecs.sum(),
+                nombre == 0 ? 0 : attenteNanos.sum() / 1_000_000.0 / nombre,
+                nombre == 0 ? 0 : traitementNanos.sum() / 1_000_000.0 / nombre,
+                latenceMaxNanos.get() / 1_000_000.0
+            );
+        }
+    }
+}
\ No newline at end of file
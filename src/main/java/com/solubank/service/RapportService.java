@@ -1,55 +1,77 @@
 package com.solubank.service;
 
+import com.solubank.analytics.Agregat;
+import com.solubank.analytics.LigneTransaction;
+import com.solubank.detection.AnomalyReport;
+import com.solubank.detection.MontantEleveRule;
+import com.solubank.detection.RuleStatistics;
 import com.solubank.entity.Client;
+import com.solubank.entity.ClientSolde;
 import com.solubank.entity.Compte;
+import com.solubank.entity.SyntheseSoldes;
+import com.solubank.entity.CompteInactif;
 import com.solubank.entity.Transaction;
 import com.solubank.entity.TypeTransaction;
+import com.solubank.util.AsyncExecutor;
+import com.solubank.util.DatabaseConnection;
 
+import javax.sql.DataSource;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
 
 public class RapportService {
+    private static final long DELAI_SECTION_CLIENTS_MS = 5_000;
+    private static final long DELAI_SECTION_COMPTES_MS = 10_000;
+    private static final long DELAI_SECTION_TRANSACTIONS_MS = 15_000;
+    
+    
     private final ClientService clientService;
     private final CompteService compteService;
     private final TransactionService transactionService;
+    private final AsyncExecutor executeur;
     
     public RapportService() {
-        this.clientService = new ClientService();
-        this.compteService = new CompteService();
-        this.transactionService = new TransactionService();
+        this(DatabaseConnection.getDataSource());
+    }
+    
+    public RapportService(DataSource dataSource) {
+        this(dataSource, null);
+    }
+    
+    public RapportService(DataSource dataSource, AsyncExecutor executeur) {
+        this.clientService = new ClientService(dataSource);
+        this.compteService = new CompteService(dataSource);
+        this.transactionService = new TransactionService(dataSource);
+        this.executeur = executeur;
     }
     
     
     public String genererTop5ClientsParSolde() {
-        List<Client> clients = clientService.listerTousLesClients();
-        
-        var topClients = clients.stream()
-                .sorted((c1, c2) -> {
-                    BigDecimal solde1 = clientService.calculerSoldeTotal(c1.id());
-                    BigDecimal solde2 = clientService.calculerSoldeTotal(c2.id());
-                    return solde2.compareTo(solde1);
-                })
-                .limit(5)
-                .toList();
+        List<ClientSolde> topClients = clientService.listerTopClientsParSolde(5);
         
         StringBuilder rapport = new StringBuilder();
         rapport.append("=== TOP 5 DES CLIENTS PAR SOLDE TOTAL ===\n\n");
         
         int rang = 1;
-        for (Client client : topClients) {
-            BigDecimal soldeTotal = clientService.calculerSoldeTotal(client.id());
-            long nombreComptes = clientService.compterComptes(client.id());
+        for (ClientSolde classement : topClients) {
+            Client client = classement.client();
             
             rapport.append(String.format("%d. %s (%s)\n", rang++, client.nom(), client.email()));
-            rapport.append(String.format("   Solde total: %s DH\n", soldeTotal));
-            rapport.append(String.format("   Nombre de comptes: %d\n\n", nombreComptes));
+            rapport.append(String.format("   Solde total: %s DH\n", classement.soldeTotal()));
+            rapport.append(String.format("   Nombre de comptes: %d\n\n", classement.nombreComptes()));
         }
         
         return rapport.toString();
@@ -60,8 +82,7 @@ public class RapportService {
         LocalDateTime debutMois = mois.atDay(1).atStartOfDay();
         LocalDateTime finMois = mois.atEndOfMonth().atTime(23, 59, 59);
         
-        Map<TypeTransaction, Long> comptesParType = transactionService.compterTransactionsParType(debutMois, finMois);
-        Map<TypeTransaction, BigDecimal> volumesParType = transactionService.calculerVolumeParType(debutMois, finMois);
+        Map<TypeTransaction, Agregat> agregatsParType = transactionService.agregerParType(debutMois, finMois);
         
         StringBuilder rapport = new StringBuilder();
         rapport.append("=== RAPPORT MENSUEL - ").append(mois.format(DateTimeFormatter.ofPattern("MMMM yyyy")))
@@ -71,8 +92,9 @@ public class RapportService {
         long nombreTotal = 0;
         
         for (TypeTransaction type : TypeTransaction.values()) {
-            long nombre = comptesParType.getOrDefault(type, 0L);
-            BigDecimal volume = volumesParType.getOrDefault(type, BigDecimal.ZERO);
+            Agregat agregat = agregatsParType.getOrDefault(type, Agregat.VIDE);
+            long nombre = agregat.nombre();
+            BigDecimal volume = agregat.volume();
             
             rapport.append(String.format("%-12s: %d transactions pour un volume de %s DH\n", 
                     type.name(), nombre, volume));
@@ -84,21 +106,25 @@ public class RapportService {
         rapport.append(String.format("\nTOTAL: %d transactions pour un volume de %s DH\n", 
                 nombreTotal, volumeTotal));
         
+        List<LigneTransaction> plusGrosMontants = transactionService.listerPlusGrosMontants(3, debutMois, finMois);
+        if (!plusGrosMontants.isEmpty()) {
+            rapport.append("\nPlus gros montants du mois:\n");
+            for (LigneTransaction ligne : plusGrosMontants) {
+                rapport.append(String.format("- %s: %s DH le %s (compte %d)\n",
+                        ligne.type().name(),
+                        ligne.montant(),
+                        ligne.date().format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm")),
+                        ligne.compteId()));
+            }
+        }
+        
         return rapport.toString();
     }
     
     
     public String detecterComptesInactifs(int joursInactivite) {
         LocalDateTime seuil = LocalDateTime.now().minusDays(joursInactivite);
-        List<Compte> tousLesComptes = compteService.listerTousLesComptes();
-        
-        var comptesInactifs = tousLesComptes.stream()
-                .filter(compte -> {
-                    List<Transaction> transactions = transactionService.listerTransactionsParCompte(compte.getId());
-                    return transactions.isEmpty() || 
-                           transactions.stream().allMatch(t -> t.date().isBefore(seuil));
-                })
-                .toList();
+        List<CompteInactif> comptesInactifs = compteService.listerComptesInactifs(seuil);
         
         StringBuilder rapport = new StringBuilder();
         rapport.append("=== COMPTES INACTIFS (").append(joursInactivite).append(" jours) ===\n\n");
@@ -106,25 +132,18 @@ public class RapportService {
         if (comptesInactifs.isEmpty()) {
             rapport.append("Aucun compte inactif détecté.\n");
         } else {
-            for (Compte compte : comptesInactifs) {
-                var client = clientService.rechercherParId(compte.getIdClient());
-                List<Transaction> transactions = transactionService.listerTransactionsParCompte(compte.getId());
+            for (CompteInactif inactif : comptesInactifs) {
+                Compte compte = inactif.compte();
                 
                 rapport.append(String.format("Compte: %s (%s)\n", compte.getNumero(), compte.getTypeCompte()));
-                if (client.isPresent()) {
-                    rapport.append(String.format("Client: %s\n", client.get().nom()));
-                }
+                rapport.append(String.format("Client: %s\n", inactif.nomClient()));
                 rapport.append(String.format("Solde: %s DH\n", compte.getSolde()));
                 
-                if (transactions.isEmpty()) {
+                if (inactif.derniereActivite().isEmpty()) {
                     rapport.append("Aucune transaction enregistrée\n");
                 } else {
-                    var derniereTransaction = transactions.stream()
-                            .max(Comparator.comparing(Transaction::date));
-                    if (derniereTransaction.isPresent()) {
-                        rapport.append(String.format("Dernière transaction: %s\n", 
-                                derniereTransaction.get().date().format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm"))));
-                    }
+                    rapport.append(String.format("Dernière transaction: %s\n", 
+                            inactif.derniereTransaction().format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm"))));
                 }
                 rapport.append("\n");
             }
@@ -135,36 +154,43 @@ public class RapportService {
     
     
     public String genererRapportTransactionsSuspectes() {
-        List<Transaction> transactionsSuspectes = transactionService.detecterToutesTransactionsSuspectes();
+        AnomalyReport analyse = transactionService.analyserTransactions();
         
         StringBuilder rapport = new StringBuilder();
         rapport.append("=== TRANSACTIONS SUSPECTES ===\n\n");
         
-        if (transactionsSuspectes.isEmpty()) {
+        if (analyse.alertes().isEmpty()) {
             rapport.append("Aucune transaction suspecte détectée.\n");
         } else {
-            var montantEleve = transactionService.detecterTransactionsMontantEleve();
-            var lieuInhabituel = transactionService.detecterTransactionsLieuInhabituel();
-            
-            rapport.append("1. TRANSACTIONS AVEC MONTANT ÉLEVÉ (> 10 000 DH):\n");
-            for (Transaction t : montantEleve) {
-                rapport.append(String.format("   - %s: %s DH le %s à %s\n",
-                        t.type().name(),
-                        t.montant(),
-                        t.date().format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm")),
-                        t.lieu()));
-            }
-            
-            rapport.append("\n2. TRANSACTIONS DANS DES LIEUX INHABITUELS:\n");
-            for (Transaction t : lieuInhabituel) {
-                rapport.append(String.format("   - %s: %s DH le %s à %s\n",
-                        t.type().name(),
-                        t.montant(),
-                        t.date().format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm")),
-                        t.lieu()));
+            int section = 1;
+            for (RuleStatistics regle : analyse.statistiques()) {
+                if (section > 1) {
+                    rapport.append("\n");
+                }
+                rapport.append(String.format("%d. %s:\n", section++, regle.libelle()));
+                List<Transaction> transactions = analyse.transactionsPourRegle(regle.regle());
+                if (regle.regle().equals(MontantEleveRule.NOM)) {
+                    // Même ordre que l'ancienne requête: ORDER BY montant DESC
+                    transactions = transactions.stream()
+                            .sorted(Comparator.comparing(Transaction::montant).reversed())
+                            .toList();
+                }
+                for (Transaction t : transactions) {
+                    rapport.append(String.format("   - %s: %s DH le %s à %s\n",
+                            t.type().name(),
+                            t.montant(),
+                            t.date().format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm")),
+                            t.lieu()));
+                }
             }
         }
         
+        rapport.append(String.format("\n%d transactions analysées:\n", analyse.transactionsAnalysees()));
+        for (RuleStatistics regle : analyse.statistiques()) {
+            rapport.append(String.format("   %s: %d alerte(s) en %.1f ms\n",
+                    regle.regle(), regle.alertes(), regle.dureeMillis()));
+        }
+        
         return rapport.toString();
     }
     
@@ -199,43 +225,96 @@ public class RapportService {
     
     
     public String genererRapportStatistique() {
-        List<Client> clients = clientService.listerTousLesClients();
-        List<Compte> comptes = compteService.listerTousLesComptes();
-        Map<TypeTransaction, List<Transaction>> transactionsParType = transactionService.regrouperParType();
+        AsyncExecutor executeur = executeur();
+        // Sections indépendantes, chacune sur sa propre connexion et avec son propre délai
+        CompletableFuture<Long> clients = executeur.soumettre(
+                clientService::compterClients, DELAI_SECTION_CLIENTS_MS);
+        CompletableFuture<SyntheseSoldes> comptes = executeur.soumettre(
+                compteService::syntheseSoldes, DELAI_SECTION_COMPTES_MS);
+        CompletableFuture<Map<TypeTransaction, Agregat>> transactions = executeur.soumettre(
+                transactionService::agregerParType, DELAI_SECTION_TRANSACTIONS_MS);
         
-        StringBuilder rapport = new StringBuilder();
-        rapport.append("=== RAPPORT STATISTIQUE GLOBAL ===\n\n");
+        List<CompletableFuture<?>> sections = List.of(clients, comptes, transactions);
+        try {
+            CompletableFuture.allOf(sections.toArray(new CompletableFuture<?>[0])).get();
+        } catch (ExecutionException e) {
+            // Échecs signalés section par section ci-dessous
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Génération du rapport interrompue");
+        } finally {
+            // Aucune sous-requête ne survit au rapport
+            sections.forEach(section -> section.cancel(true));
+        }
         
-        rapport.append(String.format("Nombre total de clients: %d\n", clients.size()));
-        rapport.append(String.format("Nombre total de comptes: %d\n", comptes.size()));
+        List<String> echecs = new ArrayList<>();
+        Long nombreClients = resultatSection(clients, "clients", echecs);
+        SyntheseSoldes syntheseComptes = resultatSection(comptes, "comptes", echecs);
+        Map<TypeTransaction, Agregat> transactionsParType = resultatSection(transactions, "transactions", echecs);
         
-        long totalTransactions = transactionsParType.values().stream()
-                .mapToLong(List::size)
-                .sum();
-        rapport.append(String.format("Nombre total de transactions: %d\n\n", totalTransactions));
+        StringBuilder rapport = new StringBuilder();
+        rapport.append("=== RAPPORT STATISTIQUE GLOBAL ===\n\n");
         
-        BigDecimal soldeMoyen = compteService.calculerSoldeMoyen();
-        rapport.append(String.format("Solde moyen des comptes: %s DH\n", soldeMoyen));
+        rapport.append(nombreClients != null
+                ? String.format("Nombre total de clients: %d\n", nombreClients)
+                : "Nombre total de clients: indisponible\n");
+        rapport.append(syntheseComptes != null
+                ? String.format("Nombre total de comptes: %d\n", syntheseComptes.nombreComptes())
+                : "Nombre total de comptes: indisponible\n");
         
-        var compteMaxSolde = compteService.trouverCompteAvecSoldeMaximum();
-        var compteMinSolde = compteService.trouverCompteAvecSoldeMinimum();
+        if (transactionsParType != null) {
+            long totalTransactions = transactionsParType.values().stream()
+                    .mapToLong(Agregat::nombre)
+                    .sum();
+            rapport.append(String.format("Nombre total de transactions: %d\n\n", totalTransactions));
+        } else {
+            rapport.append("Nombre total de transactions: indisponible\n\n");
+        }
         
-        if (compteMaxSolde.isPresent()) {
-            rapport.append(String.format("Compte avec le solde maximum: %s (%s DH)\n", 
-                    compteMaxSolde.get().getNumero(), compteMaxSolde.get().getSolde()));
+        if (syntheseComptes != null) {
+            rapport.append(String.format("Solde moyen des comptes: %s DH\n", syntheseComptes.soldeMoyen()));
+            
+            if (syntheseComptes.numeroSoldeMaximum() != null) {
+                rapport.append(String.format("Compte avec le solde maximum: %s (%s DH)\n", 
+                        syntheseComptes.numeroSoldeMaximum(), syntheseComptes.soldeMaximum()));
+            }
+            
+            if (syntheseComptes.numeroSoldeMinimum() != null) {
+                rapport.append(String.format("Compte avec le solde minimum: %s (%s DH)\n", 
+                        syntheseComptes.numeroSoldeMinimum(), syntheseComptes.soldeMinimum()));
+            }
         }
         
-        if (compteMinSolde.isPresent()) {
-            rapport.append(String.format("Compte avec le solde minimum: %s (%s DH)\n", 
-                    compteMinSolde.get().getNumero(), compteMinSolde.get().getSolde()));
+        if (transactionsParType != null) {
+            rapport.append("\nRépartition des transactions par type:\n");
+            for (var entry : transactionsParType.entrySet()) {
+                rapport.append(String.format("- %s: %d transactions\n", 
+                        entry.getKey().name(), entry.getValue().nombre()));
+            }
         }
         
-        rapport.append("\nRépartition des transactions par type:\n");
-        for (var entry : transactionsParType.entrySet()) {
-            rapport.append(String.format("- %s: %d transactions\n", 
-                    entry.getKey().name(), entry.getValue().size()));
+        if (!echecs.isEmpty()) {
+            rapport.append("\nSections indisponibles:\n");
+            echecs.forEach(echec -> rapport.append("- ").append(echec).append("\n"));
         }
         
         return rapport.toString();
     }
+    
+    private AsyncExecutor executeur() {
+        return executeur != null ? executeur : AsyncExecutor.partage();
+    }
+    
+    private static <T> T resultatSection(CompletableFuture<T> section, String nom, List<String> echecs) {
+        try {
+            return section.join();
+        } catch (CompletionException | CancellationException e) {
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            String raison = cause instanceof TimeoutException ? "délai dépassé"
+                    : cause instanceof CancellationException ? "annulée"
+                    : cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+            echecs.add(nom + ": " + raison);
+            return null;
+        }
+    }
 }
\ No newline at end of file
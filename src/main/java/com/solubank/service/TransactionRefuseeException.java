@@ -0,0 +1,25 @@
+package com.solubank.service;
+
+
+public class TransactionRefuseeException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public enum Motif {
+        DONNEES_INVALIDES,
+        COMPTE_INEXISTANT,
+        FONDS_INSUFFISANTS,
+        // La base ou le journal n'a pas répondu: la transaction peut être renvoyée plus tard
+        INDISPONIBLE
+    }
+
+    private final Motif motif;
+
+    public TransactionRefuseeException(Motif motif, String message) {
+        super(message);
+        this.motif = motif;
+    }
+
+    public Motif getMotif() {
+        return motif;
+    }
+}
\ No newline at end of file
@@ -1,70 +1,247 @@
 package com.solubank.service;
 
+import com.solubank.analytics.Agregat;
+import com.solubank.analytics.ColumnarTransactionStore;
+import com.solubank.analytics.Filtre;
+import com.solubank.analytics.LigneTransaction;
+import com.solubank.analytics.TransactionSnapshot;
+import com.solubank.dao.CompteDAO;
+import com.solubank.dao.LedgerResult;
 import com.solubank.dao.TransactionDAO;
+import com.solubank.detection.AmountStatistics;
+import com.solubank.detection.AnomalyEngine;
+import com.solubank.detection.AnomalyReport;
+import com.solubank.detection.LieuInhabituelRule;
+import com.solubank.detection.LocationProfiles;
+import com.solubank.detection.MontantEleveRule;
+import com.solubank.detection.SlidingWindowDetector;
+import com.solubank.detection.ZScoreRule;
+import com.solubank.entity.Compte;
+import com.solubank.entity.Montant;
 import com.solubank.entity.Transaction;
+import com.solubank.entity.TransactionEvaluee;
+import com.solubank.entity.TransactionPage;
 import com.solubank.entity.TypeTransaction;
+import com.solubank.journal.EntreeJournal;
+import com.solubank.journal.TransactionJournal;
+import com.solubank.util.DatabaseConnection;
+import com.solubank.util.LocationDictionary;
+import com.solubank.util.ValidationUtil;
 
+import javax.sql.DataSource;
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.SortedMap;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 
 public class TransactionService {
     private final TransactionDAO transactionDAO;
-    private final CompteService compteService;
+    private final CompteDAO compteDAO;
+    private final AnomalyEngine moteurDetection;
+    private final ZScoreRule regleMontantAtypique;
+    private final LieuInhabituelRule regleLieuInhabituel;
+    private final LieuInhabituelRule regleLieuInhabituelParcours;
+    private final ImportService importService;
     
     private static final BigDecimal SEUIL_MONTANT_SUSPECT = new BigDecimal("10000");
     private static final String PAYS_HABITUEL = "Maroc";
     private static final int MINUTES_SUSPICION = 1;
+    private static final int MAX_TRANSACTIONS_PAR_FENETRE = 1;
+    private static final int CAPACITE_FENETRE = 16;
+    private static final long INACTIVITE_FENETRE_MS = 24 * 60 * 60 * 1000L;
+    private static final int MAX_COMPTES_SUIVIS = 100_000;
+    private static final double ECARTS_TYPES_SUSPICION = 3.0;
+    private static final long EFFECTIF_MIN_STATISTIQUES = 10;
+    private static final long HISTORIQUE_MIN_LIEUX = 20;
+    private static final double FREQUENCE_MIN_LIEU = 0.05;
+    private static final Path DOSSIER_DETECTION = Path.of(System.getProperty("solubank.detection.dir", "data"));
+    private static final Path FICHIER_STATISTIQUES = DOSSIER_DETECTION.resolve("statistiques-montants.bin");
+    private static final Path FICHIER_PROFILS_LIEUX = DOSSIER_DETECTION.resolve("profils-lieux.bin");
+    private static final Path FICHIER_INSTANTANE_TRANSACTIONS = DOSSIER_DETECTION.resolve("transactions.snap");
+    private static final Path FICHIER_INSTANTANE_COMPTES = DOSSIER_DETECTION.resolve("comptes.snap");
+    private static final Path FICHIER_JOURNAL = DOSSIER_DETECTION.resolve("transactions.journal");
+    private static final long DELAI_APPLICATION_JOURNAL_MS = 10_000;
+    
+    private static final SlidingWindowDetector FENETRES_COMPTES = new SlidingWindowDetector(
+        CAPACITE_FENETRE,
+        MINUTES_SUSPICION * 60_000L,
+        MAX_TRANSACTIONS_PAR_FENETRE,
+        Montant.centimes(SEUIL_MONTANT_SUSPECT),
+        INACTIVITE_FENETRE_MS,
+        MAX_COMPTES_SUIVIS
+    );
+    private static final AmountStatistics STATISTIQUES_MONTANTS = chargerEtat(
+        "statistiques de montants", () -> AmountStatistics.charger(FICHIER_STATISTIQUES), AmountStatistics::new);
+    private static final LocationDictionary DICTIONNAIRE_LIEUX = LocationDictionary.partage();
+    private static final LocationProfiles PROFILS_LIEUX = chargerEtat(
+        "profils de lieux", () -> LocationProfiles.charger(FICHIER_PROFILS_LIEUX), LocationProfiles::new);
+    // Miroir de compte(id, id_client): complété par préchargement avant chaque parcours et après une écriture sur un compte inconnu
+    private static final Map<Long, Long> CLIENTS_PAR_COMPTE = new ConcurrentHashMap<>();
+    private static final ColumnarTransactionStore MAGASIN_ANALYTIQUE = new ColumnarTransactionStore(DICTIONNAIRE_LIEUX);
+    private static volatile long filigraneComptes;
+    private static long filigranePrechargement;
+    private static volatile boolean instantanesCharges;
+    private static volatile TransactionJournal journal;
+    
+    @FunctionalInterface
+    private interface Chargement<T> {
+        T charger() throws IOException;
+    }
     
     public TransactionService() {
-        this.transactionDAO = new TransactionDAO();
-        this.compteService = new CompteService();
+        this(DatabaseConnection.getDataSource());
     }
     
-    public Optional<Transaction> enregistrerTransaction(BigDecimal montant, TypeTransaction type, 
-                                                      String lieu, Long compteId) {
+    public TransactionService(DataSource dataSource) {
+        this.transactionDAO = new TransactionDAO(dataSource);
+        this.compteDAO = new CompteDAO(dataSource);
+        this.regleMontantAtypique = new ZScoreRule(STATISTIQUES_MONTANTS, ECARTS_TYPES_SUSPICION, EFFECTIF_MIN_STATISTIQUES);
+        // Aucune requête pendant la notation: un compte absent de la table préchargée est noté au pays habituel
+        this.regleLieuInhabituel = new LieuInhabituelRule(DICTIONNAIRE_LIEUX, PROFILS_LIEUX,
+            TransactionService::clientConnu, PAYS_HABITUEL, HISTORIQUE_MIN_LIEUX, FREQUENCE_MIN_LIEU);
+        this.regleLieuInhabituelParcours = new LieuInhabituelRule(DICTIONNAIRE_LIEUX, PROFILS_LIEUX,
+            TransactionService::clientConnu, PAYS_HABITUEL, HISTORIQUE_MIN_LIEUX, FREQUENCE_MIN_LIEU);
+        this.moteurDetection = new AnomalyEngine(List.of(
+            new MontantEleveRule(SEUIL_MONTANT_SUSPECT),
+            regleLieuInhabituelParcours,
+            regleMontantAtypique
+        ));
+        this.importService = new ImportService(dataSource, this::apprendre);
+    }
+    
+    public Optional<TransactionEvaluee> enregistrerTransaction(BigDecimal montant, TypeTransaction type, 
+                                                             String lieu, Long compteId) {
         try {
-            if (compteService.rechercherParId(compteId).isEmpty()) {
-                System.err.println("Compte inexistant");
-                return Optional.empty();
-            }
-            
-            if (type == TypeTransaction.RETRAIT) {
-                if (!compteService.peutEffectuerRetrait(compteId, montant)) {
-                    System.err.println("Fonds insuffisants pour effectuer le retrait");
-                    return Optional.empty();
-                }
-            }
-            
-            Transaction transaction = new Transaction(
+            return Optional.of(enregistrerOuRefuser(montant, type, lieu, compteId));
+        } catch (TransactionRefuseeException e) {
+            System.err.println(e.getMessage());
+            return Optional.empty();
+        }
+    }
+    
+    public TransactionEvaluee enregistrerOuRefuser(BigDecimal montant, TypeTransaction type,
+                                                   String lieu, Long compteId) {
+        Instant maintenant = Instant.now();
+        Transaction transaction;
+        long montantCentimes;
+        try {
+            transaction = new Transaction(
                 null,
-                LocalDateTime.now(),
+                LocalDateTime.ofInstant(maintenant, ZoneId.systemDefault()),
                 montant,
                 type,
-                lieu,
+                DICTIONNAIRE_LIEUX.canonique(lieu),
                 compteId
             );
+            if (!ValidationUtil.isValidLieu(transaction.lieu())) {
+                throw new IllegalArgumentException("Lieu trop long (maximum " + ValidationUtil.LONGUEUR_LIEU_MAX + " caractères)");
+            }
+            montantCentimes = Montant.centimes(montant);
+        } catch (IllegalArgumentException e) {
+            throw new TransactionRefuseeException(TransactionRefuseeException.Motif.DONNEES_INVALIDES,
+                "Erreur de validation: " + e.getMessage());
+        }
+        
+        // La réservation n'est confirmée dans la fenêtre qu'une fois l'écriture validée, et annulée sinon
+        SlidingWindowDetector.Reservation reservation = FENETRES_COMPTES.reserver(
+            compteId, maintenant.toEpochMilli(), montantCentimes);
+        try {
+            List<String> alertes = new ArrayList<>(reservation.alertes());
+            if (regleMontantAtypique.estAnomalie(transaction)) {
+                alertes.add(regleMontantAtypique.nom());
+            }
+            if (regleLieuInhabituel.estAnomalie(transaction)) {
+                alertes.add(regleLieuInhabituel.nom());
+            }
             
-            Optional<Transaction> savedTransaction = transactionDAO.save(transaction);
+            TransactionJournal journalActif = journal;
+            if (journalActif != null) {
+                if (type == TypeTransaction.VERSEMENT) {
+                    return journaliser(journalActif, transaction, alertes, reservation);
+                }
+                if (!journalActif.attendreCompte(compteId, DELAI_APPLICATION_JOURNAL_MS)) {
+                    throw new TransactionRefuseeException(TransactionRefuseeException.Motif.INDISPONIBLE,
+                        "Des versements journalisés sur ce compte sont encore en attente d'application");
+                }
+            }
             
-            if (savedTransaction.isPresent()) {
-                mettreAJourSoldeCompte(compteId, montant, type);
+            LedgerResult resultat = transactionDAO.saveWithBalanceUpdate(transaction);
+            switch (resultat.status()) {
+                case UNKNOWN_ACCOUNT -> throw new TransactionRefuseeException(
+                    TransactionRefuseeException.Motif.COMPTE_INEXISTANT, "Compte inexistant");
+                case INSUFFICIENT_FUNDS -> throw new TransactionRefuseeException(
+                    TransactionRefuseeException.Motif.FONDS_INSUFFISANTS, type == TypeTransaction.VIREMENT
+                        ? "Fonds insuffisants pour effectuer le virement" : "Fonds insuffisants pour effectuer le retrait");
+                case FAILURE -> throw new TransactionRefuseeException(
+                    TransactionRefuseeException.Motif.INDISPONIBLE, "La transaction n'a pas pu être enregistrée en base");
+                default -> { }
             }
             
-            return savedTransaction;
+            reservation.confirmer();
+            MAGASIN_ANALYTIQUE.ajouter(resultat.transaction());
+            if (!CLIENTS_PAR_COMPTE.containsKey(compteId)) {
+                prechargerClients(compteDAO);
+            }
+            apprendre(resultat.transaction());
+            return new TransactionEvaluee(resultat.transaction(), alertes);
             
-        } catch (IllegalArgumentException e) {
-            System.err.println("Erreur de validation: " + e.getMessage());
-            return Optional.empty();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TransactionRefuseeException(TransactionRefuseeException.Motif.INDISPONIBLE,
+                "Enregistrement interrompu");
+        } finally {
+            reservation.annuler();
+        }
+    }
+    
+    private TransactionEvaluee journaliser(TransactionJournal journalActif, Transaction transaction,
+                                           List<String> alertes, SlidingWindowDetector.Reservation reservation) {
+        Compte compte = compteDAO.findById(transaction.idCompte()).orElseThrow(() -> new TransactionRefuseeException(
+            TransactionRefuseeException.Motif.COMPTE_INEXISTANT, "Compte inexistant"));
+        CLIENTS_PAR_COMPTE.putIfAbsent(compte.getId(), compte.getIdClient());
+        try {
+            journalActif.journaliser(transaction).join();
+        } catch (CompletionException e) {
+            throw new TransactionRefuseeException(TransactionRefuseeException.Motif.INDISPONIBLE,
+                "Erreur lors de la journalisation de la transaction: " + e.getCause().getMessage());
+        }
+        reservation.confirmer();
+        apprendre(transaction);
+        return new TransactionEvaluee(transaction, alertes);
+    }
+    
+    private void apprendre(Transaction transaction) {
+        long compteId = transaction.idCompte();
+        STATISTIQUES_MONTANTS.ajouter(compteId, transaction.type(), Montant.centimes(transaction.montant()) / 100.0);
+        long clientId = clientConnu(compteId);
+        if (transaction.lieu() != null && clientId >= 0) {
+            PROFILS_LIEUX.enregistrer(clientId, DICTIONNAIRE_LIEUX.encoder(transaction.lieu()));
         }
     }
     
+    public ImportService.Resultat importerFichier(Path fichier, Consumer<ImportService.Progression> suivi) throws IOException {
+        prechargerClients(compteDAO);
+        return importService.importer(fichier, suivi);
+    }
+    
     public List<Transaction> listerTransactionsParCompte(Long compteId) {
         return transactionDAO.findByCompteId(compteId);
     }
@@ -73,6 +250,14 @@ public class TransactionService {
         return transactionDAO.findByClientId(clientId);
     }
     
+    public TransactionPage consulterPageCompte(Long compteId, String curseur, int taillePage) {
+        return transactionDAO.findPageByCompteId(compteId, curseur, taillePage);
+    }
+    
+    public TransactionPage consulterPageClient(Long clientId, String curseur, int taillePage) {
+        return transactionDAO.findPageByClientId(clientId, curseur, taillePage);
+    }
+    
     public List<Transaction> filtrerParType(TypeTransaction type) {
         return transactionDAO.findByType(type);
     }
@@ -91,40 +276,40 @@ public class TransactionService {
     
     
     public Map<TypeTransaction, List<Transaction>> regrouperParType() {
-        return transactionDAO.findAll()
-                .stream()
-                .collect(Collectors.groupingBy(Transaction::type));
+        try (Stream<Transaction> transactions = transactionDAO.streamAll()) {
+            return transactions.collect(Collectors.groupingBy(Transaction::type));
+        }
     }
     
     
     public Map<YearMonth, List<Transaction>> regrouperParMois() {
-        return transactionDAO.findAll()
-                .stream()
-                .collect(Collectors.groupingBy(
+        try (Stream<Transaction> transactions = transactionDAO.streamAll()) {
+            return transactions.collect(Collectors.groupingBy(
                     t -> YearMonth.from(t.date())
                 ));
+        }
     }
     
     
     public BigDecimal calculerMoyenneTransactionsClient(Long clientId) {
-        List<Transaction> transactions = transactionDAO.findByClientId(clientId);
-        if (transactions.isEmpty()) {
+        long[] sommeEtNombre = new long[2];
+        try (Stream<Transaction> transactions = transactionDAO.streamByClientId(clientId)) {
+            transactions.forEach(t -> {
+                sommeEtNombre[0] = Montant.additionner(sommeEtNombre[0], Montant.centimes(t.montant()));
+                sommeEtNombre[1]++;
+            });
+        }
+        if (sommeEtNombre[1] == 0) {
             return BigDecimal.ZERO;
         }
         
-        BigDecimal somme = transactions.stream()
-                .map(Transaction::montant)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        return somme.divide(BigDecimal.valueOf(transactions.size()), 2, RoundingMode.HALF_UP);
+        return Montant.enBigDecimal(sommeEtNombre[0]).divide(BigDecimal.valueOf(sommeEtNombre[1]), 2, RoundingMode.HALF_UP);
     }
     
     
+    // Un seul compte: la somme SQL parcourt la plage de l'index id_compte, le magasin reste aux agrégats globaux
     public BigDecimal calculerTotalTransactionsCompte(Long compteId) {
-        return transactionDAO.findByCompteId(compteId)
-                .stream()
-                .map(Transaction::montant)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return transactionDAO.sumMontantByCompteId(compteId);
     }
     
     
@@ -134,59 +319,177 @@ public class TransactionService {
     
    
     public List<Transaction> detecterTransactionsLieuInhabituel() {
-        return transactionDAO.findAll()
-                .stream()
-                .filter(t -> !t.lieu().toLowerCase().contains(PAYS_HABITUEL.toLowerCase()))
-                .toList();
+        prechargerClients(compteDAO);
+        try (Stream<Transaction> transactions = transactionDAO.streamAll()) {
+            return new AnomalyEngine(List.of(regleLieuInhabituelParcours))
+                    .analyser(transactions)
+                    .transactions();
+        }
     }
     
     
     public List<Transaction> detecterTransactionsFrequenceExcessive(Long compteId) {
-        return transactionDAO.findTransactionsInShortTime(compteId, MINUTES_SUSPICION);
+        return transactionDAO.findTransactionsInShortTime(compteId, LocalDateTime.now().minusMinutes(MINUTES_SUSPICION));
     }
     
    
     public List<Transaction> detecterToutesTransactionsSuspectes() {
-        var montantEleve = detecterTransactionsMontantEleve();
-        var lieuInhabituel = detecterTransactionsLieuInhabituel();
-        
-        return transactionDAO.findAll()
-                .stream()
-                .filter(t -> montantEleve.contains(t) || lieuInhabituel.contains(t))
-                .distinct()
-                .toList();
+        return analyserTransactions().transactions();
+    }
+    
+    
+    public AnomalyReport analyserTransactions() {
+        prechargerClients(compteDAO);
+        try (Stream<Transaction> transactions = transactionDAO.streamAll()) {
+            return moteurDetection.analyser(transactions);
+        }
     }
     
     
     public Map<TypeTransaction, Long> compterTransactionsParType(LocalDateTime dateDebut, LocalDateTime dateFin) {
-        return transactionDAO.findByDateRange(dateDebut, dateFin)
-                .stream()
-                .collect(Collectors.groupingBy(
-                    Transaction::type,
-                    Collectors.counting()
-                ));
+        Map<TypeTransaction, Long> comptes = new EnumMap<>(TypeTransaction.class);
+        agregerParType(dateDebut, dateFin).forEach((type, agregat) -> comptes.put(type, agregat.nombre()));
+        return comptes;
     }
     
     
     public Map<TypeTransaction, BigDecimal> calculerVolumeParType(LocalDateTime dateDebut, LocalDateTime dateFin) {
-        return transactionDAO.findByDateRange(dateDebut, dateFin)
-                .stream()
-                .collect(Collectors.groupingBy(
-                    Transaction::type,
-                    Collectors.reducing(BigDecimal.ZERO, Transaction::montant, BigDecimal::add)
-                ));
+        Map<TypeTransaction, BigDecimal> volumes = new EnumMap<>(TypeTransaction.class);
+        agregerParType(dateDebut, dateFin).forEach((type, agregat) -> volumes.put(type, agregat.volume()));
+        return volumes;
+    }
+    
+    
+    public Map<TypeTransaction, Agregat> agregerParType(LocalDateTime dateDebut, LocalDateTime dateFin) {
+        ColumnarTransactionStore magasin = magasinAnalytique();
+        return magasin.agregerParType(Filtre.periode(magasin.epochSeconde(dateDebut), magasin.epochSeconde(dateFin)));
+    }
+    
+    
+    public Map<TypeTransaction, Agregat> agregerParType() {
+        return magasinAnalytique().agregerParType(Filtre.tout());
+    }
+    
+    
+    public SortedMap<YearMonth, Agregat> agregerParMois() {
+        return magasinAnalytique().agregerParMois(Filtre.tout());
     }
     
-    private void mettreAJourSoldeCompte(Long compteId, BigDecimal montant, TypeTransaction type) {
-        var compteOpt = compteService.rechercherParId(compteId);
-        if (compteOpt.isPresent()) {
-            var compte = compteOpt.get();
-            BigDecimal nouveauSolde = switch (type) {
-                case VERSEMENT -> compte.getSolde().add(montant);
-                case RETRAIT -> compte.getSolde().subtract(montant);
-                case VIREMENT -> compte.getSolde().subtract(montant); 
-            };
-            compteService.mettreAJourSolde(compteId, nouveauSolde);
+    
+    public List<LigneTransaction> listerPlusGrosMontants(int nombre, LocalDateTime dateDebut, LocalDateTime dateFin) {
+        ColumnarTransactionStore magasin = magasinAnalytique();
+        return magasin.topMontants(nombre, Filtre.periode(magasin.epochSeconde(dateDebut), magasin.epochSeconde(dateFin)));
+    }
+    
+    public static void sauvegarderEtatDetection() {
+        // Un démarrage interrompu avant le chargement ne doit pas écraser l'état persisté
+        if (!instantanesCharges) {
+            return;
+        }
+        try {
+            STATISTIQUES_MONTANTS.sauvegarder(FICHIER_STATISTIQUES);
+            LocationDictionary.sauvegarderPartage();
+            PROFILS_LIEUX.sauvegarder(FICHIER_PROFILS_LIEUX);
+        } catch (IOException e) {
+            System.err.println("Erreur lors de la sauvegarde de l'état de détection: " + e.getMessage());
+        }
+    }
+    
+    public static void chargerInstantanes() {
+        try {
+            long debut = System.nanoTime();
+            int transactions = TransactionSnapshot.chargerTransactions(FICHIER_INSTANTANE_TRANSACTIONS, MAGASIN_ANALYTIQUE);
+            filigraneComptes = TransactionSnapshot.chargerComptes(FICHIER_INSTANTANE_COMPTES, CLIENTS_PAR_COMPTE::put);
+            instantanesCharges = true;
+            if (transactions > 0) {
+                System.out.printf("Instantané chargé: %d transactions en %d ms%n",
+                        transactions, (System.nanoTime() - debut) / 1_000_000);
+            }
+        } catch (IOException | IllegalStateException e) {
+            System.err.println("Erreur lors du chargement de l'instantané des transactions: " + e.getMessage());
+        }
+    }
+    
+    public static void sauvegarderInstantanes() {
+        if (!instantanesCharges) {
+            return;
+        }
+        try {
+            LocationDictionary.sauvegarderPartage();
+            TransactionSnapshot.ecrireTransactions(FICHIER_INSTANTANE_TRANSACTIONS, MAGASIN_ANALYTIQUE);
+            Map<Long, Long> nouveauxComptes = new CompteDAO().findClientIdsAfterId(filigraneComptes);
+            TransactionSnapshot.ajouterComptes(FICHIER_INSTANTANE_COMPTES, nouveauxComptes);
+        } catch (IOException e) {
+            System.err.println("Erreur lors de l'écriture de l'instantané des transactions: " + e.getMessage());
+        }
+    }
+    
+    public static void demarrerJournal() {
+        if (!Boolean.getBoolean("solubank.journal")) {
+            return;
+        }
+        TransactionDAO dao = new TransactionDAO();
+        try {
+            journal = TransactionJournal.ouvrir(FICHIER_JOURNAL, TransactionJournal.Config.defaults(),
+                new TransactionJournal.Applicateur() {
+                    @Override
+                    public void appliquer(List<EntreeJournal> lot) throws SQLException {
+                        List<Transaction> transactions = new ArrayList<>(lot.size());
+                        long[] sequences = new long[lot.size()];
+                        for (int i = 0; i < lot.size(); i++) {
+                            transactions.add(lot.get(i).transaction());
+                            sequences[i] = lot.get(i).sequence();
+                        }
+                        dao.saveJournalises(transactions, sequences).forEach(MAGASIN_ANALYTIQUE::ajouter);
+                    }
+                    
+                    @Override
+                    public long derniereSequenceAppliquee() throws SQLException {
+                        return dao.findMaxJournalSequence();
+                    }
+                });
+        } catch (IOException | SQLException e) {
+            System.err.println("Erreur lors de l'ouverture du journal des transactions, enregistrement direct en base: " + e.getMessage());
+        }
+    }
+    
+    public static void arreterJournal() {
+        TransactionJournal journalActif = journal;
+        if (journalActif != null) {
+            journal = null;
+            journalActif.close();
+        }
+    }
+    
+    public static Optional<TransactionJournal.Statistics> getJournalStatistics() {
+        TransactionJournal journalActif = journal;
+        return journalActif == null ? Optional.empty() : Optional.of(journalActif.getStatistics());
+    }
+    
+    private ColumnarTransactionStore magasinAnalytique() {
+        MAGASIN_ANALYTIQUE.synchroniser(transactionDAO::streamAfterId);
+        return MAGASIN_ANALYTIQUE;
+    }
+    
+    private static long clientConnu(long compteId) {
+        Long clientId = CLIENTS_PAR_COMPTE.get(compteId);
+        return clientId == null ? -1 : clientId;
+    }
+    
+    private static synchronized void prechargerClients(CompteDAO compteDAO) {
+        long depuis = Math.max(filigranePrechargement, filigraneComptes);
+        for (Map.Entry<Long, Long> compte : compteDAO.findClientIdsAfterId(depuis).entrySet()) {
+            CLIENTS_PAR_COMPTE.put(compte.getKey(), compte.getValue());
+            filigranePrechargement = Math.max(filigranePrechargement, compte.getKey());
+        }
+    }
+    
+    private static <T> T chargerEtat(String description, Chargement<T> chargement, Supplier<T> parDefaut) {
+        try {
+            return chargement.charger();
+        } catch (IOException e) {
+            System.err.println("Erreur lors du chargement de l'état de détection (" + description + "): " + e.getMessage());
+            return parDefaut.get();
         }
     }
 }
\ No newline at end of file
@@ -1,30 +1,46 @@
 package com.solubank.ui;
 
+import com.solubank.dao.DataAccessException;
 import com.solubank.entity.Client;
 import com.solubank.entity.Compte;
 import com.solubank.entity.Transaction;
+import com.solubank.entity.TransactionEvaluee;
+import com.solubank.entity.TransactionPage;
 import com.solubank.entity.TypeTransaction;
 import com.solubank.service.ClientService;
 import com.solubank.service.CompteService;
+import com.solubank.service.ExportService;
+import com.solubank.service.ImportService;
 import com.solubank.service.RapportService;
 import com.solubank.service.TransactionService;
 import com.solubank.util.DateUtil;
 import com.solubank.util.ValidationUtil;
 
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalTime;
 import java.time.YearMonth;
 import java.util.List;
 import java.util.Optional;
 import java.util.Scanner;
+import java.util.function.Function;
 
 
 public class MenuPrincipal {
     
+    private static final int TAILLE_PAGE = 20;
+    
     private final Scanner scanner;
     private final ClientService clientService;
     private final CompteService compteService;
     private final TransactionService transactionService;
     private final RapportService rapportService;
+    private final ExportService exportService;
     
     public MenuPrincipal() {
         this.scanner = new Scanner(System.in);
@@ -32,6 +48,7 @@ public class MenuPrincipal {
         this.compteService = new CompteService();
         this.transactionService = new TransactionService();
         this.rapportService = new RapportService();
+        this.exportService = new ExportService();
     }
     
     public void demarrer() {
@@ -45,18 +62,22 @@ public class MenuPrincipal {
             afficherMenuPrincipal();
             int choix = lireChoix();
             
-            switch (choix) {
-                case 1 -> gererClients();
-                case 2 -> gererComptes();
-                case 3 -> gererTransactions();
-                case 4 -> consulterHistorique();
-                case 5 -> lancerAnalyses();
-                case 6 -> recevoirAlertes();
-                case 0 -> {
-                    System.out.println("Merci d'avoir utilise le systeme Al Baraka. Au revoir !");
-                    continuer = false;
+            try {
+                switch (choix) {
+                    case 1 -> gererClients();
+                    case 2 -> gererComptes();
+                    case 3 -> gererTransactions();
+                    case 4 -> consulterHistorique();
+                    case 5 -> lancerAnalyses();
+                    case 6 -> recevoirAlertes();
+                    case 0 -> {
+                        System.out.println("Merci d'avoir utilise le systeme Al Baraka. Au revoir !");
+                        continuer = false;
+                    }
+                    default -> System.out.println("X Choix invalide. Veuillez reessayer.");
                 }
-                default -> System.out.println("X Choix invalide. Veuillez reessayer.");
+            } catch (DataAccessException e) {
+                System.out.println("X Erreur d'acces aux donnees, resultat abandonne: " + e.getMessage());
             }
         }
         
@@ -481,6 +502,7 @@ public class MenuPrincipal {
         System.out.println("1. Versement");
         System.out.println("2. Retrait");
         System.out.println("3. Virement");
+        System.out.println("4. Importer un fichier de transactions");
         System.out.println("0. Retour au menu principal");
         System.out.print("\nVotre choix: ");
         
@@ -490,6 +512,7 @@ public class MenuPrincipal {
             case 1 -> enregistrerTransaction(TypeTransaction.VERSEMENT);
             case 2 -> enregistrerTransaction(TypeTransaction.RETRAIT);
             case 3 -> enregistrerTransaction(TypeTransaction.VIREMENT);
+            case 4 -> importerTransactions();
             case 0 -> { /* Retour */ }
             default -> System.out.println("X Choix invalide.");
         }
@@ -531,10 +554,16 @@ public class MenuPrincipal {
         
         BigDecimal montant = ValidationUtil.parseMontant(montantStr);
         
-        Optional<Transaction> transactionOpt = transactionService.enregistrerTransaction(montant, type, lieu, compteId);
+        Optional<TransactionEvaluee> transactionOpt = transactionService.enregistrerTransaction(montant, type, lieu, compteId);
         if (transactionOpt.isPresent()) {
-            System.out.printf("√ %s enregistre avec succes! ID: %d%n", 
-                    type.name(), transactionOpt.get().id());
+            Long transactionId = transactionOpt.get().transaction().id();
+            if (transactionId == null) {
+                System.out.printf("√ %s journalise avec succes, en attente d'application.%n", type.name());
+            } else {
+                System.out.printf("√ %s enregistre avec succes! ID: %d%n", type.name(), transactionId);
+            }
+            transactionOpt.get().alertes()
+                    .forEach(alerte -> System.out.printf("! Alerte: %s%n", alerte));
             
             Optional<Compte> compteUpdated = compteService.rechercherParId(compteId);
             if (compteUpdated.isPresent()) {
@@ -546,6 +575,34 @@ public class MenuPrincipal {
         }
     }
     
+    private void importerTransactions() {
+        System.out.println("\n$ Importer un fichier de transactions");
+        System.out.println("Format: date;montant;type;lieu;id_compte (date au format jj/MM/aaaa HH:mm)");
+        System.out.println("Transactions historiques: les soldes des comptes ne sont pas modifies");
+        System.out.print("Chemin du fichier: ");
+        Path fichier = Path.of(scanner.nextLine().trim());
+        
+        if (!Files.isRegularFile(fichier)) {
+            System.out.println("X Fichier introuvable.");
+            return;
+        }
+        
+        try {
+            ImportService.Resultat resultat = transactionService.importerFichier(fichier, progression ->
+                    System.out.printf("\r  %d%% - %d lignes lues, %d enregistrees, %d rejetees (%.0f lignes/s)",
+                            progression.octetsTotal() == 0 ? 100 : progression.octetsLus() * 100 / progression.octetsTotal(),
+                            progression.lignesLues(), progression.enregistrees(), progression.rejetees(),
+                            progression.lignesParSeconde()));
+            System.out.printf("%n√ Import termine en %.1f s: %d enregistrees, %d rejetees (%.0f lignes/s)%n",
+                    resultat.dureeMs() / 1000.0, resultat.enregistrees(), resultat.rejetees(), resultat.lignesParSeconde());
+            if (resultat.fichierRejets() != null) {
+                System.out.println("! Lignes rejetees: " + resultat.fichierRejets());
+            }
+        } catch (IOException e) {
+            System.out.println("X Erreur lors de l'import: " + e.getMessage());
+        }
+    }
+    
     private void consulterHistorique() {
         System.out.println("\n[H] CONSULTER L'HISTORIQUE DES TRANSACTIONS");
         System.out.println("1. Historique d'un compte");
@@ -553,6 +610,7 @@ public class MenuPrincipal {
         System.out.println("3. Filtrer par type de transaction");
         System.out.println("4. Filtrer par montant");
         System.out.println("5. Filtrer par lieu");
+        System.out.println("6. Exporter l'historique");
         System.out.println("0. Retour au menu principal");
         System.out.print("\nVotre choix: ");
         
@@ -564,11 +622,70 @@ public class MenuPrincipal {
             case 3 -> filtrerParType();
             case 4 -> filtrerParMontant();
             case 5 -> filtrerParLieu();
+            case 6 -> exporterHistorique();
             case 0 -> { /* Retour */ }
             default -> System.out.println("X Choix invalide.");
         }
     }
     
+    private void exporterHistorique() {
+        System.out.println("\n$ Exporter l'historique des transactions");
+        System.out.print("Format (1. CSV, 2. Binaire): ");
+        int choixFormat = lireChoix();
+        if (choixFormat != 1 && choixFormat != 2) {
+            System.out.println("X Format invalide.");
+            return;
+        }
+        ExportService.Format format = choixFormat == 1 ? ExportService.Format.CSV : ExportService.Format.BINAIRE;
+        
+        System.out.print("Compresser en gzip (o/n): ");
+        boolean compresse = scanner.nextLine().trim().equalsIgnoreCase("o");
+        
+        System.out.print("Date de debut (DD/MM/YYYY, vide pour aucune): ");
+        String debutStr = scanner.nextLine().trim();
+        System.out.print("Date de fin (DD/MM/YYYY, vide pour aucune): ");
+        String finStr = scanner.nextLine().trim();
+        Optional<LocalDate> debut = debutStr.isEmpty() ? Optional.empty() : DateUtil.parseDate(debutStr);
+        Optional<LocalDate> fin = finStr.isEmpty() ? Optional.empty() : DateUtil.parseDate(finStr);
+        if ((!debutStr.isEmpty() && debut.isEmpty()) || (!finStr.isEmpty() && fin.isEmpty())) {
+            System.out.println("X Format de date invalide. Utilisez DD/MM/YYYY");
+            return;
+        }
+        
+        System.out.print("ID du compte (vide pour tous): ");
+        String compteStr = scanner.nextLine().trim();
+        System.out.print("ID du client (vide pour tous): ");
+        String clientStr = scanner.nextLine().trim();
+        if ((!compteStr.isEmpty() && !ValidationUtil.isValidId(compteStr))
+                || (!clientStr.isEmpty() && !ValidationUtil.isValidId(clientStr))) {
+            System.out.println("X ID invalide.");
+            return;
+        }
+        
+        System.out.print("Fichier de sortie: ");
+        Path fichier = Path.of(scanner.nextLine().trim());
+        
+        ExportService.Criteres criteres = new ExportService.Criteres(
+            debut.map(LocalDate::atStartOfDay).orElse(null),
+            fin.map(date -> date.atTime(LocalTime.MAX)).orElse(null),
+            compteStr.isEmpty() ? null : ValidationUtil.parseId(compteStr),
+            clientStr.isEmpty() ? null : ValidationUtil.parseId(clientStr)
+        );
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ExportService.Resultat resultat = exportService.exporter(canal, format, compresse, criteres);
+            System.out.printf("√ %d transactions exportees en %.1f s (%d octets)%n",
+                    resultat.lignes(), resultat.dureeMs() / 1000.0, resultat.octets());
+        } catch (IOException | DataAccessException e) {
+            System.out.println("X Erreur lors de l'export: " + e.getMessage());
+            try {
+                Files.deleteIfExists(fichier);
+            } catch (IOException suppression) {
+                System.out.println("X Fichier partiel non supprime: " + fichier);
+            }
+        }
+    }
+    
     private void consulterHistoriqueCompte() {
         System.out.println("\n= Historique d'un compte");
         
@@ -581,14 +698,8 @@ public class MenuPrincipal {
         }
         
         Long compteId = ValidationUtil.parseId(compteIdStr);
-        List<Transaction> transactions = transactionService.listerTransactionsParCompte(compteId);
-        
-        if (transactions.isEmpty()) {
-            System.out.println("X Aucune transaction trouvee pour ce compte.");
-        } else {
-            System.out.printf("√ %d transaction(s) trouvee(s):%n%n", transactions.size());
-            transactions.forEach(this::afficherTransaction);
-        }
+        afficherPages(curseur -> transactionService.consulterPageCompte(compteId, curseur, TAILLE_PAGE),
+                "X Aucune transaction trouvee pour ce compte.");
     }
     
     private void consulterHistoriqueClient() {
@@ -603,13 +714,31 @@ public class MenuPrincipal {
         }
         
         Long clientId = ValidationUtil.parseId(clientIdStr);
-        List<Transaction> transactions = transactionService.listerTransactionsParClient(clientId);
+        afficherPages(curseur -> transactionService.consulterPageClient(clientId, curseur, TAILLE_PAGE),
+                "X Aucune transaction trouvee pour ce client.");
+    }
+    
+    private void afficherPages(Function<String, TransactionPage> chargerPage, String messageVide) {
+        TransactionPage page = chargerPage.apply(null);
+        if (page.transactions().isEmpty()) {
+            System.out.println(messageVide);
+            return;
+        }
         
-        if (transactions.isEmpty()) {
-            System.out.println("X Aucune transaction trouvee pour ce client.");
-        } else {
-            System.out.printf("√ %d transaction(s) trouvee(s):%n%n", transactions.size());
-            transactions.forEach(this::afficherTransaction);
+        int numero = 1;
+        while (true) {
+            System.out.printf("√ Page %d - %d transaction(s):%n%n", numero, page.transactions().size());
+            page.transactions().forEach(this::afficherTransaction);
+            
+            if (!page.hasNext()) {
+                return;
+            }
+            System.out.print("\nEntree pour la page suivante, 0 pour arreter: ");
+            if (scanner.nextLine().trim().equals("0")) {
+                return;
+            }
+            page = chargerPage.apply(page.nextToken());
+            numero++;
         }
     }
     
@@ -0,0 +1,249 @@
+package com.solubank.util;
+
+import javax.sql.DataSource;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+public class AsyncExecutor implements AutoCloseable {
+
+    public record Statistics(
+        boolean virtuel,
+        int concurrenceMax,
+        long soumises,
+        long terminees,
+        long echouees,
+        long annulees,
+        long expirees,
+        int enCours,
+        int enAttente
+    ) {}
+
+    public static final long SANS_DELAI = 0;
+
+    private static final int CONCURRENCE_PAR_DEFAUT = 10;
+    // Connexions laissées hors permis: fil interactif et vidange du journal empruntent sans passer par l'exécuteur
+    private static final int CONNEXIONS_RESERVEES = 2;
+
+    private static AsyncExecutor partage;
+
+    private final ExecutorService executeur;
+    private final ExecutorService coordination;
+    private final boolean virtuel;
+    private final int concurrenceMax;
+    private final Semaphore permis;
+
+    private final AtomicLong soumises = new AtomicLong();
+    private final AtomicLong terminees = new AtomicLong();
+    private final AtomicLong echouees = new AtomicLong();
+    private final AtomicLong annulees = new AtomicLong();
+    private final AtomicLong expirees = new AtomicLong();
+    private final AtomicInteger enCours = new AtomicInteger();
+    private final AtomicInteger enAttente = new AtomicInteger();
+
+    public AsyncExecutor(int concurrenceMax) {
+        if (concurrenceMax <= 0) {
+            throw new IllegalArgumentException("Concurrence maximale invalide: " + concurrenceMax);
+        }
+        this.concurrenceMax = concurrenceMax;
+        this.permis = new Semaphore(concurrenceMax, true);
+        ExecutorService virtuels = executeurVirtuel();
+        this.virtuel = virtuels != null;
+        if (virtuel) {
+            this.executeur = virtuels;
+            this.coordination = virtuels;
+        } else {
+            AtomicInteger numero = new AtomicInteger();
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(concurrenceMax, concurrenceMax, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), r -> demon(r, "solubank-async-" + numero.incrementAndGet()));
+            pool.allowCoreThreadTimeOut(true);
+            this.executeur = pool;
+            AtomicInteger numeroCoordination = new AtomicInteger();
+            this.coordination = Executors.newCachedThreadPool(
+                r -> demon(r, "solubank-async-coordination-" + numeroCoordination.incrementAndGet()));
+        }
+    }
+
+    public static synchronized AsyncExecutor partage() {
+        if (partage == null) {
+            DataSource dataSource = DatabaseConnection.getDataSource();
+            partage = new AsyncExecutor(dataSource instanceof ConnectionPool pool
+                ? Math.max(1, pool.getMaxSize() - CONNEXIONS_RESERVEES)
+                : CONCURRENCE_PAR_DEFAUT);
+        }
+        return partage;
+    }
+
+    public static synchronized void fermerPartage() {
+        if (partage != null) {
+            partage.close();
+            partage = null;
+        }
+    }
+
+    public <T> CompletableFuture<T> soumettre(Callable<T> tache) {
+        return soumettre(tache, SANS_DELAI);
+    }
+
+    public <T> CompletableFuture<T> soumettre(Callable<T> tache, long delaiMs) {
+        return executer(executeur, tache, true, delaiMs);
+    }
+
+    public <T> CompletableFuture<T> coordonner(Callable<T> tache, long delaiMs) {
+        return executer(coordination, tache, false, delaiMs);
+    }
+
+    public <T> T executerAvecPermis(Callable<T> tache) throws Exception {
+        // Exécution dans le fil appelant, mais sur le même budget de connexions que les tâches soumises
+        enAttente.incrementAndGet();
+        try {
+            permis.acquire();
+        } finally {
+            enAttente.decrementAndGet();
+        }
+        soumises.incrementAndGet();
+        enCours.incrementAndGet();
+        try {
+            T valeur = tache.call();
+            terminees.incrementAndGet();
+            return valeur;
+        } catch (Exception e) {
+            echouees.incrementAndGet();
+            throw e;
+        } finally {
+            enCours.decrementAndGet();
+            permis.release();
+        }
+    }
+
+    public int getConcurrenceMax() {
+        return concurrenceMax;
+    }
+
+    public Executor executeurCoordination() {
+        return coordination;
+    }
+
+    public boolean estVirtuel() {
+        return virtuel;
+    }
+
+    public Statistics getStatistics() {
+        return new Statistics(
+            virtuel,
+            concurrenceMax,
+            soumises.get(),
+            terminees.get(),
+            echouees.get(),
+            annulees.get(),
+            expirees.get(),
+            enCours.get(),
+            enAttente.get()
+        );
+    }
+
+    @Override
+    public void close() {
+        executeur.shutdownNow();
+        coordination.shutdownNow();
+    }
+
+    private <T> CompletableFuture<T> executer(ExecutorService cible, Callable<T> tache, boolean limitee, long delaiMs) {
+        CompletableFuture<T> resultat = new CompletableFuture<>();
+        Echeance echeance = delaiMs > 0 ? new Echeance(delaiMs) : null;
+        soumises.incrementAndGet();
+        Future<?> execution;
+        try {
+            execution = cible.submit(() -> lancer(tache, limitee, resultat, echeance));
+        } catch (RuntimeException e) {
+            echouees.incrementAndGet();
+            resultat.completeExceptionally(e);
+            return resultat;
+        }
+
+        resultat.whenComplete((valeur, erreur) -> {
+            // L'interruption ne débloque pas une lecture JDBC: les requêtes en cours sont annulées sur le serveur
+            if (echeance != null && (erreur instanceof CancellationException || erreur instanceof TimeoutException)) {
+                echeance.annuler();
+            }
+            if (erreur instanceof CancellationException) {
+                annulees.incrementAndGet();
+                execution.cancel(true);
+            } else if (erreur instanceof TimeoutException) {
+                expirees.incrementAndGet();
+                execution.cancel(true);
+            }
+        });
+        if (delaiMs > 0) {
+            resultat.orTimeout(delaiMs, TimeUnit.MILLISECONDS);
+        }
+        return resultat;
+    }
+
+    private <T> void lancer(Callable<T> tache, boolean limitee, CompletableFuture<T> resultat, Echeance echeance) {
+        if (resultat.isDone()) {
+            return;
+        }
+        boolean acquis = false;
+        try {
+            if (limitee) {
+                enAttente.incrementAndGet();
+                try {
+                    permis.acquire();
+                    acquis = true;
+                } finally {
+                    enAttente.decrementAndGet();
+                }
+                if (resultat.isDone()) {
+                    return;
+                }
+            }
+            enCours.incrementAndGet();
+            try {
+                T valeur = echeance != null ? echeance.executer(tache) : tache.call();
+                if (resultat.complete(valeur)) {
+                    terminees.incrementAndGet();
+                }
+            } finally {
+                enCours.decrementAndGet();
+            }
+        } catch (InterruptedException e) {
+            resultat.completeExceptionally(new CancellationException("Tâche interrompue"));
+        } catch (Throwable e) {
+            if (resultat.completeExceptionally(e)) {
+                echouees.incrementAndGet();
+            }
+        } finally {
+            if (acquis) {
+                permis.release();
+            }
+        }
+    }
+
+    private static ExecutorService executeurVirtuel() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Threads virtuels indisponibles (JDK < 21): repli sur un pool de threads borné
+            return null;
+        }
+    }
+
+    private static Thread demon(Runnable tache, String nom) {
+        Thread thread = new Thread(tache, nom);
+        thread.setDaemon(true);
+        return thread;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,384 @@
+package com.solubank.util;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTimeoutException;
+import java.util.Iterator;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+
+public class ConnectionPool implements DataSource, AutoCloseable {
+
+    public record Config(
+        int minIdle,
+        int maxSize,
+        long borrowTimeoutMs,
+        long validationIdleMs,
+        long idleTimeoutMs,
+        int statementCacheSize
+    ) {
+        public Config {
+            if (minIdle < 0 || maxSize <= 0 || minIdle > maxSize) {
+                throw new IllegalArgumentException("Taille du pool invalide: min=" + minIdle + ", max=" + maxSize);
+            }
+            if (borrowTimeoutMs < 0) {
+                throw new IllegalArgumentException("Délai d'attente invalide: " + borrowTimeoutMs);
+            }
+            if (statementCacheSize < 0) {
+                throw new IllegalArgumentException("Taille du cache d'instructions invalide: " + statementCacheSize);
+            }
+        }
+
+        public static Config defaults() {
+            return new Config(2, 10, 5_000, 1_000, 300_000, 64);
+        }
+    }
+
+    public record Statistics(
+        long leases,
+        long waits,
+        long timeouts,
+        long created,
+        long discarded,
+        int active,
+        int idle,
+        long statementCacheHits,
+        long statementCacheMisses,
+        long statementCacheEvictions
+    ) {}
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+    private static final long MAINTENANCE_INTERVAL_MS = 30_000;
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final Config config;
+
+    private final BlockingDeque<IdleConnection> idle = new LinkedBlockingDeque<>();
+    private final Semaphore permits;
+    private final AtomicInteger total = new AtomicInteger();
+    private final ScheduledExecutorService maintenance;
+    private volatile boolean closed;
+
+    private final AtomicLong leases = new AtomicLong();
+    private final AtomicLong waits = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong discarded = new AtomicLong();
+    private final StatementCache.Counters statementCounters = new StatementCache.Counters();
+
+    public ConnectionPool(String url, String username, String password, Config config) {
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.config = config;
+        this.permits = new Semaphore(config.maxSize(), true);
+        this.maintenance = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "solubank-pool-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.maintenance.scheduleWithFixedDelay(this::maintain, 0, MAINTENANCE_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Le pool de connexions est fermé");
+        }
+        acquirePermit();
+        try {
+            PhysicalConnection physical = takeValidConnection();
+            leases.incrementAndGet();
+            return wrap(physical);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Le pool utilise des identifiants fixes");
+    }
+
+    public Statistics getStatistics() {
+        int idleCount = idle.size();
+        return new Statistics(
+            leases.get(),
+            waits.get(),
+            timeouts.get(),
+            created.get(),
+            discarded.get(),
+            total.get() - idleCount,
+            idleCount,
+            statementCounters.hits().get(),
+            statementCounters.misses().get(),
+            statementCounters.evictions().get()
+        );
+    }
+
+    public int getMaxSize() {
+        return config.maxSize();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        maintenance.shutdownNow();
+        IdleConnection entry;
+        while ((entry = idle.pollFirst()) != null) {
+            discard(entry.physical());
+        }
+    }
+
+    private void acquirePermit() throws SQLException {
+        if (permits.tryAcquire()) {
+            return;
+        }
+        waits.incrementAndGet();
+        try {
+            if (!permits.tryAcquire(config.borrowTimeoutMs(), TimeUnit.MILLISECONDS)) {
+                timeouts.incrementAndGet();
+                throw new SQLTimeoutException("Aucune connexion disponible après " + config.borrowTimeoutMs() + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Attente d'une connexion interrompue", e);
+        }
+    }
+
+    private PhysicalConnection takeValidConnection() throws SQLException {
+        IdleConnection entry;
+        while ((entry = idle.pollFirst()) != null) {
+            long idleMs = System.currentTimeMillis() - entry.since();
+            if (idleMs < config.validationIdleMs() || isValid(entry.physical().connection())) {
+                return entry.physical();
+            }
+            discard(entry.physical());
+        }
+        return openPhysical();
+    }
+
+    private PhysicalConnection openPhysical() throws SQLException {
+        Connection connection = DriverManager.getConnection(url, username, password);
+        total.incrementAndGet();
+        created.incrementAndGet();
+        StatementCache cache = config.statementCacheSize() > 0
+            ? new StatementCache(connection, config.statementCacheSize(), statementCounters)
+            : null;
+        return new PhysicalConnection(connection, cache);
+    }
+
+    private boolean isValid(Connection connection) {
+        try {
+            return connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void release(PhysicalConnection physical, boolean broken) {
+        try {
+            Connection connection = physical.connection();
+            if (closed || broken || connection.isClosed()) {
+                discard(physical);
+                return;
+            }
+            if (physical.statements() != null) {
+                physical.statements().releaseAll();
+            }
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+            idle.offerFirst(new IdleConnection(physical, System.currentTimeMillis()));
+        } catch (SQLException e) {
+            discard(physical);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void discard(PhysicalConnection physical) {
+        total.decrementAndGet();
+        discarded.incrementAndGet();
+        if (physical.statements() != null) {
+            physical.statements().close();
+        }
+        try {
+            physical.connection().close();
+        } catch (SQLException ignored) {
+            // La connexion est abandonnée de toute façon
+        }
+    }
+
+    private void maintain() {
+        long now = System.currentTimeMillis();
+        Iterator<IdleConnection> oldestFirst = idle.descendingIterator();
+        while (oldestFirst.hasNext() && idle.size() > config.minIdle()) {
+            IdleConnection entry = oldestFirst.next();
+            if (now - entry.since() > config.idleTimeoutMs() && idle.removeLastOccurrence(entry)) {
+                discard(entry.physical());
+            }
+        }
+        while (!closed && idle.size() < config.minIdle() && total.get() < config.maxSize()) {
+            // Le remplissage prend un permis comme un emprunteur: total ne peut pas dépasser maxSize
+            if (!permits.tryAcquire()) {
+                return;
+            }
+            try {
+                if (total.get() >= config.maxSize()) {
+                    return;
+                }
+                idle.offerLast(new IdleConnection(openPhysical(), now));
+            } catch (SQLException e) {
+                System.err.println("Erreur lors de l'ouverture d'une connexion du pool: " + e.getMessage());
+                return;
+            } finally {
+                permits.release();
+            }
+        }
+    }
+
+    private Connection wrap(PhysicalConnection physical) {
+        return (Connection) Proxy.newProxyInstance(
+            ConnectionPool.class.getClassLoader(),
+            new Class<?>[] { Connection.class },
+            new PooledConnectionHandler(physical)
+        );
+    }
+
+    private record PhysicalConnection(Connection connection, StatementCache statements) {}
+
+    private record IdleConnection(PhysicalConnection physical, long since) {}
+
+    private final class PooledConnectionHandler implements InvocationHandler {
+        private final PhysicalConnection physical;
+        private boolean released;
+        private boolean broken;
+
+        PooledConnectionHandler(PhysicalConnection physical) {
+            this.physical = physical;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (!released) {
+                        released = true;
+                        release(physical, broken);
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    return released || physical.connection().isClosed();
+                }
+                case "unwrap" -> {
+                    return physical.connection().unwrap((Class<?>) args[0]);
+                }
+                case "isWrapperFor" -> {
+                    Class<?> iface = (Class<?>) args[0];
+                    return iface.isInstance(physical.connection()) || physical.connection().isWrapperFor(iface);
+                }
+                case "toString" -> {
+                    return "PooledConnection[" + physical.connection() + "]";
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                default -> {
+                    if (released) {
+                        throw new SQLException("Connexion déjà rendue au pool");
+                    }
+                    if (isCacheable(method, args)) {
+                        return args.length == 1
+                            ? physical.statements().prepare((Connection) proxy, (String) args[0])
+                            : physical.statements().prepare((Connection) proxy, (String) args[0], (Integer) args[1]);
+                    }
+                    try {
+                        return method.invoke(physical.connection(), args);
+                    } catch (InvocationTargetException e) {
+                        Throwable cause = e.getCause();
+                        if (cause instanceof SQLException sqlException && isFatal(sqlException)) {
+                            broken = true;
+                        }
+                        throw cause;
+                    }
+                }
+            }
+        }
+
+        private boolean isCacheable(Method method, Object[] args) {
+            if (physical.statements() == null || !method.getName().equals("prepareStatement")) {
+                return false;
+            }
+            Class<?>[] types = method.getParameterTypes();
+            return types.length == 1 || (types.length == 2 && types[1] == int.class);
+        }
+
+        private boolean isFatal(SQLException e) {
+            String state = e.getSQLState();
+            return state != null && state.startsWith("08");
+        }
+    }
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return null;
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+        // Non utilisé: les erreurs sont écrites sur System.err
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) {
+        DriverManager.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return DriverManager.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException("Logger non supporté");
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("Non compatible avec " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+}
@@ -1,23 +1,30 @@
 package com.solubank.util;
 
+import javax.sql.DataSource;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
 public class DatabaseConnection {
 
-    private static final String URL = "jdbc:mysql://localhost:3306/bank_anomaly_db";
+    private static final String URL = "jdbc:mysql://localhost:3306/bank_anomaly_db?useServerPrepStmts=true&rewriteBatchedStatements=true&useCursorFetch=true";
     private static final String USERNAME = "root";
     private static final String PASSWORD = "";
 
-    private static Connection connection;
+    private static ConnectionPool pool;
     private static boolean firstConnection = true;
 
     private DatabaseConnection() {}
 
-    public static synchronized Connection getConnection() throws SQLException {
-        if (connection == null || connection.isClosed()) {
-            connection = DriverManager.getConnection(URL, USERNAME, PASSWORD);
+    public static synchronized DataSource getDataSource() {
+        if (pool == null) {
+            pool = new ConnectionPool(URL, USERNAME, PASSWORD, ConnectionPool.Config.defaults());
+        }
+        return pool;
+    }
+
+    public static Connection getConnection() throws SQLException {
+        Connection connection = getDataSource().getConnection();
+        synchronized (DatabaseConnection.class) {
             if (firstConnection) {
                 System.out.println("Connexion établie avec succès !");
                 firstConnection = false;
@@ -26,16 +33,16 @@ public class DatabaseConnection {
         return connection;
     }
 
+    public static synchronized ConnectionPool.Statistics getStatistics() {
+        return pool == null ? null : pool.getStatistics();
+    }
+
     public static synchronized void closeConnection() {
-        if (connection != null) {
-            try {
-                connection.close();
-                connection = null; 
-                System.out.println("Connexion fermée avec succès !");
-                firstConnection = true; // Reset for next session
-            } catch (SQLException e) {
-                System.err.println("Erreur lors de la fermeture de la connexion: " + e.getMessage());
-            }
+        if (pool != null) {
+            pool.close();
+            pool = null;
+            System.out.println("Connexion fermée avec succès !");
+            firstConnection = true; // Reset for next session
         }
     }
 }
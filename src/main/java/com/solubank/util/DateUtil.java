@@ -2,6 +2,8 @@ package com.solubank.util;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.Year;
 import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
@@ -33,6 +35,26 @@ public class DateUtil {
     }
     
     
+    public static LocalDateTime lireDateTime(CharSequence texte) {
+        if (texte == null || texte.length() != 16 || texte.charAt(2) != '/' || texte.charAt(5) != '/'
+                || texte.charAt(10) != ' ' || texte.charAt(13) != ':') {
+            return null;
+        }
+        int jour = chiffres(texte, 0, 2);
+        int mois = chiffres(texte, 3, 5);
+        int annee = chiffres(texte, 6, 10);
+        int heure = chiffres(texte, 11, 13);
+        int minute = chiffres(texte, 14, 16);
+        if (jour < 1 || jour > 31 || mois < 1 || mois > 12 || annee < 1 || heure < 0 || heure > 23
+                || minute < 0 || minute > 59) {
+            return null;
+        }
+        // Même résolution que DATETIME_FORMATTER: un 31 avril devient le 30 avril
+        int dernierJour = Month.of(mois).length(Year.isLeap(annee));
+        return LocalDateTime.of(annee, mois, Math.min(jour, dernierJour), heure, minute);
+    }
+    
+    
     public static Optional<YearMonth> parseMonth(String monthStr) {
         try {
             return Optional.of(YearMonth.parse(monthStr, MONTH_FORMATTER));
@@ -42,6 +64,19 @@ public class DateUtil {
     }
     
     
+    private static int chiffres(CharSequence texte, int debut, int fin) {
+        int valeur = 0;
+        for (int i = debut; i < fin; i++) {
+            char c = texte.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            valeur = valeur * 10 + (c - '0');
+        }
+        return valeur;
+    }
+    
+    
     public static String formatDate(LocalDate date) {
         return date.format(DATE_FORMATTER);
     }
@@ -0,0 +1,73 @@
+package com.solubank.util;
+
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+
+public final class Echeance {
+
+    private static final ThreadLocal<Echeance> COURANTE = new ThreadLocal<>();
+    private static final Suivi SANS_SUIVI = () -> { };
+
+    @FunctionalInterface
+    public interface Suivi extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private final long limiteNanos;
+    // Requêtes en cours: annulées côté serveur si l'échéance tombe pendant l'exécution ou la lecture
+    private final Set<Statement> requetes = new HashSet<>();
+    private boolean annulee;
+
+    Echeance(long delaiMs) {
+        this.limiteNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delaiMs);
+    }
+
+    <T> T executer(Callable<T> tache) throws Exception {
+        COURANTE.set(this);
+        try {
+            return tache.call();
+        } finally {
+            COURANTE.remove();
+        }
+    }
+
+    // À appeler avant executeQuery; le suivi doit être fermé avant la fermeture de la requête
+    public static Suivi suivre(Statement requete) throws SQLException {
+        Echeance echeance = COURANTE.get();
+        return echeance == null ? SANS_SUIVI : echeance.enregistrer(requete);
+    }
+
+    private synchronized Suivi enregistrer(Statement requete) throws SQLException {
+        long restantMs = TimeUnit.NANOSECONDS.toMillis(limiteNanos - System.nanoTime());
+        if (annulee || restantMs <= 0) {
+            throw new SQLTimeoutException("Délai dépassé avant l'exécution de la requête");
+        }
+        requete.setQueryTimeout((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(restantMs + 999)));
+        requetes.add(requete);
+        return () -> retirer(requete);
+    }
+
+    private synchronized void retirer(Statement requete) {
+        requetes.remove(requete);
+    }
+
+    synchronized void annuler() {
+        // Sous le moniteur: une requête rendue au cache après retirer() ne peut plus être annulée par erreur
+        annulee = true;
+        for (Statement requete : requetes) {
+            try {
+                requete.cancel();
+            } catch (SQLException e) {
+                System.err.println("Erreur lors de l'annulation d'une requête: " + e.getMessage());
+            }
+        }
+        requetes.clear();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,94 @@
+package com.solubank.util;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+
+public class EntityCache<K, V> {
+
+    public record Statistics(long hits, long misses, long evictions, long expirations, int size) {}
+
+    private record Entry<V>(V value, long expiresAt) {}
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final UnaryOperator<V> copier;
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    // Jeton du dernier chargement lancé par clé: une invalidation de cette clé seule l'annule
+    private final Map<K, Long> loads = new HashMap<>();
+
+    private long nextToken;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+
+    public EntityCache(int maxSize, Duration ttl, UnaryOperator<V> copier) {
+        if (maxSize <= 0 || ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("Configuration de cache invalide: taille=" + maxSize + ", ttl=" + ttl);
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.copier = copier;
+    }
+
+    public Optional<V> get(K key, Function<K, Optional<V>> loader) {
+        long token;
+        synchronized (this) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null) {
+                if (entry.expiresAt() - System.nanoTime() > 0) {
+                    hits++;
+                    return Optional.of(copier.apply(entry.value()));
+                }
+                entries.remove(key);
+                expirations++;
+            }
+            misses++;
+            token = ++nextToken;
+            loads.put(key, token);
+        }
+
+        Optional<V> loaded = Optional.empty();
+        try {
+            loaded = loader.apply(key);
+            return loaded;
+        } finally {
+            store(key, loaded.map(copier), token);
+        }
+    }
+
+    public synchronized void invalidate(K key) {
+        entries.remove(key);
+        loads.remove(key);
+    }
+
+    public synchronized void invalidateAll() {
+        entries.clear();
+        loads.clear();
+    }
+
+    public synchronized Statistics getStatistics() {
+        return new Statistics(hits, misses, evictions, expirations, entries.size());
+    }
+
+    private synchronized void store(K key, Optional<V> value, long token) {
+        if (!loads.remove(key, token) || value.isEmpty()) {
+            // Cette clé a été écrite pendant le chargement, ou un chargement plus récent la remplira
+            return;
+        }
+        entries.put(key, new Entry<>(value.get(), System.nanoTime() + ttlNanos));
+        Iterator<Map.Entry<K, Entry<V>>> eldestFirst = entries.entrySet().iterator();
+        while (entries.size() > maxSize && eldestFirst.hasNext()) {
+            eldestFirst.next();
+            eldestFirst.remove();
+            evictions++;
+        }
+    }
+}
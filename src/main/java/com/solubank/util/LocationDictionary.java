@@ -0,0 +1,187 @@
+package com.solubank.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+public class LocationDictionary {
+
+    public static final int INCONNU = -1;
+    public static final int MAX_LIEUX = 1 << 24;
+
+    private static final int MAGIC = 0x534F4C49;
+    private static final int VERSION = 1;
+    private static final int CAPACITE_PAR_DEFAUT = 1 << 16;
+    private static final int VARIANTES_PAR_LIEU = 4;
+    private static final Path FICHIER_PARTAGE = Path.of(
+        System.getProperty("solubank.detection.dir", "data"), "lieux.bin");
+
+    private record Entree(int id, String canonique) {}
+
+    private final int capacite;
+    private final ConcurrentHashMap<String, Entree> entrees = new ConcurrentHashMap<>();
+    private final List<String> lieux = new ArrayList<>();
+
+    public LocationDictionary() {
+        this(CAPACITE_PAR_DEFAUT);
+    }
+
+    public LocationDictionary(int capacite) {
+        if (capacite <= 0 || capacite > MAX_LIEUX) {
+            throw new IllegalArgumentException("Capacité du dictionnaire de lieux invalide: " + capacite);
+        }
+        this.capacite = capacite;
+    }
+
+    public static LocationDictionary partage() {
+        return Partage.INSTANCE;
+    }
+
+    public static void sauvegarderPartage() throws IOException {
+        partage().sauvegarder(FICHIER_PARTAGE);
+    }
+
+    public int rechercher(String lieu) {
+        if (lieu == null) {
+            return INCONNU;
+        }
+        Entree entree = entrees.get(lieu);
+        if (entree != null) {
+            return entree.id();
+        }
+        entree = entrees.get(normaliser(lieu));
+        if (entree == null) {
+            return INCONNU;
+        }
+        ajouterVariante(lieu, entree.id());
+        return entree.id();
+    }
+
+    public int encoder(String lieu) {
+        if (lieu == null) {
+            return INCONNU;
+        }
+        Entree entree = entrees.get(lieu);
+        return entree != null ? entree.id() : inserer(lieu);
+    }
+
+    public String canonique(String lieu) {
+        if (lieu == null) {
+            return null;
+        }
+        Entree entree = entrees.get(lieu);
+        if (entree == null) {
+            inserer(lieu);
+            entree = entrees.get(lieu);
+        }
+        return entree == null ? lieu : entree.canonique();
+    }
+
+    public synchronized String lieu(int id) {
+        return id >= 0 && id < lieux.size() ? lieux.get(id) : null;
+    }
+
+    public synchronized int taille() {
+        return lieux.size();
+    }
+
+    public void sauvegarder(Path fichier) throws IOException {
+        Path dossier = fichier.toAbsolutePath().getParent();
+        Files.createDirectories(dossier);
+        Path temporaire = Files.createTempFile(dossier, "lieux", ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temporaire)))) {
+                synchronized (this) {
+                    out.writeInt(MAGIC);
+                    out.writeInt(VERSION);
+                    out.writeInt(lieux.size());
+                    for (String lieu : lieux) {
+                        out.writeUTF(lieu);
+                    }
+                }
+            }
+            Files.move(temporaire, fichier, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporaire);
+        }
+    }
+
+    public static LocationDictionary charger(Path fichier) throws IOException {
+        return charger(fichier, CAPACITE_PAR_DEFAUT);
+    }
+
+    public static LocationDictionary charger(Path fichier, int capacite) throws IOException {
+        LocationDictionary dictionnaire = new LocationDictionary(capacite);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(fichier)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Format de dictionnaire de lieux inconnu: " + fichier);
+            }
+            int nombre = in.readInt();
+            if (nombre > capacite) {
+                throw new IOException("Le dictionnaire " + fichier + " dépasse la capacité de " + capacite + " lieux");
+            }
+            for (int id = 0; id < nombre; id++) {
+                String lieu = in.readUTF();
+                dictionnaire.lieux.add(lieu);
+                dictionnaire.entrees.put(lieu, new Entree(id, lieu));
+            }
+        } catch (NoSuchFileException e) {
+            // Premier démarrage: dictionnaire vide
+        }
+        return dictionnaire;
+    }
+
+    private synchronized int inserer(String lieu) {
+        Entree entree = entrees.get(lieu);
+        if (entree != null) {
+            return entree.id();
+        }
+        String normalise = normaliser(lieu);
+        Entree reference = entrees.get(normalise);
+        if (reference == null) {
+            if (lieux.size() >= capacite) {
+                return INCONNU;
+            }
+            reference = new Entree(lieux.size(), normalise);
+            lieux.add(normalise);
+            entrees.put(normalise, reference);
+        }
+        ajouterVariante(lieu, reference.id());
+        return reference.id();
+    }
+
+    private void ajouterVariante(String lieu, int id) {
+        if (entrees.size() < capacite * VARIANTES_PAR_LIEU) {
+            entrees.putIfAbsent(lieu, new Entree(id, lieu));
+        }
+    }
+
+    private static String normaliser(String lieu) {
+        return lieu.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Partage {
+        private static final LocationDictionary INSTANCE = chargerPartage();
+
+        private static LocationDictionary chargerPartage() {
+            try {
+                return charger(FICHIER_PARTAGE);
+            } catch (IOException e) {
+                System.err.println("Erreur lors du chargement du dictionnaire des lieux: " + e.getMessage());
+                return new LocationDictionary();
+            }
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.solubank.util;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+class StatementCache {
+
+    record Counters(AtomicLong hits, AtomicLong misses, AtomicLong evictions) {
+        Counters() {
+            this(new AtomicLong(), new AtomicLong(), new AtomicLong());
+        }
+    }
+
+    private record Key(String sql, int autoGeneratedKeys) {}
+
+    private final Connection physical;
+    private final int maxSize;
+    private final Counters counters;
+    private final LinkedHashMap<Key, CachedStatement> statements = new LinkedHashMap<>(16, 0.75f, true);
+
+    StatementCache(Connection physical, int maxSize, Counters counters) {
+        this.physical = physical;
+        this.maxSize = maxSize;
+        this.counters = counters;
+    }
+
+    PreparedStatement prepare(Connection owner, String sql) throws SQLException {
+        return prepare(owner, sql, Statement.NO_GENERATED_KEYS);
+    }
+
+    PreparedStatement prepare(Connection owner, String sql, int autoGeneratedKeys) throws SQLException {
+        Key key = new Key(sql, autoGeneratedKeys);
+        CachedStatement cached = statements.get(key);
+        if (cached != null && !cached.inUse && !cached.statement.isClosed()) {
+            counters.hits().incrementAndGet();
+            return cached.lease(owner);
+        }
+        counters.misses().incrementAndGet();
+        PreparedStatement statement = physical.prepareStatement(sql, autoGeneratedKeys);
+        if (cached != null && cached.inUse) {
+            // Même requête déjà ouverte sur cette connexion: instruction non mise en cache
+            return statement;
+        }
+        CachedStatement created = new CachedStatement(statement);
+        statements.put(key, created);
+        evictOverflow();
+        return created.lease(owner);
+    }
+
+    void releaseAll() {
+        for (CachedStatement cached : statements.values()) {
+            if (cached.inUse) {
+                try {
+                    cached.reset();
+                } catch (SQLException e) {
+                    closeQuietly(cached.statement);
+                }
+            }
+        }
+    }
+
+    void close() {
+        for (CachedStatement cached : statements.values()) {
+            closeQuietly(cached.statement);
+        }
+        statements.clear();
+    }
+
+    private void evictOverflow() {
+        Iterator<CachedStatement> eldestFirst = statements.values().iterator();
+        while (statements.size() > maxSize && eldestFirst.hasNext()) {
+            CachedStatement eldest = eldestFirst.next();
+            if (eldest.inUse) {
+                continue;
+            }
+            eldestFirst.remove();
+            closeQuietly(eldest.statement);
+            counters.evictions().incrementAndGet();
+        }
+    }
+
+    private static void closeQuietly(Statement statement) {
+        try {
+            statement.close();
+        } catch (SQLException ignored) {
+            // Instruction abandonnée
+        }
+    }
+
+    private static final class CachedStatement {
+        private final PreparedStatement statement;
+        private final List<ResultSet> openResults = new ArrayList<>();
+        private boolean inUse;
+
+        CachedStatement(PreparedStatement statement) {
+            this.statement = statement;
+        }
+
+        PreparedStatement lease(Connection owner) {
+            inUse = true;
+            boolean[] released = { false };
+            return (PreparedStatement) Proxy.newProxyInstance(
+                StatementCache.class.getClassLoader(),
+                new Class<?>[] { PreparedStatement.class },
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "close" -> {
+                            if (!released[0]) {
+                                released[0] = true;
+                                reset();
+                            }
+                            return null;
+                        }
+                        case "isClosed" -> {
+                            return released[0] || statement.isClosed();
+                        }
+                        case "getConnection" -> {
+                            return owner;
+                        }
+                        case "hashCode" -> {
+                            return System.identityHashCode(proxy);
+                        }
+                        case "equals" -> {
+                            return proxy == args[0];
+                        }
+                        default -> {
+                            if (released[0]) {
+                                throw new SQLException("Instruction déjà fermée");
+                            }
+                            Object result;
+                            try {
+                                result = method.invoke(statement, args);
+                            } catch (InvocationTargetException e) {
+                                throw e.getCause();
+                            }
+                            if (result instanceof ResultSet resultSet) {
+                                openResults.add(resultSet);
+                            }
+                            return result;
+                        }
+                    }
+                }
+            );
+        }
+
+        private void reset() throws SQLException {
+            try {
+                for (ResultSet resultSet : openResults) {
+                    resultSet.close();
+                }
+                statement.clearParameters();
+                statement.clearBatch();
+                // Le délai posé par une échéance ne doit pas suivre l'instruction chez l'emprunteur suivant
+                statement.setQueryTimeout(0);
+            } finally {
+                openResults.clear();
+                inUse = false;
+            }
+        }
+    }
+}
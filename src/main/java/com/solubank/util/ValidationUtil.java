@@ -6,6 +6,8 @@ import java.util.regex.Pattern;
 
 public class ValidationUtil {
     
+    public static final int LONGUEUR_LIEU_MAX = 200;
+    
     private static final Pattern EMAIL_PATTERN = 
         Pattern.compile("^[A-Za-z0-9+_.-]+@(.+)$");
     
@@ -41,6 +43,11 @@ public class ValidationUtil {
     }
     
     
+    public static boolean isValidLieu(String lieu) {
+        return lieu == null || lieu.length() <= LONGUEUR_LIEU_MAX;
+    }
+    
+    
     public static boolean isValidNom(String nom) {
         return nom != null && !nom.trim().isEmpty();
     }
@@ -64,6 +71,57 @@ public class ValidationUtil {
         }
     }
     
+    public static long lireId(CharSequence texte) {
+        if (texte == null || texte.length() == 0 || texte.length() > 18) {
+            return -1;
+        }
+        long id = 0;
+        for (int i = 0; i < texte.length(); i++) {
+            char c = texte.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            id = id * 10 + (c - '0');
+        }
+        return id > 0 ? id : -1;
+    }
+    
+    
+    public static long lireMontantCentimes(CharSequence texte) {
+        if (texte == null || texte.length() == 0) {
+            return -1;
+        }
+        int longueur = texte.length();
+        int point = -1;
+        long unites = 0;
+        int chiffres = 0;
+        for (int i = 0; i < longueur; i++) {
+            char c = texte.charAt(i);
+            if (c == '.' && point < 0) {
+                point = i;
+            } else if (c < '0' || c > '9') {
+                return -1;
+            } else if (point < 0) {
+                if (++chiffres > 13) {
+                    return -1;
+                }
+                unites = unites * 10 + (c - '0');
+            }
+        }
+        int decimales = point < 0 ? 0 : longueur - point - 1;
+        if (chiffres == 0 || (point >= 0 && (decimales < 1 || decimales > 2))) {
+            return -1;
+        }
+        long centimes = unites * 100;
+        if (decimales >= 1) {
+            centimes += (texte.charAt(point + 1) - '0') * 10;
+        }
+        if (decimales == 2) {
+            centimes += texte.charAt(point + 2) - '0';
+        }
+        return centimes > 0 ? centimes : -1;
+    }
+    
     public static String formatMontant(BigDecimal montant) {
         return String.format("%.2f", montant);
     }
@@ -33,10 +33,12 @@ CREATE TABLE transaction (
     type ENUM('VERSEMENT', 'RETRAIT', 'VIREMENT') NOT NULL,
     lieu VARCHAR(200),
     id_compte BIGINT NOT NULL,
+    journal_seq BIGINT NULL,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     
     FOREIGN KEY (id_compte) REFERENCES compte(id) ON DELETE RESTRICT,
-    INDEX idx_compte (id_compte),
+    UNIQUE INDEX uk_journal_seq (journal_seq),
+    INDEX idx_compte_date (id_compte, date, id),
     INDEX idx_date (date),
     INDEX idx_type (type),
     INDEX idx_montant (montant),
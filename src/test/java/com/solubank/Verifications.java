@@ -0,0 +1,45 @@
+package com.solubank;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.SQLException;
+
+
+public final class Verifications {
+    private final String suite;
+    private int reussies;
+    private int echouees;
+
+    public Verifications(String suite) {
+        this.suite = suite;
+    }
+
+    public void verifier(boolean condition, String description) {
+        if (condition) {
+            reussies++;
+            System.out.println("  OK    " + description);
+        } else {
+            echouees++;
+            System.out.println("  ECHEC " + description);
+        }
+    }
+
+    public void egal(Object attendu, Object obtenu, String description) {
+        verifier(attendu == null ? obtenu == null : attendu.equals(obtenu),
+            description + " (attendu " + attendu + ", obtenu " + obtenu + ")");
+    }
+
+    public void terminer() {
+        System.out.printf("%s: %d réussie(s), %d échec(s)%n", suite, reussies, echouees);
+        if (echouees > 0) {
+            System.exit(1);
+        }
+    }
+
+    public static DataSource baseIndisponible() {
+        return (DataSource) Proxy.newProxyInstance(Verifications.class.getClassLoader(),
+            new Class<?>[]{DataSource.class}, (proxy, methode, arguments) -> {
+                throw new SQLException("Base de données indisponible");
+            });
+    }
+}
\ No newline at end of file
@@ -0,0 +1,142 @@
+package com.solubank.analytics;
+
+import com.solubank.Verifications;
+import com.solubank.entity.Transaction;
+import com.solubank.entity.TypeTransaction;
+import com.solubank.util.LocationDictionary;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+
+public class ColumnarTransactionStoreTest {
+    private static final LocalDateTime DEBUT = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    // Simule la table transaction telle que vue par une lecture: seules les lignes validées y figurent
+    private static final class TableSimulee implements ColumnarTransactionStore.Source {
+        private final ConcurrentSkipListMap<Long, Transaction> validees = new ConcurrentSkipListMap<>();
+        private final List<long[]> plagesDemandees = new ArrayList<>();
+
+        void valider(long... ids) {
+            for (long id : ids) {
+                validees.put(id, transaction(id));
+            }
+        }
+
+        @Override
+        public Stream<Transaction> lire(long apresId, long[] plages) {
+            plagesDemandees.add(plages.clone());
+            return validees.values().stream().filter(t -> t.id() > apresId || dansPlages(t.id(), plages));
+        }
+
+        long[] dernieresPlages() {
+            return plagesDemandees.get(plagesDemandees.size() - 1);
+        }
+
+        private static boolean dansPlages(long id, long[] plages) {
+            for (int i = 0; i < plages.length; i += 2) {
+                if (id >= plages[i] && id <= plages[i + 1]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Verifications verifications = new Verifications("ColumnarTransactionStoreTest");
+        validationTardive(verifications);
+        instantaneAvecTrou(verifications);
+        ajoutPendantSynchronisation(verifications);
+        verifications.terminer();
+    }
+
+    private static void validationTardive(Verifications verifications) {
+        System.out.println("Validation tardive sous le filigrane");
+        TableSimulee table = new TableSimulee();
+        ColumnarTransactionStore magasin = new ColumnarTransactionStore(new LocationDictionary());
+        // 3 et 6 sont réservés par des écrivains dont la transaction n'est pas encore validée
+        table.valider(1, 2, 4, 5, 7);
+        verifications.egal(5, magasin.synchroniser(table), "lignes validées chargées");
+        verifications.egal(2L, magasin.filigranePersistable(), "le filigrane persistable s'arrête sous le premier trou");
+
+        table.valider(3, 6, 8);
+        verifications.egal(3, magasin.synchroniser(table), "les validations tardives sont rattrapées");
+        verifications.egal("[3, 3, 6, 6]", Arrays.toString(table.dernieresPlages()), "seuls les trous sont relus");
+        verifications.egal(8, magasin.taille(), "aucune ligne perdue ni dupliquée");
+        verifications.egal(8L, magasin.filigranePersistable(), "le filigrane avance une fois les trous comblés");
+
+        magasin.synchroniser(table);
+        verifications.egal(0, table.dernieresPlages().length, "plus de trou à relire");
+    }
+
+    private static void instantaneAvecTrou(Verifications verifications) throws Exception {
+        System.out.println("Instantané écrit avec un trou ouvert");
+        Path dossier = Files.createTempDirectory("solubank-magasin");
+        Path fichier = dossier.resolve("transactions.snap");
+        LocationDictionary dictionnaire = new LocationDictionary();
+        TableSimulee table = new TableSimulee();
+        ColumnarTransactionStore magasin = new ColumnarTransactionStore(dictionnaire);
+        table.valider(1, 2, 4, 5);
+        magasin.synchroniser(table);
+        TransactionSnapshot.ecrireTransactions(fichier, magasin);
+
+        table.valider(3);
+        ColumnarTransactionStore recharge = new ColumnarTransactionStore(dictionnaire);
+        TransactionSnapshot.chargerTransactions(fichier, recharge);
+        verifications.egal(2L, recharge.dernierIdCharge(), "l'instantané repart sous le trou");
+        verifications.egal(1, recharge.synchroniser(table), "la validation tardive est retrouvée après rechargement");
+        verifications.egal(5, recharge.taille(), "les lignes déjà dans l'instantané ne sont pas dupliquées");
+    }
+
+    private static void ajoutPendantSynchronisation(Verifications verifications) throws Exception {
+        System.out.println("Ajout pendant une synchronisation lente");
+        ColumnarTransactionStore magasin = new ColumnarTransactionStore(new LocationDictionary());
+        CountDownLatch lectureEnCours = new CountDownLatch(1);
+        CountDownLatch reprendre = new CountDownLatch(1);
+        ColumnarTransactionStore.Source lente = (apresId, plages) -> Stream.iterate(1L, id -> id + 1).limit(20_000)
+            .map(id -> {
+                if (id == 10_000) {
+                    lectureEnCours.countDown();
+                    attendre(reprendre);
+                }
+                return transaction(id);
+            });
+        Thread synchronisation = new Thread(() -> magasin.synchroniser(lente));
+        synchronisation.start();
+        verifications.verifier(lectureEnCours.await(5, TimeUnit.SECONDS), "synchronisation en cours");
+
+        long debut = System.nanoTime();
+        magasin.ajouter(transaction(50_000));
+        long dureeMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - debut);
+        verifications.verifier(dureeMs < 1_000, "ajouter() n'attend pas la fin de la lecture (" + dureeMs + " ms)");
+        verifications.verifier(magasin.taille() > 0 && magasin.taille() < 20_000,
+            "les lots déjà préparés sont publiés pendant la lecture");
+
+        reprendre.countDown();
+        synchronisation.join();
+        verifications.egal(20_001, magasin.taille(), "toutes les lignes publiées à la fin");
+    }
+
+    private static void attendre(CountDownLatch verrou) {
+        try {
+            verrou.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Transaction transaction(long id) {
+        return new Transaction(id, DEBUT.plusMinutes(id), new BigDecimal("10.00"), TypeTransaction.VERSEMENT,
+            "Rabat, Maroc", 1 + id % 7);
+    }
+}
\ No newline at end of file
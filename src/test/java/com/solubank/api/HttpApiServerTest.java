@@ -0,0 +1,134 @@
+package com.solubank.api;
+
+import com.solubank.Verifications;
+import com.solubank.entity.Compte;
+import com.solubank.entity.CompteCourant;
+import com.solubank.entity.Transaction;
+import com.solubank.entity.TransactionEvaluee;
+import com.solubank.entity.TypeTransaction;
+import com.solubank.service.AsyncService;
+import com.solubank.service.ClientService;
+import com.solubank.service.CompteService;
+import com.solubank.service.IngestionDispatcher;
+import com.solubank.service.RapportService;
+import com.solubank.service.TransactionRefuseeException;
+import com.solubank.service.TransactionService;
+import com.solubank.util.AsyncExecutor;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+public class HttpApiServerTest {
+    private static final long COMPTE = 7;
+    private static final long COMPTE_A_DECOUVERT = 8;
+    private static final long COMPTE_EN_PANNE = 9;
+
+    public static void main(String[] args) throws Exception {
+        Verifications verifications = new Verifications("HttpApiServerTest");
+        DataSource sansBase = Verifications.baseIndisponible();
+        AtomicLong identifiants = new AtomicLong();
+
+        CompteService comptes = new CompteService(sansBase) {
+            @Override
+            public Optional<Compte> rechercherParId(Long id) {
+                return id == COMPTE
+                    ? Optional.of(new CompteCourant(COMPTE, "CPT-7", new BigDecimal("1500.25"), 3L, BigDecimal.TEN))
+                    : Optional.empty();
+            }
+        };
+        TransactionService transactions = new TransactionService(sansBase) {
+            @Override
+            public TransactionEvaluee enregistrerOuRefuser(BigDecimal montant, TypeTransaction type,
+                                                           String lieu, Long compteId) {
+                if (compteId == COMPTE_A_DECOUVERT) {
+                    throw new TransactionRefuseeException(TransactionRefuseeException.Motif.FONDS_INSUFFISANTS,
+                        "Fonds insuffisants pour effectuer le retrait");
+                }
+                if (compteId == COMPTE_EN_PANNE) {
+                    throw new TransactionRefuseeException(TransactionRefuseeException.Motif.INDISPONIBLE,
+                        "La transaction n'a pas pu être enregistrée en base");
+                }
+                if (compteId != COMPTE) {
+                    throw new TransactionRefuseeException(TransactionRefuseeException.Motif.COMPTE_INEXISTANT,
+                        "Compte inexistant");
+                }
+                Transaction transaction = new Transaction(identifiants.incrementAndGet(), LocalDateTime.now(),
+                    montant, type, lieu, compteId);
+                return new TransactionEvaluee(transaction, List.of());
+            }
+        };
+
+        try (AsyncExecutor executeur = new AsyncExecutor(4);
+             IngestionDispatcher ingestion = new IngestionDispatcher(transactions,
+                 new IngestionDispatcher.Config(2, 16, 1_000), executeur)) {
+            AsyncService service = new AsyncService(new ClientService(sansBase), comptes, transactions,
+                new RapportService(sansBase, executeur), executeur, ingestion, 5_000);
+            try (HttpApiServer api = HttpApiServer.demarrer(HttpApiServer.Config.defaults(0), service, executeur)) {
+                Client client = new Client("http://127.0.0.1:" + api.getAdresse().getPort());
+
+                HttpResponse<String> reponse = client.poster(transaction(COMPTE, "Rabat"));
+                verifications.egal(201, reponse.statusCode(), "transaction acceptée");
+                verifications.verifier(reponse.body().contains("\"lieu\":\"Rabat\""), "transaction renvoyée dans la réponse");
+
+                verifications.egal(404, client.poster(transaction(42, "Rabat")).statusCode(), "compte inexistant");
+                verifications.egal(422, client.poster(transaction(COMPTE_A_DECOUVERT, "Rabat")).statusCode(),
+                    "fonds insuffisants");
+                verifications.egal(503, client.poster(transaction(COMPTE_EN_PANNE, "Rabat")).statusCode(),
+                    "panne de base signalée en 5xx");
+                verifications.egal(400, client.poster(transaction(COMPTE, "x".repeat(201))).statusCode(),
+                    "lieu trop long refusé avant l'ingestion");
+                verifications.egal(400, client.poster("{\"montant\": 1, ").statusCode(), "JSON invalide");
+                verifications.egal(400, client.poster("{\"montant\": 1.234, \"type\": \"RETRAIT\", \"compteId\": 7}")
+                    .statusCode(), "montant à trois décimales");
+
+                reponse = client.poster("[" + transaction(COMPTE, "Fès") + "," + transaction(42, "Fès") + "]");
+                verifications.egal(200, reponse.statusCode(), "lot partiellement accepté");
+                Map<?, ?> lot = (Map<?, ?>) JsonReader.lire(reponse.body());
+                verifications.egal(new BigDecimal(1), lot.get("acceptees"), "une transaction du lot acceptée");
+                verifications.egal(503, client.poster("[" + transaction(COMPTE_EN_PANNE, "Fès") + ","
+                    + transaction(42, "Fès") + "]").statusCode(), "lot refusé par une panne: statut le plus grave");
+
+                reponse = client.lire("/comptes/7/solde");
+                verifications.egal(200, reponse.statusCode(), "solde d'un compte existant");
+                verifications.verifier(reponse.body().contains("1500.25"), "solde renvoyé");
+                verifications.egal(404, client.lire("/comptes/8/solde").statusCode(), "solde d'un compte inconnu");
+                verifications.egal(400, client.lire("/comptes/x/solde").statusCode(), "identifiant invalide");
+                verifications.egal(405, client.lire("/transactions").statusCode(), "méthode non autorisée");
+                verifications.egal(404, client.lire("/inconnu").statusCode(), "route inconnue");
+
+                reponse = client.lire("/metrics");
+                verifications.egal(200, reponse.statusCode(), "métriques disponibles");
+                verifications.verifier(JsonReader.lire(reponse.body()) instanceof Map, "métriques en JSON valide");
+            }
+        }
+        verifications.terminer();
+    }
+
+    private static String transaction(long compteId, String lieu) {
+        return "{\"montant\": 250.50, \"type\": \"RETRAIT\", \"lieu\": \"" + lieu + "\", \"compteId\": " + compteId + "}";
+    }
+
+    private record Client(String base) {
+        private static final HttpClient HTTP = HttpClient.newHttpClient();
+
+        HttpResponse<String> poster(String corps) throws Exception {
+            return HTTP.send(HttpRequest.newBuilder(URI.create(base + "/transactions"))
+                .POST(HttpRequest.BodyPublishers.ofString(corps)).build(), HttpResponse.BodyHandlers.ofString());
+        }
+
+        HttpResponse<String> lire(String chemin) throws Exception {
+            return HTTP.send(HttpRequest.newBuilder(URI.create(base + chemin)).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        }
+    }
+}
\ No newline at end of file
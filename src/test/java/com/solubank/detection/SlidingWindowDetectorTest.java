@@ -0,0 +1,107 @@
+package com.solubank.detection;
+
+import com.solubank.Verifications;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+
+public class SlidingWindowDetectorTest {
+    private static final long MINUTE_MS = 60_000;
+    private static final long HEURE_MS = 60 * MINUTE_MS;
+
+    public static void main(String[] args) throws Exception {
+        Verifications verifications = new Verifications("SlidingWindowDetectorTest");
+        reservationsConcurrentes(verifications);
+        annulation(verifications);
+        evictionJusquAuSeuilBas(verifications);
+        evictionPendantLesEcritures(verifications);
+        verifications.terminer();
+    }
+
+    private static void reservationsConcurrentes(Verifications verifications) {
+        System.out.println("Écritures concurrentes sur un même compte");
+        SlidingWindowDetector detecteur = new SlidingWindowDetector(8, 10 * MINUTE_MS, 3, 1_000_00, HEURE_MS, 100);
+        List<SlidingWindowDetector.Reservation> enVol = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            enVol.add(detecteur.reserver(1, 1_000 + i, 100));
+        }
+        verifications.egal(List.of(), enVol.get(2).alertes(), "trois transactions restent sous le seuil");
+        SlidingWindowDetector.Reservation quatrieme = detecteur.reserver(1, 1_003, 100);
+        verifications.egal(List.of(SlidingWindowDetector.FREQUENCE_EXCESSIVE), quatrieme.alertes(),
+            "la quatrième voit les trois écritures encore non validées");
+
+        enVol.forEach(SlidingWindowDetector.Reservation::confirmer);
+        quatrieme.confirmer();
+        quatrieme.annuler();
+        verifications.egal(List.of(SlidingWindowDetector.FREQUENCE_EXCESSIVE, SlidingWindowDetector.CUMUL_ELEVE),
+            detecteur.reserver(1, 1_004, 1_000_00).alertes(), "les confirmations restent comptées, l'annulation tardive est ignorée");
+    }
+
+    private static void annulation(Verifications verifications) {
+        System.out.println("Écritures refusées");
+        SlidingWindowDetector detecteur = new SlidingWindowDetector(8, 10 * MINUTE_MS, 2, 1_000_00, HEURE_MS, 100);
+        for (int i = 0; i < 5; i++) {
+            detecteur.reserver(1, 1_000 + i, 100).annuler();
+        }
+        verifications.egal(List.of(), detecteur.reserver(1, 2_000, 100).alertes(),
+            "les écritures annulées ne comptent pas dans la fenêtre");
+        detecteur.reserver(42, 2_000, 100).annuler();
+        verifications.egal(1, detecteur.nombreComptesSuivis(), "un compte sans transaction validée n'est pas conservé");
+    }
+
+    private static void evictionJusquAuSeuilBas(Verifications verifications) {
+        System.out.println("Éviction au-delà du nombre maximal de comptes");
+        // Nettoyage exécuté dans le fil appelant: l'état après chaque confirmation est déterministe
+        SlidingWindowDetector detecteur = new SlidingWindowDetector(4, 10 * MINUTE_MS, 3, 1_000_00, 1_000 * HEURE_MS, 100,
+            Runnable::run);
+        for (long compte = 1; compte <= 100; compte++) {
+            detecteur.reserver(compte, compte * 1_000, 100).confirmer();
+        }
+        verifications.egal(100, detecteur.nombreComptesSuivis(), "aucune éviction jusqu'au maximum");
+        SlidingWindowDetector.Reservation enCours = detecteur.reserver(2, 200_000, 100);
+        detecteur.reserver(101, 101_000, 100).confirmer();
+        verifications.egal(90, detecteur.nombreComptesSuivis(), "éviction jusqu'à 90 % du maximum");
+        detecteur.reserver(102, 102_000, 100).confirmer();
+        verifications.egal(91, detecteur.nombreComptesSuivis(), "pas de nouvelle éviction sous le maximum");
+        enCours.confirmer();
+        verifications.egal(List.of(SlidingWindowDetector.CUMUL_ELEVE), detecteur.reserver(101, 300_000, 1_000_00).alertes(),
+            "les comptes les plus récents sont conservés");
+        verifications.egal(List.of(), detecteur.reserver(3, 300_000, 1_000_00).alertes(), "les plus anciens sont évincés");
+        verifications.egal(List.of(SlidingWindowDetector.CUMUL_ELEVE), detecteur.reserver(2, 300_000, 1_000_00).alertes(),
+            "un compte avec une écriture en cours n'est pas évincé");
+    }
+
+    private static void evictionPendantLesEcritures(Verifications verifications) throws Exception {
+        System.out.println("Éviction pendant des écritures");
+        SlidingWindowDetector detecteur = new SlidingWindowDetector(4, 10 * MINUTE_MS, 3, 1_000_00, 1_000 * HEURE_MS, 1_000);
+        AtomicBoolean arret = new AtomicBoolean();
+        Thread ecrivain = new Thread(() -> {
+            long horodatage = 0;
+            while (!arret.get()) {
+                horodatage++;
+                detecteur.reserver(horodatage % 5_000, horodatage, 100).confirmer();
+            }
+        });
+        ecrivain.start();
+        boolean sansErreur = true;
+        try {
+            for (int i = 0; i < 200; i++) {
+                detecteur.nettoyer(0);
+            }
+        } catch (RuntimeException e) {
+            sansErreur = false;
+        }
+        arret.set(true);
+        ecrivain.join();
+        verifications.verifier(sansErreur, "le tri des activités ne dépend pas des écritures concurrentes");
+
+        detecteur.reserver(9_999, Long.MAX_VALUE / 2, 100).confirmer();
+        long limite = System.currentTimeMillis() + 5_000;
+        while (detecteur.nombreComptesSuivis() > 1_000 && System.currentTimeMillis() < limite) {
+            Thread.sleep(10);
+        }
+        verifications.verifier(detecteur.nombreComptesSuivis() <= 1_000, "l'éviction s'exécute en arrière-plan");
+    }
+}
\ No newline at end of file
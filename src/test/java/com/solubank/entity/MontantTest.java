@@ -0,0 +1,69 @@
+package com.solubank.entity;
+
+import com.solubank.Verifications;
+
+import java.math.BigDecimal;
+import java.util.function.Supplier;
+
+
+public class MontantTest {
+
+    public static void main(String[] args) {
+        Verifications verifications = new Verifications("MontantTest");
+        conversion(verifications);
+        plage(verifications);
+        addition(verifications);
+        verifications.terminer();
+    }
+
+    private static void conversion(Verifications verifications) {
+        System.out.println("Conversion en centimes");
+        verifications.egal(123_456L, Montant.centimes(new BigDecimal("1234.56")), "échelle 2");
+        verifications.egal(1_200L, Montant.centimes(new BigDecimal("12")), "échelle 0");
+        verifications.egal(1_250L, Montant.centimes(new BigDecimal("12.5")), "échelle 1");
+        verifications.egal(1_250L, Montant.centimes(new BigDecimal("12.5000")), "zéros superflus au-delà de 2 décimales");
+        verifications.egal(100L, Montant.centimes(new BigDecimal("1E+0")), "notation scientifique");
+        verifications.verifier(refuse(() -> Montant.centimes(new BigDecimal("1.005"))),
+            "une troisième décimale significative est refusée, jamais arrondie");
+        verifications.egal(-1_234L, Montant.centimes(new BigDecimal("-12.34")), "montant négatif");
+        verifications.egal(new BigDecimal("-12.34"), Montant.enBigDecimal(-1_234), "retour en BigDecimal");
+        verifications.egal("0.05", Montant.of(new BigDecimal("0.05")).toString(), "affichage à deux décimales");
+    }
+
+    private static void plage(Verifications verifications) {
+        System.out.println("Plage DECIMAL(15,2)");
+        verifications.egal(Montant.MAX_CENTIMES, Montant.centimes(new BigDecimal("9999999999999.99")), "plus grand montant");
+        verifications.egal(-Montant.MAX_CENTIMES, Montant.centimes(new BigDecimal("-9999999999999.99")),
+            "plus petit montant");
+        verifications.verifier(refuse(() -> Montant.centimes(new BigDecimal("10000000000000.00"))),
+            "au-delà de DECIMAL(15,2)");
+        verifications.verifier(refuse(() -> Montant.centimes(new BigDecimal("1E+30"))), "au-delà d'un long");
+        verifications.verifier(depasse(() -> new Montant(Montant.MAX_CENTIMES + 1)), "constructeur hors plage");
+    }
+
+    private static void addition(Verifications verifications) {
+        System.out.println("Addition contrôlée");
+        verifications.egal(-50L, Montant.additionner(-150, 100), "signes mêlés");
+        verifications.verifier(depasse(() -> Montant.additionner(Long.MAX_VALUE - 10, 11)), "dépassement positif");
+        verifications.verifier(depasse(() -> Montant.additionner(Long.MIN_VALUE + 10, -11)), "dépassement négatif");
+        verifications.egal(Long.MAX_VALUE, Montant.additionner(Long.MAX_VALUE - 10, 10), "limite atteinte sans dépassement");
+    }
+
+    private static boolean refuse(Supplier<?> conversion) {
+        try {
+            conversion.get();
+            return false;
+        } catch (IllegalArgumentException e) {
+            return true;
+        }
+    }
+
+    private static boolean depasse(Supplier<?> calcul) {
+        try {
+            calcul.get();
+            return false;
+        } catch (ArithmeticException e) {
+            return true;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,168 @@
+package com.solubank.journal;
+
+import com.solubank.Verifications;
+import com.solubank.entity.Transaction;
+import com.solubank.entity.TypeTransaction;
+
+import java.math.BigDecimal;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+public class TransactionJournalTest {
+    private static final TransactionJournal.Config CONFIG = new TransactionJournal.Config(16, 500, 4, 64, 1 << 20, 50);
+    private static final String LIEU_EMPOISONNE = "poison";
+
+    // Simule la table transaction: un lot est appliqué entièrement ou pas du tout
+    private static final class BaseSimulee implements TransactionJournal.Applicateur {
+        private final List<Long> sequences = new ArrayList<>();
+        private final AtomicInteger echecsTransitoires = new AtomicInteger();
+        private volatile boolean enPanne;
+
+        @Override
+        public synchronized void appliquer(List<EntreeJournal> lot) throws SQLException {
+            if (enPanne || echecsTransitoires.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                throw new SQLException("Communications link failure", "08S01");
+            }
+            for (EntreeJournal entree : lot) {
+                if (LIEU_EMPOISONNE.equals(entree.transaction().lieu())) {
+                    throw new SQLException("Data too long for column 'lieu'", "22001");
+                }
+            }
+            lot.forEach(entree -> sequences.add(entree.sequence()));
+        }
+
+        @Override
+        public synchronized long derniereSequenceAppliquee() {
+            return sequences.isEmpty() ? 0 : sequences.get(sequences.size() - 1);
+        }
+
+        synchronized List<Long> sequences() {
+            return new ArrayList<>(sequences);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Verifications verifications = new Verifications("TransactionJournalTest");
+        Path dossier = Files.createTempDirectory("solubank-journal");
+
+        enregistrementEmpoisonne(verifications, dossier.resolve("poison.journal"));
+        validationAvantAccuse(verifications, dossier.resolve("validation.journal"));
+        rejeuApresArret(verifications, dossier.resolve("rejeu.journal"), false);
+        rejeuApresArret(verifications, dossier.resolve("dechire.journal"), true);
+        repriseSurPanneAuDemarrage(verifications, dossier.resolve("reprise.journal"));
+
+        verifications.terminer();
+    }
+
+    private static void enregistrementEmpoisonne(Verifications verifications, Path fichier) throws Exception {
+        System.out.println("Enregistrement empoisonné");
+        BaseSimulee base = new BaseSimulee();
+        try (TransactionJournal journal = TransactionJournal.ouvrir(fichier, CONFIG, base)) {
+            for (int i = 1; i <= 5; i++) {
+                journal.journaliser(transaction(i == 3 ? LIEU_EMPOISONNE : "Rabat", 1)).join();
+            }
+            verifications.verifier(journal.attendreAppliquee(5, 5_000), "le journal avance au-delà de l'enregistrement refusé");
+            verifications.egal(List.of(1L, 2L, 4L, 5L), base.sequences(), "seules les transactions valides sont appliquées");
+            verifications.egal(1L, journal.getStatistics().rejetees(), "une transaction rejetée");
+            verifications.egal(0L, journal.getStatistics().reessais(), "un refus de classe 22 n'est pas réessayé");
+
+            long suivante = journal.journaliser(transaction("Fès", 1)).join();
+            verifications.verifier(journal.attendreAppliquee(suivante, 5_000), "le journal accepte encore des transactions");
+        }
+        Path rejets = fichier.resolveSibling(fichier.getFileName() + ".rejets");
+        verifications.verifier(Files.exists(rejets) && Files.readString(rejets).startsWith("3;"),
+            "la transaction refusée est consignée dans le fichier de rejets");
+    }
+
+    private static void validationAvantAccuse(Verifications verifications, Path fichier) throws Exception {
+        System.out.println("Validation avant accusé");
+        BaseSimulee base = new BaseSimulee();
+        try (TransactionJournal journal = TransactionJournal.ouvrir(fichier, CONFIG, base)) {
+            verifications.verifier(refusee(journal.journaliser(transaction("x".repeat(201), 1))),
+                "un lieu de plus de 200 caractères est refusé avant l'accusé");
+            Transaction horsPlage = new Transaction(null, LocalDateTime.now(), new BigDecimal("10000000000000.00"),
+                TypeTransaction.VERSEMENT, "Rabat", 1L);
+            verifications.verifier(refusee(journal.journaliser(horsPlage)),
+                "un montant hors DECIMAL(15,2) est refusé avant l'accusé");
+            verifications.egal(0L, journal.getStatistics().ecrites(), "rien n'est écrit dans le journal");
+        }
+    }
+
+    private static void rejeuApresArret(Verifications verifications, Path fichier, boolean dechire) throws Exception {
+        System.out.println(dechire ? "Rejeu avec fin d'enregistrement déchirée" : "Rejeu après arrêt");
+        BaseSimulee base = new BaseSimulee();
+        base.enPanne = true;
+        TransactionJournal journal = TransactionJournal.ouvrir(fichier, CONFIG, base);
+        for (int i = 0; i < 10; i++) {
+            journal.journaliser(transaction("Casablanca", i % 3)).join();
+        }
+        journal.fermer(200);
+        verifications.egal(List.of(), base.sequences(), "rien n'est appliqué pendant la panne");
+
+        long taille = Files.size(fichier);
+        if (dechire) {
+            try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.WRITE)) {
+                canal.truncate(taille - 5);
+            }
+        }
+
+        base.enPanne = false;
+        try (TransactionJournal rouvert = TransactionJournal.ouvrir(fichier, CONFIG, base)) {
+            List<Long> attendues = new ArrayList<>();
+            for (long sequence = 1; sequence <= (dechire ? 9 : 10); sequence++) {
+                attendues.add(sequence);
+            }
+            verifications.egal(attendues, base.sequences(), dechire
+                ? "les enregistrements complets sont rejoués, l'enregistrement déchiré est écarté"
+                : "toutes les transactions accusées sont rejouées dans l'ordre");
+            verifications.egal(0L, Files.size(fichier), "le journal est vidé après le rejeu");
+            long suivante = rouvert.journaliser(transaction("Rabat", 1)).join();
+            verifications.egal(dechire ? 10L : 11L, suivante, "la numérotation reprend après la dernière séquence");
+        }
+    }
+
+    private static void repriseSurPanneAuDemarrage(Verifications verifications, Path fichier) throws Exception {
+        System.out.println("Base indisponible pendant le rejeu");
+        BaseSimulee base = new BaseSimulee();
+        base.enPanne = true;
+        TransactionJournal journal = TransactionJournal.ouvrir(fichier, CONFIG, base);
+        for (int i = 0; i < 6; i++) {
+            journal.journaliser(transaction("Tanger", 2)).join();
+        }
+        journal.fermer(200);
+
+        base.enPanne = false;
+        base.echecsTransitoires.set(3);
+        try (TransactionJournal rouvert = TransactionJournal.ouvrir(fichier, CONFIG, base)) {
+            verifications.verifier(true, "l'ouverture ne dépend pas de la disponibilité de la base");
+            verifications.verifier(Files.size(fichier) > 0, "les transactions non rejouées restent sur disque");
+            long suivante = rouvert.journaliser(transaction("Tanger", 2)).join();
+            verifications.verifier(rouvert.attendreCompte(2, 5_000), "le compte est à jour une fois la base revenue");
+            verifications.egal(List.of(1L, 2L, 3L, 4L, 5L, 6L, suivante), base.sequences(),
+                "reprise puis nouvelles écritures, dans l'ordre");
+        }
+    }
+
+    private static boolean refusee(CompletableFuture<Long> accuse) {
+        try {
+            accuse.join();
+            return false;
+        } catch (CompletionException e) {
+            return e.getCause() instanceof IllegalArgumentException;
+        }
+    }
+
+    private static Transaction transaction(String lieu, long compteId) {
+        return new Transaction(null, LocalDateTime.now(), new BigDecimal("100.00"), TypeTransaction.VERSEMENT, lieu, compteId);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,137 @@
+package com.solubank.service;
+
+import com.solubank.Verifications;
+import com.solubank.entity.Transaction;
+import com.solubank.entity.TypeTransaction;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+
+public class ExportServiceTest {
+
+    public static void main(String[] args) throws IOException {
+        Verifications verifications = new Verifications("ExportServiceTest");
+        zigzag(verifications);
+        allerRetour(verifications);
+        debordementLieux(verifications);
+        detectionGzip(verifications);
+        csv(verifications);
+        verifications.terminer();
+    }
+
+    private static void zigzag(Verifications verifications) {
+        System.out.println("Codage zigzag des écarts");
+        verifications.egal(0L, ExportService.zigzag(0), "zéro");
+        verifications.egal(1L, ExportService.zigzag(-1), "-1 tient sur un octet");
+        verifications.egal(2L, ExportService.zigzag(1), "1 tient sur un octet");
+        verifications.egal(3L, ExportService.zigzag(-2), "les négatifs s'intercalent");
+        verifications.egal(Long.MIN_VALUE, ExportService.dezigzag(ExportService.zigzag(Long.MIN_VALUE)), "plus petit long");
+        verifications.egal(Long.MAX_VALUE, ExportService.dezigzag(ExportService.zigzag(Long.MAX_VALUE)), "plus grand long");
+    }
+
+    private static void allerRetour(Verifications verifications) throws IOException {
+        System.out.println("Export binaire puis relecture");
+        List<Transaction> transactions = List.of(
+            transaction(10, "2024-03-01T10:00:00", "150.00", TypeTransaction.VERSEMENT, "Casablanca", 1),
+            // Identifiant et date en recul: écarts négatifs
+            transaction(5, "2024-02-28T23:59:59", "0.01", TypeTransaction.RETRAIT, null, 2),
+            transaction(3_000_000_000L, "2024-03-02T08:30:00", "9999999999999.99", TypeTransaction.VIREMENT,
+                "Casablanca", Long.MAX_VALUE),
+            transaction(3_000_000_001L, "1970-01-01T00:00:00", "12.30", TypeTransaction.VERSEMENT, "Fès", 3)
+        );
+        ByteArrayOutputStream tampon = new ByteArrayOutputStream();
+        ExportService.Resultat resultat = exporter(tampon, ExportService.Format.BINAIRE, false, transactions, 1 << 20);
+        verifications.egal(4L, resultat.lignes(), "lignes exportées");
+        verifications.egal((long) tampon.size(), resultat.octets(), "octets comptés");
+
+        List<Transaction> relues = new ArrayList<>();
+        long lues = ExportService.lireBinaire(new ByteArrayInputStream(tampon.toByteArray()), relues::add);
+        verifications.egal(4L, lues, "lignes relues");
+        verifications.verifier(transactions.equals(relues), "transactions identiques après relecture");
+
+        byte[] tronque = Arrays.copyOf(tampon.toByteArray(), tampon.size() - 1);
+        verifications.verifier(refuse(tronque), "un export tronqué est refusé");
+        verifications.verifier(refuse("CSV;".getBytes(StandardCharsets.US_ASCII)), "un format inconnu est refusé");
+    }
+
+    private static void debordementLieux(Verifications verifications) throws IOException {
+        System.out.println("Dictionnaire de lieux plein");
+        List<Transaction> transactions = new ArrayList<>();
+        String[] lieux = { "Rabat", "Tanger", "Agadir", "Rabat", "Agadir", "Oujda", "Agadir", "Tanger" };
+        for (int i = 0; i < lieux.length; i++) {
+            transactions.add(transaction(i + 1, "2024-01-01T12:00:00", "10.00", TypeTransaction.VERSEMENT, lieux[i], 1));
+        }
+        ByteArrayOutputStream plein = new ByteArrayOutputStream();
+        exporter(plein, ExportService.Format.BINAIRE, false, transactions, 2);
+        List<Transaction> relues = new ArrayList<>();
+        ExportService.lireBinaire(new ByteArrayInputStream(plein.toByteArray()), relues::add, 2);
+        verifications.verifier(transactions.equals(relues), "les lieux hors dictionnaire sont relus en clair");
+
+        ByteArrayOutputStream ample = new ByteArrayOutputStream();
+        exporter(ample, ExportService.Format.BINAIRE, false, transactions, 1 << 20);
+        verifications.verifier(plein.size() > ample.size(), "au-delà du plafond les lieux sont répétés en clair");
+    }
+
+    private static void detectionGzip(Verifications verifications) throws IOException {
+        System.out.println("Détection de la compression à la relecture");
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 1; i <= 1_000; i++) {
+            transactions.add(transaction(i, "2024-05-01T09:00:00", i + ".50", TypeTransaction.RETRAIT, "Marrakech", i % 7));
+        }
+        ByteArrayOutputStream brut = new ByteArrayOutputStream();
+        exporter(brut, ExportService.Format.BINAIRE, false, transactions, 1 << 20);
+        ByteArrayOutputStream compresse = new ByteArrayOutputStream();
+        exporter(compresse, ExportService.Format.BINAIRE, true, transactions, 1 << 20);
+
+        byte[] octets = compresse.toByteArray();
+        verifications.verifier(octets[0] == (byte) 0x1f && octets[1] == (byte) 0x8b, "en-tête gzip");
+        verifications.egal("SBTX", new String(brut.toByteArray(), 0, 4, StandardCharsets.US_ASCII), "en-tête non compressé");
+        verifications.verifier(octets.length < brut.size(), "la compression réduit l'export");
+
+        List<Transaction> relues = new ArrayList<>();
+        ExportService.lireBinaire(new ByteArrayInputStream(octets), relues::add);
+        verifications.verifier(transactions.equals(relues), "export compressé relu sans option");
+    }
+
+    private static void csv(Verifications verifications) throws IOException {
+        System.out.println("Export CSV");
+        ByteArrayOutputStream tampon = new ByteArrayOutputStream();
+        exporter(tampon, ExportService.Format.CSV, false, List.of(
+            transaction(7, "2024-12-31T23:05:09", "1234.05", TypeTransaction.VIREMENT, "Rue \"A\"; Rabat", 42),
+            transaction(8, "2025-01-01T00:00:00", "0.07", TypeTransaction.VERSEMENT, null, 43)
+        ), 1 << 20);
+        verifications.egal("id;date;montant;type;lieu;id_compte\n"
+                + "7;2024-12-31 23:05:09;1234.05;VIREMENT;\"Rue \"\"A\"\"; Rabat\";42\n"
+                + "8;2025-01-01 00:00:00;0.07;VERSEMENT;;43\n",
+            tampon.toString(StandardCharsets.UTF_8), "lignes et échappement du lieu");
+    }
+
+    private static ExportService.Resultat exporter(ByteArrayOutputStream tampon, ExportService.Format format,
+                                                   boolean compresse, List<Transaction> transactions,
+                                                   int maxLieux) throws IOException {
+        return ExportService.exporter(Channels.newChannel(tampon), format, compresse, transactions.iterator(), maxLieux);
+    }
+
+    private static boolean refuse(byte[] octets) {
+        try {
+            ExportService.lireBinaire(new ByteArrayInputStream(octets), transaction -> { });
+            return false;
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    private static Transaction transaction(long id, String date, String montant, TypeTransaction type,
+                                           String lieu, long compteId) {
+        return new Transaction(id, LocalDateTime.parse(date), new BigDecimal(montant), type, lieu, compteId);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,142 @@
+package com.solubank.service;
+
+import com.solubank.Verifications;
+import com.solubank.entity.Transaction;
+import com.solubank.entity.TransactionEvaluee;
+import com.solubank.entity.TypeTransaction;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+
+public class IngestionDispatcherTest {
+
+    public static void main(String[] args) throws Exception {
+        Verifications verifications = new Verifications("IngestionDispatcherTest");
+        ordreParCompte(verifications);
+        voiePleineRefusee(verifications);
+        voiePleineBloquante(verifications);
+        verifications.terminer();
+    }
+
+    private static void ordreParCompte(Verifications verifications) {
+        System.out.println("Ordre des écritures d'un même compte");
+        Map<Long, List<Integer>> ecritures = new ConcurrentHashMap<>();
+        IngestionDispatcher.Ecriture enregistrement = (montant, type, lieu, compteId) -> {
+            ecritures.computeIfAbsent(compteId, id -> new ArrayList<>()).add(montant.intValue());
+            return evaluee(montant, compteId);
+        };
+        List<CompletableFuture<TransactionEvaluee>> resultats = new ArrayList<>();
+        try (IngestionDispatcher repartiteur = new IngestionDispatcher(enregistrement,
+                new IngestionDispatcher.Config(4, 1_000, 1_000), null)) {
+            for (int rang = 1; rang <= 500; rang++) {
+                long compteId = rang % 7 + 1;
+                resultats.add(repartiteur.soumettre(BigDecimal.valueOf(rang), TypeTransaction.VERSEMENT, null, compteId));
+            }
+            CompletableFuture.allOf(resultats.toArray(new CompletableFuture<?>[0])).join();
+        }
+
+        boolean ordonne = true;
+        int total = 0;
+        for (List<Integer> montants : ecritures.values()) {
+            for (int i = 1; i < montants.size(); i++) {
+                ordonne &= montants.get(i - 1) < montants.get(i);
+            }
+            total += montants.size();
+        }
+        verifications.egal(7, ecritures.size(), "chaque compte est servi");
+        verifications.egal(500, total, "chaque soumission est écrite une fois");
+        verifications.verifier(ordonne, "les écritures d'un compte suivent l'ordre de soumission");
+    }
+
+    private static void voiePleineRefusee(Verifications verifications) throws Exception {
+        System.out.println("Voie pleine au-delà du délai de soumission");
+        CountDownLatch enCours = new CountDownLatch(1);
+        CountDownLatch liberation = new CountDownLatch(1);
+        try (IngestionDispatcher repartiteur = new IngestionDispatcher(bloquante(enCours, liberation),
+                new IngestionDispatcher.Config(1, 2, 200), null)) {
+            CompletableFuture<TransactionEvaluee> premiere = soumettre(repartiteur, 1);
+            enCours.await();
+            CompletableFuture<TransactionEvaluee> deuxieme = soumettre(repartiteur, 2);
+            CompletableFuture<TransactionEvaluee> troisieme = soumettre(repartiteur, 3);
+            verifications.egal(2, repartiteur.getStatistics().get(0).profondeur(), "la voie est pleine");
+
+            long debut = System.nanoTime();
+            CompletableFuture<TransactionEvaluee> refusee = soumettre(repartiteur, 4);
+            long attenteMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - debut);
+            verifications.verifier(attenteMs >= 150, "le producteur attend le délai de soumission (" + attenteMs + " ms)");
+            verifications.verifier(refusee.isCompletedExceptionally() && cause(refusee) instanceof RejectedExecutionException,
+                "la soumission est refusée une fois le délai écoulé");
+            verifications.egal(1L, repartiteur.getStatistics().get(0).refusees(), "le refus est compté");
+
+            liberation.countDown();
+            verifications.egal(List.of(1, 2, 3), List.of(montant(premiere), montant(deuxieme), montant(troisieme)),
+                "les demandes acceptées sont écrites dans l'ordre");
+        }
+    }
+
+    private static void voiePleineBloquante(Verifications verifications) throws Exception {
+        System.out.println("Voie pleine libérée avant le délai de soumission");
+        CountDownLatch enCours = new CountDownLatch(1);
+        CountDownLatch liberation = new CountDownLatch(1);
+        try (IngestionDispatcher repartiteur = new IngestionDispatcher(bloquante(enCours, liberation),
+                new IngestionDispatcher.Config(1, 1, 10_000), null)) {
+            soumettre(repartiteur, 1);
+            enCours.await();
+            soumettre(repartiteur, 2);
+
+            CompletableFuture<CompletableFuture<TransactionEvaluee>> producteur =
+                CompletableFuture.supplyAsync(() -> soumettre(repartiteur, 3));
+            Thread.sleep(200);
+            verifications.verifier(!producteur.isDone(), "le producteur reste bloqué tant que la voie est pleine");
+
+            liberation.countDown();
+            verifications.egal(3, montant(producteur.get(5, TimeUnit.SECONDS)),
+                "la demande entre dans la voie dès qu'une place se libère");
+            verifications.egal(0L, repartiteur.getStatistics().get(0).refusees(), "aucun refus");
+        }
+    }
+
+    private static IngestionDispatcher.Ecriture bloquante(CountDownLatch enCours, CountDownLatch liberation) {
+        return (montant, type, lieu, compteId) -> {
+            enCours.countDown();
+            try {
+                liberation.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return evaluee(montant, compteId);
+        };
+    }
+
+    private static CompletableFuture<TransactionEvaluee> soumettre(IngestionDispatcher repartiteur, int montant) {
+        return repartiteur.soumettre(BigDecimal.valueOf(montant), TypeTransaction.RETRAIT, null, 1L);
+    }
+
+    private static int montant(CompletableFuture<TransactionEvaluee> resultat) {
+        return resultat.join().transaction().montant().intValue();
+    }
+
+    private static Throwable cause(CompletableFuture<?> resultat) {
+        try {
+            resultat.join();
+            return null;
+        } catch (CompletionException e) {
+            return e.getCause();
+        }
+    }
+
+    private static TransactionEvaluee evaluee(BigDecimal montant, Long compteId) {
+        return new TransactionEvaluee(new Transaction(null, LocalDateTime.now(), montant, TypeTransaction.VERSEMENT,
+            null, compteId), List.of());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,195 @@
+package com.solubank.util;
+
+import com.solubank.Verifications;
+import com.solubank.analytics.ColumnarTransactionStore;
+import com.solubank.dao.ClientDAO;
+import com.solubank.dao.TransactionDAO;
+import com.solubank.entity.Transaction;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+
+public class AsyncExecutorTest {
+
+    // Simule un serveur lent: exécution et lecture bloquent jusqu'à l'annulation de la requête
+    private static final class BaseLente {
+        private final CountDownLatch annulation = new CountDownLatch(1);
+        private final boolean lectureLente;
+        private volatile int delaiRequete = -1;
+
+        BaseLente(boolean lectureLente) {
+            this.lectureLente = lectureLente;
+        }
+
+        DataSource dataSource() {
+            return proxy(DataSource.class, (methode, arguments) -> switch (methode) {
+                case "getConnection" -> connexion();
+                default -> null;
+            });
+        }
+
+        private Connection connexion() {
+            return proxy(Connection.class, (methode, arguments) -> switch (methode) {
+                case "createStatement", "prepareStatement" -> requete();
+                default -> null;
+            });
+        }
+
+        private PreparedStatement requete() {
+            return proxy(PreparedStatement.class, (methode, arguments) -> switch (methode) {
+                case "setQueryTimeout" -> {
+                    delaiRequete = (Integer) arguments[0];
+                    yield null;
+                }
+                case "cancel" -> {
+                    annulation.countDown();
+                    yield null;
+                }
+                case "executeQuery" -> {
+                    if (!lectureLente) {
+                        attendreAnnulation();
+                    }
+                    yield resultat();
+                }
+                default -> null;
+            });
+        }
+
+        private ResultSet resultat() {
+            return proxy(ResultSet.class, (methode, arguments) -> switch (methode) {
+                case "next" -> {
+                    attendreAnnulation();
+                    yield false;
+                }
+                default -> null;
+            });
+        }
+
+        private void attendreAnnulation() throws SQLException {
+            // Comme un pilote JDBC: l'interruption du fil ne débloque pas la lecture
+            long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (annulation.getCount() > 0) {
+                if (System.nanoTime() > limite) {
+                    throw new SQLException("Requête jamais annulée");
+                }
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+            }
+            throw new SQLException("Query execution was interrupted", "70100");
+        }
+    }
+
+    @FunctionalInterface
+    private interface Reponse {
+        Object repondre(String methode, Object[] arguments) throws Exception;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Verifications verifications = new Verifications("AsyncExecutorTest");
+        try (AsyncExecutor executeur = new AsyncExecutor(2)) {
+            requeteLente(verifications, executeur);
+            lectureLente(verifications, executeur);
+            attenteSynchronisation(verifications, executeur);
+        }
+        verifications.terminer();
+    }
+
+    private static void requeteLente(Verifications verifications, AsyncExecutor executeur) throws Exception {
+        System.out.println("Requête lente au-delà du délai");
+        BaseLente base = new BaseLente(false);
+        ClientDAO clients = new ClientDAO(base.dataSource());
+        long debut = System.nanoTime();
+        CompletableFuture<Long> section = executeur.soumettre(clients::count, 300);
+        verifications.verifier(expiree(section), "la section expire");
+        verifications.verifier(base.annulation.await(2, TimeUnit.SECONDS), "la requête est annulée sur le serveur");
+        verifications.egal(1, base.delaiRequete, "le délai restant est posé sur la requête");
+        attendreLiberation(executeur);
+        verifications.verifier(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - debut) < 2_000,
+            "le permis est rendu sans attendre la fin de la requête");
+    }
+
+    private static void lectureLente(Verifications verifications, AsyncExecutor executeur) throws Exception {
+        System.out.println("Lecture de curseur au-delà du délai");
+        BaseLente base = new BaseLente(true);
+        TransactionDAO transactions = new TransactionDAO(base.dataSource());
+        CompletableFuture<Long> section = executeur.soumettre(() -> {
+            try (Stream<Transaction> flux = transactions.streamAfterId(0)) {
+                return flux.count();
+            }
+        }, 300);
+        verifications.verifier(expiree(section), "la section expire");
+        verifications.verifier(base.annulation.await(2, TimeUnit.SECONDS), "la lecture en cours est annulée");
+        attendreLiberation(executeur);
+        verifications.egal(0, executeur.getStatistics().enCours(), "aucune tâche ne reste bloquée sur le curseur");
+    }
+
+    private static void attenteSynchronisation(Verifications verifications, AsyncExecutor executeur) throws Exception {
+        System.out.println("Attente d'une synchronisation du magasin");
+        ColumnarTransactionStore magasin = new ColumnarTransactionStore(new LocationDictionary());
+        CountDownLatch lectureEnCours = new CountDownLatch(1);
+        CountDownLatch fin = new CountDownLatch(1);
+        Thread synchronisation = new Thread(() -> magasin.synchroniser((apresId, plages) -> {
+            lectureEnCours.countDown();
+            try {
+                fin.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Stream.empty();
+        }));
+        synchronisation.start();
+        lectureEnCours.await();
+
+        CompletableFuture<Integer> section = executeur.soumettre(
+            () -> magasin.synchroniser((apresId, plages) -> Stream.empty()), 300);
+        verifications.verifier(expiree(section), "la section expire");
+        attendreLiberation(executeur);
+        verifications.egal(0, executeur.getStatistics().enCours(),
+            "l'attente du verrou de synchronisation est interrompue à l'échéance");
+        fin.countDown();
+        synchronisation.join();
+    }
+
+    private static boolean expiree(CompletableFuture<?> section) {
+        try {
+            section.join();
+            return false;
+        } catch (CompletionException e) {
+            return e.getCause() instanceof TimeoutException;
+        }
+    }
+
+    private static void attendreLiberation(AsyncExecutor executeur) throws InterruptedException {
+        long limite = System.currentTimeMillis() + 2_000;
+        while (executeur.getStatistics().enCours() > 0 && System.currentTimeMillis() < limite) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static <T> T proxy(Class<T> type, Reponse reponse) {
+        return type.cast(Proxy.newProxyInstance(AsyncExecutorTest.class.getClassLoader(), new Class<?>[]{type},
+            (proxy, methode, arguments) -> switch (methode.getName()) {
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == arguments[0];
+                case "unwrap" -> null;
+                case "isWrapperFor" -> false;
+                default -> {
+                    Object valeur = reponse.repondre(methode.getName(), arguments);
+                    yield valeur == null && methode.getReturnType() == boolean.class ? Boolean.FALSE
+                        : valeur == null && methode.getReturnType() == int.class ? 0
+                        : valeur;
+                }
+            }));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,69 @@
+package com.solubank.util;
+
+import com.solubank.Verifications;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+
+
+public class EntityCacheTest {
+
+    public static void main(String[] args) {
+        Verifications verifications = new Verifications("EntityCacheTest");
+        invalidationPendantChargement(verifications);
+        echecDeChargement(verifications);
+        verifications.terminer();
+    }
+
+    private static void invalidationPendantChargement(Verifications verifications) {
+        System.out.println("Écritures pendant un chargement");
+        EntityCache<Long, String> cache = new EntityCache<>(100, Duration.ofMinutes(1), UnaryOperator.identity());
+        AtomicInteger chargements = new AtomicInteger();
+
+        cache.get(1L, id -> {
+            chargements.incrementAndGet();
+            // Une écriture sur un autre compte pendant la lecture de celui-ci
+            cache.invalidate(2L);
+            return Optional.of("compte 1");
+        });
+        cache.get(1L, id -> {
+            chargements.incrementAndGet();
+            return Optional.of("compte 1");
+        });
+        verifications.egal(1, chargements.get(), "l'invalidation d'une autre clé n'empêche pas le remplissage");
+
+        cache.get(3L, id -> {
+            cache.invalidate(3L);
+            return Optional.of("solde périmé");
+        });
+        verifications.egal("solde à jour", cache.get(3L, id -> Optional.of("solde à jour")).orElse(null),
+            "une valeur lue avant l'écriture de sa propre clé n'est pas mise en cache");
+
+        cache.get(4L, id -> {
+            cache.invalidateAll();
+            return Optional.of("périmé");
+        });
+        verifications.egal("frais", cache.get(4L, id -> Optional.of("frais")).orElse(null),
+            "l'invalidation globale annule les chargements en cours");
+        verifications.egal(1L, cache.getStatistics().hits(), "un seul succès de cache");
+    }
+
+    private static void echecDeChargement(Verifications verifications) {
+        System.out.println("Chargement en échec");
+        EntityCache<Long, String> cache = new EntityCache<>(100, Duration.ofMinutes(1), UnaryOperator.identity());
+        try {
+            cache.get(1L, id -> {
+                throw new IllegalStateException("base indisponible");
+            });
+        } catch (IllegalStateException e) {
+            // attendu
+        }
+        verifications.egal(Optional.empty(), cache.get(2L, id -> Optional.empty()), "clé absente");
+        cache.get(1L, id -> Optional.of("compte 1"));
+        verifications.egal("compte 1", cache.get(1L, id -> Optional.of("autre")).orElse(null),
+            "la clé est remplie au chargement suivant");
+        verifications.egal(1, cache.getStatistics().size(), "rien n'est mis en cache pour un échec ou une absence");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,45 @@
+@echo off
+echo ========================================
+echo    TESTS DU PROJET SOLUBANK
+echo ========================================
+
+REM Les tests ne demandent pas de base MySQL: les acces JDBC sont simules
+if not exist "out-test" mkdir out-test
+
+echo Compilation en cours...
+dir /s /b src\main\java\*.java src\test\java\*.java > sources-test.txt
+javac -cp "lib\mysql-connector-j-9.4.0.jar" -d out-test -encoding UTF-8 --enable-preview --release 17 @sources-test.txt
+if not %ERRORLEVEL% == 0 (
+    del sources-test.txt
+    echo ERREUR DE COMPILATION!
+    echo ========================================
+    pause
+    exit /b 1
+)
+del sources-test.txt
+
+set ECHECS=0
+for /r src\test\java %%f in (*Test.java) do (
+    call :executer "%%f"
+)
+
+echo ========================================
+if %ECHECS% == 0 (
+    echo TOUS LES TESTS SONT PASSES!
+) else (
+    echo SUITES EN ECHEC: %ECHECS%
+)
+echo ========================================
+pause
+exit /b %ECHECS%
+
+:executer
+set FICHIER=%~1
+set CLASSE=%FICHIER:*src\test\java\=%
+set CLASSE=%CLASSE:.java=%
+set CLASSE=%CLASSE:\=.%
+echo.
+echo --- %CLASSE%
+java --enable-preview -Dsolubank.detection.dir=out-test\detection -cp "out-test;lib\mysql-connector-j-9.4.0.jar" %CLASSE%
+if not %ERRORLEVEL% == 0 set /a ECHECS+=1
+exit /b 0
\ No newline at end of file